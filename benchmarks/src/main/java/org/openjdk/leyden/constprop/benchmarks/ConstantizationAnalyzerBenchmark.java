@@ -0,0 +1,79 @@
+package org.openjdk.leyden.constprop.benchmarks;
+
+import org.objectweb.asm.tree.analysis.AnalyzerException;
+import org.objectweb.asm.tree.analysis.Frame;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.leyden.constprop.analysis.ConstantizationAnalyzer;
+import org.openjdk.leyden.constprop.values.ConstantizationValue;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link ConstantizationAnalyzer#analyze} over the {@link Corpus}. Besides the primary throughput score, the
+ * <code>instructions</code> secondary result reports analyzed instructions per second, i.e. the inverse of the time
+ * spent per instruction, which is comparable across methods of different sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConstantizationAnalyzerBenchmark {
+
+    @Param({
+            "loop:singleLoop",
+            "loop:nestedLoops",
+            "loop:conditionalLoop",
+            "synthetic:straightLine:1024",
+            "synthetic:guardChain:8",
+            "jdk:java/lang/Integer.numberOfLeadingZeros(I)I",
+            "jdk:java/lang/Integer.numberOfTrailingZeros(I)I",
+            "jdk:java/lang/Integer.bitCount(I)I",
+            "jdk:java/lang/Integer.reverseBytes(I)I",
+            "jdk:java/lang/Integer.compare(II)I",
+            "jdk:java/lang/Long.bitCount(J)I",
+            "jdk:java/lang/Long.signum(J)I",
+    })
+    public String method;
+
+    private Corpus.Entry entry;
+    private int instructionCount;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class InstructionCounter {
+        public long instructions;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            instructions = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        entry = Corpus.load(method);
+        instructionCount = entry.instructionCount();
+    }
+
+    @Benchmark
+    public Frame<ConstantizationValue<?>>[] analyze(InstructionCounter counter) throws AnalyzerException {
+        ConstantizationAnalyzer analyzer = new ConstantizationAnalyzer();
+        Frame<ConstantizationValue<?>>[] frames = analyzer.analyze(entry.owner(), entry.method());
+        counter.instructions += instructionCount;
+        return frames;
+    }
+}
@@ -0,0 +1,71 @@
+package org.openjdk.leyden.constprop.benchmarks;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.openjdk.leyden.constprop.analysis.ClassLoaderClassPool;
+
+import java.util.Arrays;
+
+/**
+ * The fixed set of methods the benchmarks run over. Entries are addressed by a string key so they can be used as JMH
+ * parameters:
+ * <ul>
+ *     <li><code>loop:&lt;name&gt;</code> - a static method of {@link LoopTargets}</li>
+ *     <li><code>synthetic:&lt;shape&gt;:&lt;length&gt;</code> - a method generated by {@link SyntheticMethods}</li>
+ *     <li><code>jdk:&lt;owner&gt;.&lt;name&gt;&lt;descriptor&gt;</code> - a method read from the running JDK</li>
+ * </ul>
+ */
+public final class Corpus {
+    private Corpus() {
+    }
+
+    public record Entry(String owner, MethodNode method) {
+        /**
+         * @return the number of real (non-pseudo) instructions in the method
+         */
+        public int instructionCount() {
+            return (int) Arrays.stream(method.instructions.toArray()).filter(insn -> insn.getOpcode() != -1).count();
+        }
+    }
+
+    public static Entry load(String key) {
+        String[] parts = key.split(":", 3);
+
+        return switch (parts[0]) {
+            case "loop" -> new Entry(Type.getInternalName(LoopTargets.class),
+                    methodNode(Type.getInternalName(LoopTargets.class), parts[1], "()V"));
+            case "synthetic" -> {
+                int length = Integer.parseInt(parts[2]);
+                MethodNode mn = switch (parts[1]) {
+                    case "straightLine" -> SyntheticMethods.straightLine(length);
+                    case "guardChain" -> SyntheticMethods.guardChain(length);
+                    default -> throw new IllegalArgumentException("Unknown synthetic shape: " + parts[1]);
+                };
+                yield new Entry(SyntheticMethods.OWNER, mn);
+            }
+            case "jdk" -> {
+                int dot = parts[1].indexOf('.');
+                int paren = parts[1].indexOf('(');
+                String owner = parts[1].substring(0, dot);
+                yield new Entry(owner,
+                        methodNode(owner, parts[1].substring(dot + 1, paren), parts[1].substring(paren)));
+            }
+            default -> throw new IllegalArgumentException("Unknown corpus key: " + key);
+        };
+    }
+
+    private static MethodNode methodNode(String owner, String name, String descriptor) {
+        try {
+            ClassReader cr = new ClassReader(new ClassLoaderClassPool().classForName(owner));
+            ClassNode cn = new ClassNode();
+            cr.accept(cn, ClassReader.EXPAND_FRAMES);
+
+            return cn.methods.stream().filter(mn -> mn.name.equals(name) && mn.desc.equals(descriptor)).findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException(owner + "::" + name + descriptor + " cannot be found"));
+        } catch (ClassNotFoundException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+}
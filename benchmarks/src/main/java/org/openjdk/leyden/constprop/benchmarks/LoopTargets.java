@@ -0,0 +1,45 @@
+package org.openjdk.leyden.constprop.benchmarks;
+
+/**
+ * Loop shapes mirroring <code>ConstantizationAnalyzerTest.AdHocTestTarget</code>. Test classes are not visible from
+ * this module, so the targets are duplicated here and kept small on purpose.
+ */
+public class LoopTargets {
+    public static void singleLoop() {
+        int i = 0;
+
+        while (i < 10) {
+            i++;
+        }
+
+        int ii = i;
+    }
+
+    public static void nestedLoops() {
+        int sum = 0;
+
+        for (int i = 0; i < 10; i++) {
+            for (int j = 0; j < 10; j++) {
+                sum += i * j;
+            }
+        }
+
+        int result = sum;
+    }
+
+    public static void conditionalLoop() {
+        int i = 0;
+        int j = 1;
+
+        while (i < 100) {
+            if (i % 2 == 0) {
+                j = j << 1;
+            } else {
+                j = j - 1;
+            }
+            i++;
+        }
+
+        int result = i + j;
+    }
+}
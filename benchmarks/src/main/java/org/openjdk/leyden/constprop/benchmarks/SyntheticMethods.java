@@ -0,0 +1,93 @@
+package org.openjdk.leyden.constprop.benchmarks;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+
+/**
+ * Generates large methods that javac would rarely emit but that show up in generated code (parser tables, unrolled
+ * arithmetic, long chains of guards). The methods are emitted with {@link ClassWriter#COMPUTE_FRAMES} and then parsed
+ * back with {@link ClassReader#EXPAND_FRAMES}, so they look exactly like methods loaded from a class pool.
+ */
+public final class SyntheticMethods {
+    public static final String OWNER = "org/openjdk/leyden/constprop/benchmarks/Synthetic";
+
+    private SyntheticMethods() {
+    }
+
+    /**
+     * <code>int x = 0; x = x + 1; x = x * 3; ... ; return x;</code> repeated <code>length</code> times.
+     */
+    public static MethodNode straightLine(int length) {
+        ClassWriter cw = newClassWriter();
+        MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, "straightLine", "()I", null, null);
+        mv.visitCode();
+        mv.visitInsn(Opcodes.ICONST_0);
+        mv.visitVarInsn(Opcodes.ISTORE, 0);
+        for (int i = 0; i < length; i++) {
+            mv.visitVarInsn(Opcodes.ILOAD, 0);
+            mv.visitIntInsn(Opcodes.BIPUSH, i % 100);
+            mv.visitInsn(switch (i % 4) {
+                case 0 -> Opcodes.IADD;
+                case 1 -> Opcodes.ISUB;
+                case 2 -> Opcodes.IMUL;
+                default -> Opcodes.IXOR;
+            });
+            mv.visitVarInsn(Opcodes.ISTORE, 0);
+        }
+        mv.visitVarInsn(Opcodes.ILOAD, 0);
+        mv.visitInsn(Opcodes.IRETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        return readBack(cw, "straightLine");
+    }
+
+    /**
+     * <code>int x = 0; if (x < k) x = x + k; ...; return x;</code> repeated <code>length</code> times, producing one
+     * basic block and one merge point per guard.
+     */
+    public static MethodNode guardChain(int length) {
+        ClassWriter cw = newClassWriter();
+        MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, "guardChain", "()I", null, null);
+        mv.visitCode();
+        mv.visitInsn(Opcodes.ICONST_0);
+        mv.visitVarInsn(Opcodes.ISTORE, 0);
+        for (int i = 0; i < length; i++) {
+            Label skip = new Label();
+            mv.visitVarInsn(Opcodes.ILOAD, 0);
+            mv.visitIntInsn(Opcodes.BIPUSH, i % 100);
+            mv.visitJumpInsn(Opcodes.IF_ICMPGE, skip);
+            mv.visitVarInsn(Opcodes.ILOAD, 0);
+            mv.visitInsn(Opcodes.ICONST_1);
+            mv.visitInsn(Opcodes.IADD);
+            mv.visitVarInsn(Opcodes.ISTORE, 0);
+            mv.visitLabel(skip);
+        }
+        mv.visitVarInsn(Opcodes.ILOAD, 0);
+        mv.visitInsn(Opcodes.IRETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        return readBack(cw, "guardChain");
+    }
+
+    private static ClassWriter newClassWriter() {
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES);
+        cw.visit(Opcodes.V17, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, OWNER, null, "java/lang/Object", null);
+        return cw;
+    }
+
+    private static MethodNode readBack(ClassWriter cw, String name) {
+        cw.visitEnd();
+
+        ClassNode cn = new ClassNode();
+        new ClassReader(cw.toByteArray()).accept(cn, ClassReader.EXPAND_FRAMES);
+
+        return cn.methods.stream().filter(mn -> mn.name.equals(name)).findFirst().orElseThrow();
+    }
+}
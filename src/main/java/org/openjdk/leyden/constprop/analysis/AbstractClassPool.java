@@ -9,25 +9,88 @@ import java.lang.reflect.Modifier;
 import java.util.Optional;
 
 public abstract class AbstractClassPool {
+    private final ClassNodeCache<ClassNode> classNodes;
+    private final ClassNodeCache<ClassMemberIndex> memberIndexes;
+
+    protected AbstractClassPool() {
+        this(new ClassNodeCache<>("class_nodes"), new ClassNodeCache<>("member_indexes"));
+    }
+
+    protected AbstractClassPool(ClassNodeCache<ClassNode> classNodes, ClassNodeCache<ClassMemberIndex> memberIndexes) {
+        this.classNodes = classNodes;
+        this.memberIndexes = memberIndexes;
+    }
+
     public abstract byte[] classForName(String name) throws ClassNotFoundException;
 
+    /**
+     * Returns the class parsed with {@link ClassReader#EXPAND_FRAMES}. Parsed classes are cached, see
+     * {@link ClassNodeCache}. Field and method lookups do not go through here, see {@link #memberIndexForName}.
+     *
+     * @return the parsed class, which is shared by all callers and must not be modified
+     */
+    public ClassNode classNodeForName(String name) throws ClassNotFoundException {
+        return classNodes.get(name, n -> {
+            byte[] bytes = classForName(n);
+
+            ConstantizationEvents.ClassParse event = new ConstantizationEvents.ClassParse();
+            event.begin();
+            ClassNode cn = new ClassNode();
+            new ClassReader(bytes).accept(cn, ClassReader.EXPAND_FRAMES);
+            event.finish(cn.name, bytes.length, "class");
+
+            return cn;
+        });
+    }
+
+    /**
+     * Returns the headers of the members of the class, without parsing any method body. Indexes are cached like
+     * parsed classes, so repeated lookups of fields and methods of the same class read it only once.
+     */
+    public ClassMemberIndex memberIndexForName(String name) throws ClassNotFoundException {
+        return memberIndexes.get(name, n -> ClassMemberIndex.read(classForName(n)));
+    }
+
+    /**
+     * Forgets everything parsed from the class, so the next lookup reads it again from {@link #classForName}.
+     */
+    public void invalidate(String name) {
+        classNodes.remove(name);
+        memberIndexes.remove(name);
+    }
+
+    public ClassNodeCache.Statistics classNodeCacheStatistics() {
+        return classNodes.statistics();
+    }
+
+    public ClassNodeCache.Statistics memberIndexCacheStatistics() {
+        return memberIndexes.statistics();
+    }
+
+    /**
+     * @return the method, whose body is parsed the first time it is looked up and shared afterwards
+     */
     public MethodNode methodForName(String clazz, String method, String descriptor) throws ClassNotFoundException, MethodNotFoundException {
-        ClassReader cr = new ClassReader(classForName(clazz));
-        ClassNode cn = new ClassNode();
-        cr.accept(cn, ClassReader.EXPAND_FRAMES);
+        ClassMemberIndex index = memberIndexForName(clazz);
+        if (index.method(method, descriptor) == null) {
+            throw new MethodNotFoundException(clazz + "::" + method + descriptor + " cannot be found");
+        }
 
-        return cn.methods.stream().filter(mn -> mn.name.equals(method) && mn.desc.equals(descriptor)).findFirst()
-                .orElseThrow(() ->
-                        new MethodNotFoundException(clazz + "::" + method + descriptor + " cannot be found"));
+        MethodNode mn = index.methodNode(method, descriptor, this::classForName);
+        if (mn == null) {
+            throw new MethodNotFoundException(clazz + "::" + method + descriptor + " cannot be found");
+        }
+
+        return mn;
     }
 
     public FieldNode fieldForName(String clazz, String field) throws ClassNotFoundException, FieldNotFoundException {
-        ClassReader cr = new ClassReader(classForName(clazz));
-        ClassNode cn = new ClassNode();
-        cr.accept(cn, ClassReader.EXPAND_FRAMES);
+        FieldNode fn = memberIndexForName(clazz).field(field);
+        if (fn == null) {
+            throw new FieldNotFoundException(clazz + "." + field + " cannot be found");
+        }
 
-        return cn.fields.stream().filter(fn -> fn.name.equals(field)).findFirst()
-                .orElseThrow(() -> new FieldNotFoundException(clazz + "." + field + " cannot be found"));
+        return fn;
     }
 
     public Optional<Object> staticFinalFieldValueForName(String clazz, String field) throws ClassNotFoundException, FieldNotFoundException {
@@ -0,0 +1,72 @@
+package org.openjdk.leyden.constprop.analysis;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Limits on the work spent analyzing a single method. Most methods stay far below any sensible limit, but a few, such
+ * as huge generated static initializers, would otherwise take minutes or run out of memory.
+ * <p>
+ * Exceeding a limit does not fail the analysis. Values computed beyond it are unknown instead, see
+ * {@link org.openjdk.leyden.constprop.operations.NewOperation#unknown()}, so the method still gets results, only less
+ * precise ones. Once a method has used up its instruction visits or its time, every value it computes from then on is
+ * unknown. A value that is too deep, or computed from too many combinations of operand values, is unknown on its own.
+ *
+ * @param maxInstructionVisits   how many instructions may be interpreted, counting every time one is revisited
+ * @param maxValueDepth          how long a chain of operations a value may be computed through, see
+ *                               {@link org.openjdk.leyden.constprop.values.ConstantizationValue#getDepth()}
+ * @param maxOperandCombinations how many combinations of the possible values of its operands an operation may be
+ *                               applied to
+ * @param maxTime                how long the analysis of a method may take
+ */
+public record AnalysisBudget(long maxInstructionVisits,
+                             int maxValueDepth,
+                             long maxOperandCombinations,
+                             Duration maxTime) {
+    public static final AnalysisBudget UNLIMITED =
+            new AnalysisBudget(Long.MAX_VALUE, Integer.MAX_VALUE, Long.MAX_VALUE, Duration.ofNanos(Long.MAX_VALUE));
+
+    public enum Limit {
+        INSTRUCTION_VISITS, VALUE_DEPTH, OPERAND_COMBINATIONS, TIME
+    }
+
+    public AnalysisBudget {
+        Objects.requireNonNull(maxTime);
+        if (maxInstructionVisits <= 0 || maxValueDepth <= 0 || maxOperandCombinations <= 0
+                || maxTime.isNegative() || maxTime.isZero()) {
+            throw new IllegalArgumentException("Budgets must be positive");
+        }
+    }
+
+    public AnalysisBudget withMaxInstructionVisits(long maxInstructionVisits) {
+        return new AnalysisBudget(maxInstructionVisits, maxValueDepth, maxOperandCombinations, maxTime);
+    }
+
+    public AnalysisBudget withMaxValueDepth(int maxValueDepth) {
+        return new AnalysisBudget(maxInstructionVisits, maxValueDepth, maxOperandCombinations, maxTime);
+    }
+
+    public AnalysisBudget withMaxOperandCombinations(long maxOperandCombinations) {
+        return new AnalysisBudget(maxInstructionVisits, maxValueDepth, maxOperandCombinations, maxTime);
+    }
+
+    public AnalysisBudget withMaxTime(Duration maxTime) {
+        return new AnalysisBudget(maxInstructionVisits, maxValueDepth, maxOperandCombinations, maxTime);
+    }
+
+    /**
+     * @return whether the budget limits anything at all, if not, nothing needs to be checked
+     */
+    boolean isUnlimited() {
+        return equals(UNLIMITED);
+    }
+
+    /**
+     * @return the value of {@link System#nanoTime()} after which a method started at the given time is out of time
+     */
+    long deadline(long startNanos) {
+        long nanos = maxTime.compareTo(Duration.ofNanos(Long.MAX_VALUE)) >= 0 ? Long.MAX_VALUE : maxTime.toNanos();
+        // NOTE: saturates rather than overflowing into the past
+        return startNanos + Math.min(nanos, Long.MAX_VALUE - Math.max(startNanos, 0));
+    }
+}
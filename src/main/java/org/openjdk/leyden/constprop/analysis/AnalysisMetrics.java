@@ -0,0 +1,68 @@
+package org.openjdk.leyden.constprop.analysis;
+
+import org.openjdk.leyden.constprop.metrics.Counter;
+import org.openjdk.leyden.constprop.metrics.Histogram;
+import org.openjdk.leyden.constprop.metrics.MetricsRegistry;
+
+/**
+ * The metrics the analysis reports into {@link MetricsRegistry#global()}. Throughput, e.g., methods per second, is the
+ * rate of a counter, computed by whatever reads the export.
+ */
+final class AnalysisMetrics {
+    static final Counter METHODS_ANALYZED = MetricsRegistry.global().counter("constprop_methods_analyzed_total",
+            "Methods analyzed, failed ones included");
+    static final Counter METHODS_FAILED = MetricsRegistry.global().counter("constprop_methods_failed_total",
+            "Methods whose analysis failed");
+    static final Histogram METHOD_SECONDS = MetricsRegistry.global().histogram("constprop_method_analysis_seconds",
+            "Time taken to analyze a method",
+            new double[]{0.0001, 0.001, 0.01, 0.1, 1, 10});
+    static final Counter FRAMES_ALLOCATED = MetricsRegistry.global().counter("constprop_frames_allocated_total",
+            "Frames allocated by the analyzers");
+
+    static final Counter EXPAND_LIMIT_DEGRADATIONS = MetricsRegistry.global().counter(
+            "constprop_degraded_values_total", "Merges exceeding the limit on the tracked values of a value",
+            "limit", "expand");
+    static final Counter UNION_SET_LIMIT_DEGRADATIONS = MetricsRegistry.global().counter(
+            "constprop_degraded_values_total", "Merges exceeding the limit on the tracked values of a value",
+            "limit", "union_set");
+
+    static final Counter INSTRUCTION_VISITS_EXCEEDED = budgetCounter("instruction_visits");
+    static final Counter VALUE_DEPTH_EXCEEDED = budgetCounter("value_depth");
+    static final Counter OPERAND_COMBINATIONS_EXCEEDED = budgetCounter("operand_combinations");
+    static final Counter TIME_EXCEEDED = budgetCounter("time");
+
+    private AnalysisMetrics() {
+    }
+
+    /**
+     * @param cache  the name of the cache looked up, see {@link ClassNodeCache#ClassNodeCache(String, int)}
+     * @param result <code>hit</code>, <code>soft_hit</code> or <code>miss</code>
+     */
+    static Counter classCacheCounter(String cache, String result) {
+        return MetricsRegistry.global().counter("constprop_class_cache_lookups_total",
+                "Lookups of parsed classes, by cache and by whether the class had to be parsed",
+                "cache", cache, "result", result);
+    }
+
+    private static Counter budgetCounter(String limit) {
+        return MetricsRegistry.global().counter("constprop_budget_exceeded_total",
+                "Methods exceeding a limit of their analysis budget", "limit", limit);
+    }
+
+    static void budgetExceeded(AnalysisBudget.Limit limit) {
+        switch (limit) {
+            case INSTRUCTION_VISITS -> INSTRUCTION_VISITS_EXCEEDED.increment();
+            case VALUE_DEPTH -> VALUE_DEPTH_EXCEEDED.increment();
+            case OPERAND_COMBINATIONS -> OPERAND_COMBINATIONS_EXCEEDED.increment();
+            case TIME -> TIME_EXCEEDED.increment();
+        }
+    }
+
+    static void methodAnalyzed(long startNanos, boolean failed) {
+        METHODS_ANALYZED.increment();
+        if (failed) {
+            METHODS_FAILED.increment();
+        }
+        METHOD_SECONDS.observe((System.nanoTime() - startNanos) / 1e9);
+    }
+}
@@ -0,0 +1,385 @@
+package org.openjdk.leyden.constprop.analysis;
+
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.openjdk.leyden.constprop.values.AbstractConstantizationValueFactory;
+import org.openjdk.leyden.constprop.values.ConstantizationValue;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Computes the summaries of the methods of many classes bottom-up along the call graph, so that every callee is
+ * summarized before its callers, which then find its summary instead of analyzing it again, see
+ * {@link MethodSummaries}. The summaries computed here are those for arguments with no known possible values; those
+ * for known arguments are still computed when first called with them.
+ * <p>
+ * The call graph only has edges for calls whose target is known, to static and private methods, as followed by
+ * {@link ConstantizationInterpreter}. Its strongly connected components run in waves: a component runs in the first
+ * wave after all components it calls, so all components of a wave run in parallel on the pool. Methods calling each
+ * other recursively are iterated to a fixpoint, calls within the component returning the summaries of the previous
+ * iteration. The iteration starts from unknown return values, which every merge keeps, and descends from there, so
+ * every iteration is sound and the summaries are only stored for good once they no longer change. All other methods
+ * are analyzed exactly once.
+ */
+public final class CallGraphScheduler {
+    // NOTE: unknown values absorb merges, so almost all components are stable after one or two iterations
+    private static final int MAX_FIXPOINT_ITERATIONS = 32;
+
+    private final AbstractClassPool classPool;
+    private final ForkJoinPool pool;
+    private final MethodSummaries summaries;
+    private final ThreadLocal<ConstantizationInterpreter> interpreters;
+    private final LongAdder analysisCount = new LongAdder();
+
+    /**
+     * A method of the call graph and the method node it stands for.
+     */
+    private record Node(DependencyGraph.Dependency method, MethodNode methodNode) {
+    }
+
+    /**
+     * @param recursive whether the methods call each other, or the only method calls itself
+     */
+    private record Component(List<Node> nodes, boolean recursive) {
+    }
+
+    /**
+     * @param summaries          where the summaries are stored, e.g., shared with the analyzers of the methods of the
+     *                           classes
+     * @param staticInitializers the static field values read by the methods, e.g., shared with the analyzers of the
+     *                           methods of the classes. Its static initializers should call the same summaries, or
+     *                           the summaries stored here are no better than the static field values they read.
+     */
+    public CallGraphScheduler(AbstractClassPool classPool,
+                              AbstractConstantizationValueFactory valueFactory,
+                              ForkJoinPool pool,
+                              MethodSummaries summaries,
+                              StaticInitializers staticInitializers) {
+        this.classPool = Objects.requireNonNull(classPool);
+        this.pool = Objects.requireNonNull(pool);
+        this.summaries = Objects.requireNonNull(summaries);
+
+        Objects.requireNonNull(valueFactory);
+        Objects.requireNonNull(staticInitializers);
+        this.interpreters = ThreadLocal.withInitial(() -> {
+            ConstantizationInterpreter interpreter = new ConstantizationInterpreter(classPool, valueFactory);
+            interpreter.setMethodSummaries(summaries);
+            interpreter.setStaticInitializers(staticInitializers);
+            return interpreter;
+        });
+    }
+
+    /**
+     * Returns the strongly connected components of the call graph of the classes, grouped by the wave they run in. No
+     * component calls a component of the same or a later wave.
+     *
+     * @param classes internal names of the classes, to be found in the class pool
+     */
+    public List<List<Set<DependencyGraph.Dependency>>> waves(Collection<String> classes)
+            throws ClassNotFoundException {
+        List<List<Set<DependencyGraph.Dependency>>> waves = new ArrayList<>();
+        for (List<Component> wave : schedule(classes)) {
+            waves.add(wave.stream()
+                    .map(component -> Set.copyOf(component.nodes().stream().map(Node::method).toList()))
+                    .toList());
+        }
+
+        return waves;
+    }
+
+    /**
+     * Summarizes all methods of the classes that return a value.
+     *
+     * @param classes internal names of the classes, to be found in the class pool
+     * @return how many times methods were analyzed, not counting callees analyzed on demand
+     */
+    public long summarize(Collection<String> classes) throws ClassNotFoundException {
+        long before = analysisCount.sum();
+        for (List<Component> wave : schedule(classes)) {
+            List<ForkJoinTask<?>> tasks = new ArrayList<>(wave.size());
+            for (Component component : wave) {
+                tasks.add(ForkJoinTask.adapt(() -> summarize(component)));
+            }
+
+            // NOTE: a wave only starts once the previous one is complete, so all summaries it needs are stored
+            pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+        }
+
+        return analysisCount.sum() - before;
+    }
+
+    private List<List<Component>> schedule(Collection<String> classes) throws ClassNotFoundException {
+        Map<DependencyGraph.Dependency, Integer> indices = new HashMap<>();
+        List<Node> nodes = new ArrayList<>();
+        for (String clazz : classes) {
+            ClassNode cn = classPool.classNodeForName(clazz);
+            for (MethodNode mn : cn.methods) {
+                // abstract and native methods have nothing to analyze
+                if (mn.instructions.size() == 0) {
+                    continue;
+                }
+
+                DependencyGraph.Dependency method = DependencyGraph.Dependency.onMethod(cn.name, mn.name, mn.desc);
+                indices.put(method, nodes.size());
+                nodes.add(new Node(method, mn));
+            }
+        }
+
+        int[][] callees = new int[nodes.size()][];
+        for (int i = 0; i < nodes.size(); i++) {
+            callees[i] = callees(nodes.get(i).methodNode(), indices, nodes);
+        }
+
+        int[] componentOf = stronglyConnectedComponents(callees);
+        int componentCount = Arrays.stream(componentOf).max().orElse(-1) + 1;
+        List<List<Integer>> members = new ArrayList<>(componentCount);
+        for (int c = 0; c < componentCount; c++) {
+            members.add(new ArrayList<>());
+        }
+        for (int i = 0; i < nodes.size(); i++) {
+            members.get(componentOf[i]).add(i);
+        }
+
+        // NOTE: components are numbered callees first, so the waves of all callees are known when a caller is reached
+        int[] waveOf = new int[componentCount];
+        boolean[] recursive = new boolean[componentCount];
+        for (int c = 0; c < componentCount; c++) {
+            recursive[c] = members.get(c).size() > 1;
+            for (int i : members.get(c)) {
+                for (int callee : callees[i]) {
+                    if (componentOf[callee] != c) {
+                        waveOf[c] = Math.max(waveOf[c], waveOf[componentOf[callee]] + 1);
+                    } else if (callee == i) {
+                        recursive[c] = true;
+                    }
+                }
+            }
+        }
+
+        int waveCount = Arrays.stream(waveOf).max().orElse(-1) + 1;
+        List<List<Component>> waves = new ArrayList<>(waveCount);
+        for (int w = 0; w < waveCount; w++) {
+            waves.add(new ArrayList<>());
+        }
+        for (int c = 0; c < componentCount; c++) {
+            waves.get(waveOf[c]).add(new Component(members.get(c).stream().map(nodes::get).toList(), recursive[c]));
+        }
+
+        return waves;
+    }
+
+    /*
+     * The methods among the nodes the method calls, resolving calls as ConstantizationInterpreter#invoke does.
+     */
+    private static int[] callees(MethodNode method,
+                                 Map<DependencyGraph.Dependency, Integer> indices,
+                                 List<Node> nodes) {
+        BitSet callees = new BitSet();
+        for (AbstractInsnNode insn : method.instructions) {
+            if (!(insn instanceof MethodInsnNode min)) {
+                continue;
+            }
+
+            Integer callee = indices.get(DependencyGraph.Dependency.onMethod(min.owner, min.name, min.desc));
+            if (callee != null && (min.getOpcode() == Opcodes.INVOKESTATIC
+                    || ((nodes.get(callee).methodNode().access & Opcodes.ACC_PRIVATE) != 0
+                    && !min.name.equals("<init>")))) {
+                callees.set(callee);
+            }
+        }
+
+        return callees.stream().toArray();
+    }
+
+    /*
+     * Tarjan's algorithm, iterative so that long call chains cannot overflow the stack. Components are numbered in the
+     * order they are completed, which is callees first.
+     */
+    private static int[] stronglyConnectedComponents(int[][] callees) {
+        int n = callees.length;
+        int[] index = new int[n];
+        int[] lowLink = new int[n];
+        int[] component = new int[n];
+        Arrays.fill(index, -1);
+        BitSet onStack = new BitSet(n);
+        Deque<Integer> stack = new ArrayDeque<>();
+        // NOTE: each call holds a node and the position of its next callee to visit
+        Deque<int[]> calls = new ArrayDeque<>();
+        int nextIndex = 0;
+        int nextComponent = 0;
+
+        for (int root = 0; root < n; root++) {
+            if (index[root] != -1) {
+                continue;
+            }
+
+            calls.push(new int[]{root, 0});
+            while (!calls.isEmpty()) {
+                int[] call = calls.peek();
+                int v = call[0];
+                if (index[v] == -1) {
+                    index[v] = lowLink[v] = nextIndex++;
+                    stack.push(v);
+                    onStack.set(v);
+                }
+
+                if (call[1] < callees[v].length) {
+                    int w = callees[v][call[1]++];
+                    if (index[w] == -1) {
+                        calls.push(new int[]{w, 0});
+                    } else if (onStack.get(w)) {
+                        lowLink[v] = Math.min(lowLink[v], index[w]);
+                    }
+                    continue;
+                }
+
+                calls.pop();
+                if (!calls.isEmpty()) {
+                    int u = calls.peek()[0];
+                    lowLink[u] = Math.min(lowLink[u], lowLink[v]);
+                }
+
+                if (lowLink[v] == index[v]) {
+                    int w;
+                    do {
+                        w = stack.pop();
+                        onStack.clear(w);
+                        component[w] = nextComponent;
+                    } while (w != v);
+                    nextComponent++;
+                }
+            }
+        }
+
+        return component;
+    }
+
+    private void summarize(Component component) {
+        ConstantizationInterpreter interpreter = interpreters.get();
+
+        Map<MethodSummaries.Key, Node> methods = new LinkedHashMap<>();
+        Map<MethodSummaries.Key, List<ConstantizationValue<?>>> arguments = new HashMap<>();
+        for (Node node : component.nodes()) {
+            Type returnType = Type.getReturnType(node.methodNode().desc);
+            // TODO: support arrays
+            if (returnType == Type.VOID_TYPE || returnType.getSort() == Type.ARRAY) {
+                continue;
+            }
+
+            List<ConstantizationValue<?>> unknown;
+            try {
+                unknown = interpreter.unknownArguments(node.method().owner(), node.methodNode());
+            } catch (UnsupportedOperationException e) {
+                // TODO: support arrays, until then such methods are only summarized on demand
+                continue;
+            }
+
+            MethodSummaries.Key key = MethodSummaries.key(node.method().owner(), node.method().name(),
+                    node.method().descriptor(), unknown);
+            methods.put(key, node);
+            arguments.put(key, unknown);
+        }
+
+        if (!component.recursive()) {
+            for (Map.Entry<MethodSummaries.Key, Node> method : methods.entrySet()) {
+                MethodSummaries.Summary summary = interpreter.summarize(method.getKey(),
+                        method.getValue().methodNode(), arguments.get(method.getKey()));
+                analysisCount.increment();
+                if (!summary.provisional()) {
+                    summaries.put(method.getKey(), summary);
+                }
+            }
+
+            return;
+        }
+
+        // NOTE: recursive calls start out returning unknown values, which may be anything, and only get more precise
+        // from there; starting out from nothing would stabilize at the values of the base cases alone
+        Map<MethodSummaries.Key, MethodSummaries.Summary> current = new HashMap<>();
+        for (MethodSummaries.Key key : methods.keySet()) {
+            MethodSummaries.Summary summary = new MethodSummaries.Summary(unknownReturnValue(interpreter, key),
+                    Set.of(), true);
+            current.put(key, summary);
+            summaries.update(key, summary);
+        }
+
+        boolean stable = false;
+        fixpoint:
+        for (int iteration = 0; iteration < MAX_FIXPOINT_ITERATIONS && !stable; iteration++) {
+            stable = true;
+            for (Map.Entry<MethodSummaries.Key, Node> method : methods.entrySet()) {
+                MethodSummaries.Key key = method.getKey();
+                MethodSummaries.Summary previous = current.get(key);
+                MethodSummaries.Summary next = interpreter.summarize(key, method.getValue().methodNode(),
+                        arguments.get(key));
+                analysisCount.increment();
+
+                boolean unchanged;
+                try {
+                    unchanged = sameValues(previous.returnValue(), next.returnValue());
+                } catch (ClassCastException e) {
+                    // the method returns values of different kinds, e.g., strings and classes
+                    stable = false;
+                    break fixpoint;
+                }
+
+                // NOTE: the next iteration replaces the previous one instead of being merged into it, which would keep
+                // the unknown values it started from
+                if (!unchanged || !previous.dependencies().containsAll(next.dependencies())) {
+                    stable = false;
+                    Set<DependencyGraph.Dependency> dependencies = new HashSet<>(previous.dependencies());
+                    dependencies.addAll(next.dependencies());
+                    MethodSummaries.Summary summary =
+                            new MethodSummaries.Summary(next.returnValue(), Set.copyOf(dependencies), true);
+                    current.put(key, summary);
+                    summaries.update(key, summary);
+                }
+            }
+        }
+
+        for (Map.Entry<MethodSummaries.Key, MethodSummaries.Summary> entry : current.entrySet()) {
+            if (stable) {
+                MethodSummaries.Summary summary = entry.getValue();
+                summaries.update(entry.getKey(),
+                        new MethodSummaries.Summary(summary.returnValue(), summary.dependencies(), false));
+            } else {
+                // NOTE: without a fixpoint, the methods are left to be summarized on demand, as if never scheduled
+                summaries.remove(entry.getKey());
+            }
+        }
+    }
+
+    private static boolean sameValues(ConstantizationValue<?> value1, ConstantizationValue<?> value2) {
+        @SuppressWarnings("unchecked")
+        ConstantizationValue<Object> v1 = (ConstantizationValue<Object>) value1;
+        @SuppressWarnings("unchecked")
+        ConstantizationValue<Object> v2 = (ConstantizationValue<Object>) value2;
+
+        return v1.covers(v2) && v2.covers(v1);
+    }
+
+    private static ConstantizationValue<?> unknownReturnValue(ConstantizationInterpreter interpreter,
+                                                              MethodSummaries.Key key) {
+        return interpreter.newUnknownValue(
+                ConstantizationInterpreter.computationalType(Type.getReturnType(key.descriptor())));
+    }
+}
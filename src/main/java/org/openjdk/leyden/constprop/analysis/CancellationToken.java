@@ -0,0 +1,32 @@
+package org.openjdk.leyden.constprop.analysis;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * Asks analyses running on other threads to stop. The interpreter checks the token as it interprets each instruction
+ * and merges each value, so a cancelled analysis stops within a few instructions by throwing a
+ * {@link CancellationException}, instead of running to completion.
+ * <p>
+ * Checking the token is a single volatile read. A token cannot be reset, a cancelled analysis has to be started again
+ * with a new one.
+ */
+public final class CancellationToken {
+    private volatile boolean cancelled;
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * @throws CancellationException if the token has been cancelled
+     */
+    public void throwIfCancelled() {
+        if (cancelled) {
+            throw new CancellationException("Analysis cancelled");
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package org.openjdk.leyden.constprop.analysis;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.FieldNode;
+import org.objectweb.asm.tree.MethodNode;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The members of a class, read without parsing any method body.
+ * <p>
+ * Building an index records the class header and the header of every field and method. Code, frames, debug
+ * information and annotations are skipped. This is all that is needed to resolve a field and read its constant value.
+ * A method's body is parsed only when {@link #methodNode} is asked for it, and then only that method is parsed.
+ */
+public final class ClassMemberIndex {
+    public record MethodHeader(int access, String name, String descriptor, String signature, String[] exceptions) {
+    }
+
+    private final int access;
+    private final String name;
+    private final String superName;
+    private final List<String> interfaces;
+
+    private final Map<String, FieldNode> fields = new HashMap<>();
+    private final Map<String, MethodHeader> methods = new LinkedHashMap<>();
+    private final Map<String, MethodNode> methodNodes = new ConcurrentHashMap<>();
+
+    private ClassMemberIndex(int access, String name, String superName, String[] interfaces) {
+        this.access = access;
+        this.name = name;
+        this.superName = superName;
+        this.interfaces = interfaces == null ? List.of() : List.of(interfaces);
+    }
+
+    public static ClassMemberIndex read(byte[] bytes) {
+        ClassMemberIndex[] index = new ClassMemberIndex[1];
+
+        ConstantizationEvents.ClassParse event = new ConstantizationEvents.ClassParse();
+        event.begin();
+        new ClassReader(bytes).accept(new ClassVisitor(Opcodes.ASM9) {
+            @Override
+            public void visit(int version, int access, String name, String signature, String superName,
+                              String[] interfaces) {
+                index[0] = new ClassMemberIndex(access, name, superName, interfaces);
+            }
+
+            @Override
+            public FieldVisitor visitField(int access, String name, String descriptor, String signature,
+                                           Object value) {
+                // NOTE: the first field wins, as for a full ClassNode searched in order
+                index[0].fields.putIfAbsent(name, new FieldNode(access, name, descriptor, signature, value));
+                return null;
+            }
+
+            @Override
+            public MethodVisitor visitMethod(int access, String name, String descriptor, String signature,
+                                             String[] exceptions) {
+                index[0].methods.putIfAbsent(name + descriptor,
+                        new MethodHeader(access, name, descriptor, signature, exceptions));
+                return null;
+            }
+        }, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+        event.finish(index[0].name, bytes.length, "members");
+
+        return index[0];
+    }
+
+    public int getAccess() {
+        return access;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getSuperName() {
+        return superName;
+    }
+
+    public List<String> getInterfaces() {
+        return interfaces;
+    }
+
+    /**
+     * @return the field, without annotations or attributes, or <code>null</code> if the class declares no such field
+     */
+    public FieldNode field(String name) {
+        return fields.get(name);
+    }
+
+    /**
+     * @return the method header, or <code>null</code> if the class declares no such method
+     */
+    public MethodHeader method(String name, String descriptor) {
+        return methods.get(name + descriptor);
+    }
+
+    public Collection<MethodHeader> methods() {
+        return Collections.unmodifiableCollection(methods.values());
+    }
+
+    /**
+     * Parses the body of one method with {@link ClassReader#EXPAND_FRAMES}, skipping every other member. The result is
+     * kept for as long as the index is.
+     *
+     * @param classes reads the bytes of the class this index was built from, only if the method was not parsed yet
+     * @return the method, or <code>null</code> if the class declares no such method
+     */
+    public MethodNode methodNode(String name, String descriptor, ClassNodeCache.Loader<byte[]> classes)
+            throws ClassNotFoundException {
+        String key = name + descriptor;
+        MethodNode mn = methodNodes.get(key);
+        if (mn != null || !methods.containsKey(key)) {
+            return mn;
+        }
+
+        byte[] bytes = classes.load(this.name);
+        MethodNode[] found = new MethodNode[1];
+
+        ConstantizationEvents.ClassParse event = new ConstantizationEvents.ClassParse();
+        event.begin();
+        new ClassReader(bytes).accept(new ClassVisitor(Opcodes.ASM9) {
+            @Override
+            public MethodVisitor visitMethod(int access, String n, String d, String signature, String[] exceptions) {
+                if (found[0] == null && n.equals(name) && d.equals(descriptor)) {
+                    found[0] = new MethodNode(Opcodes.ASM9, access, n, d, signature, exceptions);
+                    return found[0];
+                }
+
+                return null;
+            }
+        }, ClassReader.EXPAND_FRAMES);
+        event.finish(this.name, bytes.length, key);
+
+        if (found[0] == null) {
+            return null;
+        }
+
+        MethodNode existing = methodNodes.putIfAbsent(key, found[0]);
+        return existing != null ? existing : found[0];
+    }
+
+    /**
+     * @return whether the body of the method has already been parsed
+     */
+    public boolean isMaterialized(String name, String descriptor) {
+        return methodNodes.containsKey(name + descriptor);
+    }
+}
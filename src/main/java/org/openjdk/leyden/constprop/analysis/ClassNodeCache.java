@@ -0,0 +1,172 @@
+package org.openjdk.leyden.constprop.analysis;
+
+import org.openjdk.leyden.constprop.metrics.Counter;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A cache of parsed classes keyed by internal name, safe for concurrent use. A class is parsed either into a full
+ * {@link org.objectweb.asm.tree.ClassNode} or into a lighter form such as a {@link ClassMemberIndex}.
+ * <p>
+ * The most recently used classes, up to a fixed number, are held strongly in LRU order. Classes evicted from there
+ * stay reachable through soft references until the garbage collector needs the memory, and are promoted back on their
+ * next use. Classes are parsed outside any lock, so two threads missing on the same class at the same time may both
+ * parse it, and the last one wins.
+ */
+public final class ClassNodeCache<T> {
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    @FunctionalInterface
+    public interface Loader<T> {
+        T load(String name) throws ClassNotFoundException;
+    }
+
+    /**
+     * @param hits      lookups served by a strongly held class
+     * @param softHits  lookups served by a class that had been evicted but not yet collected
+     * @param misses    lookups that had to parse the class
+     * @param evictions classes moved from the strongly held set to soft references
+     */
+    public record Statistics(long hits, long softHits, long misses, long evictions) {
+        public long lookups() {
+            return hits + softHits + misses;
+        }
+
+        /**
+         * @return the fraction of lookups that did not parse, or <code>0</code> if there were none
+         */
+        public double hitRate() {
+            long lookups = lookups();
+            return lookups == 0 ? 0 : (double) (hits + softHits) / lookups;
+        }
+    }
+
+    private final int capacity;
+    private final LinkedHashMap<String, T> recent;
+    private final Map<String, SoftEntry<T>> evicted = new ConcurrentHashMap<>();
+    private final ReferenceQueue<T> collected = new ReferenceQueue<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder softHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private final Counter hitCounter;
+    private final Counter softHitCounter;
+    private final Counter missCounter;
+
+    /**
+     * @param cache the name of the cache, which labels its lookups in the metrics, e.g., by what it holds
+     */
+    public ClassNodeCache(String cache) {
+        this(cache, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param cache    the name of the cache, which labels its lookups in the metrics, e.g., by what it holds
+     * @param capacity the maximum number of classes held strongly
+     */
+    public ClassNodeCache(String cache, int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Negative capacity: " + capacity);
+        }
+
+        this.hitCounter = AnalysisMetrics.classCacheCounter(cache, "hit");
+        this.softHitCounter = AnalysisMetrics.classCacheCounter(cache, "soft_hit");
+        this.missCounter = AnalysisMetrics.classCacheCounter(cache, "miss");
+        this.capacity = capacity;
+        this.recent = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, T> eldest) {
+                if (size() <= ClassNodeCache.this.capacity) {
+                    return false;
+                }
+
+                evicted.put(eldest.getKey(), new SoftEntry<>(eldest.getKey(), eldest.getValue(), collected));
+                evictions.increment();
+                return true;
+            }
+        };
+    }
+
+    /**
+     * @param name   the internal name of the class
+     * @param loader parses the class on a miss
+     * @return the cached class, which is shared by all callers and must not be modified
+     */
+    public T get(String name, Loader<T> loader) throws ClassNotFoundException {
+        T value;
+        synchronized (recent) {
+            value = recent.get(name);
+        }
+
+        if (value != null) {
+            hits.increment();
+            hitCounter.increment();
+            return value;
+        }
+
+        purgeCollected();
+
+        SoftEntry<T> ref = evicted.remove(name);
+        value = ref != null ? ref.get() : null;
+        if (value != null) {
+            softHits.increment();
+            softHitCounter.increment();
+        } else {
+            misses.increment();
+            missCounter.increment();
+            value = loader.load(name);
+        }
+
+        synchronized (recent) {
+            recent.put(name, value);
+        }
+
+        return value;
+    }
+
+    // NOTE: drops the names of classes the garbage collector has reclaimed, so they do not pile up in the map
+    private void purgeCollected() {
+        Reference<? extends T> ref;
+        while ((ref = collected.poll()) != null) {
+            evicted.remove(((SoftEntry<?>) ref).name, ref);
+        }
+    }
+
+    /**
+     * Drops the class, e.g., because it has changed since it was parsed.
+     */
+    public void remove(String name) {
+        synchronized (recent) {
+            recent.remove(name);
+        }
+        evicted.remove(name);
+    }
+
+    public void clear() {
+        synchronized (recent) {
+            recent.clear();
+        }
+        evicted.clear();
+    }
+
+    public Statistics statistics() {
+        return new Statistics(hits.sum(), softHits.sum(), misses.sum(), evictions.sum());
+    }
+
+    private static final class SoftEntry<T> extends SoftReference<T> {
+        private final String name;
+
+        private SoftEntry(String name, T value, ReferenceQueue<T> queue) {
+            super(value, queue);
+            this.name = name;
+        }
+    }
+}
@@ -6,6 +6,11 @@ import org.objectweb.asm.tree.analysis.AnalyzerException;
 import org.objectweb.asm.tree.analysis.Frame;
 import org.openjdk.leyden.constprop.values.ConstantizationValue;
 
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
 public class ConstantizationAnalyzer extends Analyzer<ConstantizationValue<?>> {
     private final ConstantizationInterpreter interpreter;
 
@@ -21,7 +26,168 @@ public class ConstantizationAnalyzer extends Analyzer<ConstantizationValue<?>> {
 
     @Override
     public Frame<ConstantizationValue<?>>[] analyze(String owner, MethodNode method) throws AnalyzerException {
-        interpreter.setMethodNode(method);
-        return super.analyze(owner, method);
+        ConstantizationListener listener = interpreter.getListener();
+        if (listener != null) {
+            listener.methodStarted(owner, method);
+        }
+
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            interpreter.setMethodNode(owner, method);
+
+            ConstantizationEvents.Fixpoint event = new ConstantizationEvents.Fixpoint();
+            event.begin();
+            Frame<ConstantizationValue<?>>[] frames;
+            try {
+                frames = super.analyze(owner, method);
+            } catch (AnalyzerException e) {
+                // NOTE: ASM wraps whatever the interpreter throws, but a cancellation says nothing about the method
+                if (e.getCause() instanceof CancellationException cancellation) {
+                    throw cancellation;
+                }
+                throw e;
+            }
+            event.end();
+            event.finish(owner, method, interpreter, frames);
+
+            failed = false;
+            return frames;
+        } finally {
+            AnalysisMetrics.methodAnalyzed(start, failed);
+            if (listener != null) {
+                listener.methodFinished(owner, method);
+            }
+        }
+    }
+
+    /**
+     * Like {@link #analyze(String, MethodNode)}, but stops as soon as the token is cancelled.
+     *
+     * @throws CancellationException if the token was cancelled before the analysis completed
+     */
+    public Frame<ConstantizationValue<?>>[] analyze(String owner, MethodNode method, CancellationToken cancellation)
+            throws AnalyzerException {
+        CancellationToken previous = interpreter.getCancellationToken();
+        interpreter.setCancellationToken(cancellation);
+        try {
+            return analyze(owner, method);
+        } finally {
+            interpreter.setCancellationToken(previous);
+        }
+    }
+
+    /**
+     * Analyzes the method on the executor. Cancelling the returned future stops the analysis within a few
+     * instructions, see {@link CancellationToken}, so abandoned work frees its thread right away.
+     * <p>
+     * Like all analyses of this analyzer, the analysis must not overlap with another one, e.g., by waiting for the
+     * future before starting the next one, or by giving each concurrent analysis an analyzer of its own.
+     */
+    public CompletableFuture<Frame<ConstantizationValue<?>>[]> analyzeAsync(String owner,
+                                                                              MethodNode method,
+                                                                              Executor executor) {
+        CancellationToken cancellation = new CancellationToken();
+        CompletableFuture<Frame<ConstantizationValue<?>>[]> future = new CompletableFuture<>();
+        future.whenComplete((frames, e) -> {
+            if (future.isCancelled()) {
+                cancellation.cancel();
+            }
+        });
+
+        try {
+            executor.execute(() -> {
+                // NOTE: the future may have been cancelled while waiting for the executor
+                if (future.isDone()) {
+                    return;
+                }
+
+                try {
+                    future.complete(analyze(owner, method, cancellation));
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+
+        return future;
+    }
+
+    /**
+     * @param listener receives the events of subsequent analyses, or <code>null</code> for none
+     */
+    public void setListener(ConstantizationListener listener) {
+        interpreter.setListener(listener);
+    }
+
+    /**
+     * @param budget limits the analysis of each subsequent method, values beyond it are unknown instead
+     */
+    public void setBudget(AnalysisBudget budget) {
+        interpreter.setBudget(budget);
+    }
+
+    /**
+     * @param summaries the summaries of static and private methods called, shared with other analyzers, or
+     *                  <code>null</code>, the default, to treat every call as returning an unknown value
+     */
+    public void setMethodSummaries(MethodSummaries summaries) {
+        interpreter.setMethodSummaries(summaries);
+    }
+
+    /**
+     * @param staticInitializers the static field values of classes read, shared with other analyzers, or
+     *                           <code>null</code> to read every static final field computed by a static initializer
+     *                           as unknown
+     */
+    public void setStaticInitializers(StaticInitializers staticInitializers) {
+        interpreter.setStaticInitializers(staticInitializers);
+    }
+
+    /**
+     * @return the limits of the budget the method last analyzed exceeded, so that its frames are less precise
+     */
+    public Set<AnalysisBudget.Limit> getExceededLimits() {
+        return interpreter.getExceededLimits();
+    }
+
+    /**
+     * @return everything outside the method last analyzed that its frames depend on
+     */
+    Set<DependencyGraph.Dependency> getDependencies() {
+        return interpreter.getDependencies();
+    }
+
+    @Override
+    protected Frame<ConstantizationValue<?>> newFrame(int numLocals, int numStack) {
+        return new ConstantizationFrame(numLocals, numStack);
+    }
+
+    @Override
+    protected Frame<ConstantizationValue<?>> newFrame(Frame<? extends ConstantizationValue<?>> frame) {
+        return new ConstantizationFrame(frame);
+    }
+
+    /*
+     * ASM reports an edge right after merging along it, and the first merge into an instruction only copies the frame.
+     * Marking the frame here therefore takes effect from the second merge on, which is the first one that can widen.
+     */
+    @Override
+    protected void newControlFlowEdge(int insnIndex, int successorIndex) {
+        markLoopHeader(successorIndex);
+    }
+
+    @Override
+    protected boolean newControlFlowExceptionEdge(int insnIndex, int successorIndex) {
+        markLoopHeader(successorIndex);
+        return true;
+    }
+
+    private void markLoopHeader(int index) {
+        if (interpreter.isLoopHeader(index) && getFrames()[index] instanceof ConstantizationFrame frame) {
+            frame.setLoopHeader(true);
+        }
     }
 }
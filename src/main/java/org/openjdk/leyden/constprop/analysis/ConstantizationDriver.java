@@ -0,0 +1,361 @@
+package org.openjdk.leyden.constprop.analysis;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.analysis.AnalyzerException;
+import org.objectweb.asm.tree.analysis.Frame;
+import org.openjdk.leyden.constprop.targets.AbstractConstantizationTargetRegistry;
+import org.openjdk.leyden.constprop.targets.ConstantizationTarget;
+import org.openjdk.leyden.constprop.values.AbstractConstantizationValueFactory;
+import org.openjdk.leyden.constprop.values.ConstantizationValue;
+import org.openjdk.leyden.constprop.values.DefaultConstantizationValueFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * Analyzes every method of many classes at once, e.g., of a whole application jar, and extracts the values of all
+ * method scope targets registered for them.
+ * <p>
+ * Classes are split into small batches that run as tasks on a {@link ForkJoinPool}, so idle workers steal batches
+ * from busy ones. {@link ConstantizationInterpreter} keeps per-method state, so every worker thread gets an analyzer
+ * of its own and no analysis state is shared. The registry, class pool and value factory are shared and must support
+ * concurrent reads. So are the summaries of called methods, if enabled with {@link #setMethodSummaries}, so each
+ * callee is analyzed about once per run, whichever worker first reaches a call to it. The static field values of
+ * classes are shared too, so each static initializer is also analyzed about once per run.
+ * <p>
+ * With a {@link ConstantizationResultStore}, the results of each class are looked up before analyzing it and stored
+ * after, so a class analyzed by an earlier run is neither parsed nor analyzed again. Results depending on other
+ * classes are not stored.
+ * <p>
+ * {@link #analyzeAsync(List)} returns at once. Cancelling its future stops every worker within a few instructions, see
+ * {@link CancellationToken}, e.g., when the build the analysis is part of is aborted.
+ */
+public class ConstantizationDriver {
+    // NOTE: a batch is small enough for work stealing to balance uneven classes, and large enough to amortize forking
+    private static final int CLASSES_PER_TASK = 4;
+
+    private final AbstractConstantizationTargetRegistry registry;
+    private final ForkJoinPool pool;
+    private final AbstractConstantizationValueFactory valueFactory;
+    private final ConstantizationResultStore resultStore;
+    private volatile MethodSummaries summaries;
+    private final StaticInitializers staticInitializers;
+    private final ThreadLocal<ConstantizationAnalyzer> analyzers;
+
+    public ConstantizationDriver(AbstractConstantizationTargetRegistry registry) {
+        this(registry, new ClassLoaderClassPool(), new DefaultConstantizationValueFactory(), ForkJoinPool.commonPool());
+    }
+
+    public ConstantizationDriver(AbstractConstantizationTargetRegistry registry,
+                                 AbstractClassPool classPool,
+                                 AbstractConstantizationValueFactory valueFactory,
+                                 ForkJoinPool pool) {
+        this(registry, classPool, valueFactory, pool, null);
+    }
+
+    /**
+     * @param resultStore results of earlier runs, or <code>null</code> to analyze every class
+     */
+    public ConstantizationDriver(AbstractConstantizationTargetRegistry registry,
+                                 AbstractClassPool classPool,
+                                 AbstractConstantizationValueFactory valueFactory,
+                                 ForkJoinPool pool,
+                                 ConstantizationResultStore resultStore) {
+        this.registry = Objects.requireNonNull(registry);
+        this.pool = Objects.requireNonNull(pool);
+        this.valueFactory = Objects.requireNonNull(valueFactory);
+        this.resultStore = resultStore;
+
+        this.staticInitializers = new StaticInitializers(Objects.requireNonNull(classPool), valueFactory);
+        this.analyzers = ThreadLocal.withInitial(() -> {
+            ConstantizationAnalyzer analyzer =
+                    new ConstantizationAnalyzer(new ConstantizationInterpreter(classPool, valueFactory));
+            analyzer.setStaticInitializers(staticInitializers);
+            return analyzer;
+        });
+    }
+
+    /**
+     * @return the summaries of called methods shared by all workers, e.g., to compute them bottom-up beforehand with a
+     * {@link CallGraphScheduler}, or <code>null</code> if calls are not summarized
+     */
+    public MethodSummaries getMethodSummaries() {
+        return summaries;
+    }
+
+    /**
+     * @param summaries the summaries of called methods to share between all workers and static initializers, or
+     *                  <code>null</code>, the default, to treat every call as returning an unknown value
+     */
+    public void setMethodSummaries(MethodSummaries summaries) {
+        this.summaries = summaries;
+        staticInitializers.setMethodSummaries(summaries);
+    }
+
+    /**
+     * @return the static field values of classes shared by all workers, e.g., to serve static field targets from or
+     * to share with a {@link CallGraphScheduler}
+     */
+    public StaticInitializers getStaticInitializers() {
+        return staticInitializers;
+    }
+
+    /**
+     * Analyzes every class in a jar, except those under <code>META-INF/</code> and module descriptors.
+     */
+    public ConstantizationResults analyzeJar(Path jar) throws IOException {
+        List<byte[]> classes = new ArrayList<>();
+
+        try (JarFile jarFile = new JarFile(jar.toFile())) {
+            Enumeration<JarEntry> entries = jarFile.entries();
+            while (entries.hasMoreElements()) {
+                JarEntry entry = entries.nextElement();
+                String name = entry.getName();
+                if (entry.isDirectory()
+                        || !name.endsWith(".class")
+                        || name.startsWith("META-INF/")
+                        || name.endsWith("module-info.class")) {
+                    continue;
+                }
+
+                try (InputStream is = jarFile.getInputStream(entry)) {
+                    classes.add(is.readAllBytes());
+                }
+            }
+        }
+
+        return analyze(classes);
+    }
+
+    /**
+     * @param classes the bytes of each class file to analyze
+     */
+    public ConstantizationResults analyze(List<byte[]> classes) {
+        return analyze(classes, null);
+    }
+
+    /**
+     * Analyzes the classes on the pool of this driver, like {@link #analyze(List)}. Cancelling the returned future
+     * stops the analysis, no results of an analysis cancelled part way are returned or stored.
+     *
+     * @param classes the bytes of each class file to analyze
+     */
+    public CompletableFuture<ConstantizationResults> analyzeAsync(List<byte[]> classes) {
+        CancellationToken cancellation = new CancellationToken();
+        CompletableFuture<ConstantizationResults> future =
+                CompletableFuture.supplyAsync(() -> analyze(classes, cancellation), pool);
+        future.whenComplete((results, e) -> {
+            if (future.isCancelled()) {
+                cancellation.cancel();
+            }
+        });
+
+        return future;
+    }
+
+    private ConstantizationResults analyze(List<byte[]> classes, CancellationToken cancellation) {
+        Partial partial = pool.invoke(new AnalysisTask(classes, 0, classes.size(), cancellation));
+        return new ConstantizationResults(partial.values, partial.failures, partial.analyzedMethodCount,
+                partial.cachedClassCount);
+    }
+
+    private void analyzeClass(byte[] bytes, Partial partial, CancellationToken cancellation) {
+        if (cancellation != null) {
+            cancellation.throwIfCancelled();
+        }
+
+        // NOTE: read once, so the key and the analysis agree even if the summaries are replaced meanwhile
+        MethodSummaries summaries = this.summaries;
+        String key = null;
+        if (resultStore != null) {
+            ClassMemberIndex index = ClassMemberIndex.read(bytes);
+            key = resultStore.key(bytes, describeTargets(index, summaries != null));
+
+            Optional<ConstantizationResultStore.ClassResults> stored = resultStore.load(key, valueFactory);
+            if (stored.isPresent() && restore(index.getName(), stored.get(), partial)) {
+                partial.cachedClassCount++;
+                return;
+            }
+        }
+
+        ConstantizationEvents.ClassParse event = new ConstantizationEvents.ClassParse();
+        event.begin();
+        ClassNode cn = new ClassNode();
+        new ClassReader(bytes).accept(cn, ClassReader.EXPAND_FRAMES);
+        event.finish(cn.name, bytes.length, "class");
+
+        ConstantizationAnalyzer analyzer = analyzers.get();
+        analyzer.setMethodSummaries(summaries);
+        Map<String, List<ConstantizationValue<?>>> classValues = new LinkedHashMap<>();
+        int analyzedMethodCount = 0;
+        boolean failed = false;
+        boolean external = false;
+        for (MethodNode mn : cn.methods) {
+            // abstract and native methods have nothing to analyze
+            if (mn.instructions.size() == 0) {
+                continue;
+            }
+
+            String methodKey = cn.name + "." + mn.name + mn.desc;
+            try {
+                Frame<ConstantizationValue<?>>[] frames = analyzer.analyze(cn.name, mn, cancellation);
+                external |= analyzer.getDependencies().stream().anyMatch(d -> !d.owner().equals(cn.name));
+
+                Collection<ConstantizationTarget> targets = registry.getMethodScopeTargets(cn.name, mn.name, mn.desc);
+                if (!targets.isEmpty()) {
+                    ConstantizationEvents.TargetExtraction extraction = new ConstantizationEvents.TargetExtraction();
+                    extraction.begin();
+                    Map<ConstantizationTarget, ConstantizationValue<?>> values = new LinkedHashMap<>();
+                    for (ConstantizationTarget target : targets) {
+                        values.put(target, target.extractValueFromFrames(frames));
+                    }
+                    extraction.finish(methodKey, targets.size());
+                    partial.values.put(methodKey, values);
+                    classValues.put(mn.name + mn.desc, List.copyOf(values.values()));
+                }
+
+                analyzedMethodCount++;
+            } catch (CancellationException e) {
+                throw e;
+            } catch (AnalyzerException | RuntimeException e) {
+                // NOTE: one method the interpreter cannot handle yet must not abort the whole run
+                partial.failures.put(methodKey, e);
+                failed = true;
+            }
+        }
+
+        partial.analyzedMethodCount += analyzedMethodCount;
+
+        // NOTE: a failure may be fixed by the next version of the analyzer, so such classes are never stored, and
+        // neither are classes whose results depend on other classes, e.g., on their static initializers or methods,
+        // as the key only identifies the bytes of the class itself
+        if (resultStore != null && !failed && !external) {
+            try {
+                resultStore.save(key, new ConstantizationResultStore.ClassResults(analyzedMethodCount, classValues));
+            } catch (IOException e) {
+                // the store is only a cache, the results of this run are complete without it
+            }
+        }
+    }
+
+    /*
+     * Identifies the targets registered for the methods of a class, the value factory that creates their values, and
+     * whether calls are summarized, since calls within the class depend on nothing outside it either way. Targets have
+     * no identity of their own, so their string form stands for them.
+     */
+    private String describeTargets(ClassMemberIndex index, boolean summarized) {
+        StringBuilder sb = new StringBuilder(valueFactory.getClass().getName());
+        if (summarized) {
+            sb.append("\nsummarized");
+        }
+        for (ClassMemberIndex.MethodHeader header : index.methods()) {
+            Collection<ConstantizationTarget> targets =
+                    registry.getMethodScopeTargets(index.getName(), header.name(), header.descriptor());
+            if (!targets.isEmpty()) {
+                sb.append('\n').append(header.name()).append(header.descriptor()).append(targets);
+            }
+        }
+
+        return sb.toString();
+    }
+
+    private boolean restore(String clazz, ConstantizationResultStore.ClassResults stored, Partial partial) {
+        Map<String, Map<ConstantizationTarget, ConstantizationValue<?>>> restored = new HashMap<>();
+        for (Map.Entry<String, List<ConstantizationValue<?>>> entry : stored.values().entrySet()) {
+            String method = entry.getKey();
+            int descriptor = method.indexOf('(');
+            List<ConstantizationTarget> targets = List.copyOf(registry.getMethodScopeTargets(clazz,
+                    method.substring(0, descriptor), method.substring(descriptor)));
+            if (targets.size() != entry.getValue().size()) {
+                return false;
+            }
+
+            Map<ConstantizationTarget, ConstantizationValue<?>> values = new LinkedHashMap<>();
+            for (int i = 0; i < targets.size(); i++) {
+                values.put(targets.get(i), entry.getValue().get(i));
+            }
+            restored.put(clazz + "." + method, values);
+        }
+
+        partial.values.putAll(restored);
+        partial.analyzedMethodCount += stored.analyzedMethodCount();
+        return true;
+    }
+
+    /**
+     * Mutable results of one task, only ever touched by the thread running it until it is joined.
+     */
+    private static final class Partial {
+        private final Map<String, Map<ConstantizationTarget, ConstantizationValue<?>>> values = new HashMap<>();
+        private final Map<String, Throwable> failures = new HashMap<>();
+        private int analyzedMethodCount;
+        private int cachedClassCount;
+
+        private Partial merge(Partial other) {
+            // copy the smaller into the larger, so no entry is copied more than a logarithmic number of times
+            Partial larger = values.size() + failures.size() >= other.values.size() + other.failures.size()
+                    ? this
+                    : other;
+            Partial smaller = larger == this ? other : this;
+
+            larger.values.putAll(smaller.values);
+            larger.failures.putAll(smaller.failures);
+            larger.analyzedMethodCount += smaller.analyzedMethodCount;
+            larger.cachedClassCount += smaller.cachedClassCount;
+            return larger;
+        }
+    }
+
+    // NOTE: ForkJoinTask is serializable, but tasks never leave the pool they run on
+    @SuppressWarnings("serial")
+    private final class AnalysisTask extends RecursiveTask<Partial> {
+        private final List<byte[]> classes;
+        private final int from;
+        private final int to;
+        private final CancellationToken cancellation;
+
+        private AnalysisTask(List<byte[]> classes, int from, int to, CancellationToken cancellation) {
+            this.classes = classes;
+            this.from = from;
+            this.to = to;
+            this.cancellation = cancellation;
+        }
+
+        @Override
+        protected Partial compute() {
+            if (to - from <= CLASSES_PER_TASK) {
+                Partial partial = new Partial();
+                for (int i = from; i < to; i++) {
+                    analyzeClass(classes.get(i), partial, cancellation);
+                }
+
+                return partial;
+            }
+
+            int mid = (from + to) >>> 1;
+            AnalysisTask left = new AnalysisTask(classes, from, mid, cancellation);
+            left.fork();
+            Partial right = new AnalysisTask(classes, mid, to, cancellation).compute();
+
+            return left.join().merge(right);
+        }
+    }
+}
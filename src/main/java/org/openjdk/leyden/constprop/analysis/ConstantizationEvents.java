@@ -0,0 +1,158 @@
+package org.openjdk.leyden.constprop.analysis;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.analysis.Frame;
+import org.openjdk.leyden.constprop.values.ConstantizationValue;
+
+/**
+ * Java Flight Recorder events for the phases of the analysis, so that the analyzer shows up in a recording of the
+ * build it runs in. A recording of these events is enough to find the methods that are expensive to analyze.
+ * <p>
+ * Event fields are only filled in once an event is going to be committed, so disabled events cost next to nothing.
+ */
+final class ConstantizationEvents {
+    private static final String CATEGORY = "Constant Propagation";
+
+    private ConstantizationEvents() {
+    }
+
+    @Name("org.openjdk.leyden.constprop.ClassParse")
+    @Label("Class Parse")
+    @Description("Parsing of a class file, or of part of it")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static final class ClassParse extends Event {
+        @Label("Class")
+        String className;
+
+        @Label("Size")
+        @DataAmount
+        int size;
+
+        @Label("Parsed")
+        @Description("What was parsed: class, members or the name of a single method")
+        String parsed;
+
+        void finish(String className, int size, String parsed) {
+            if (shouldCommit()) {
+                this.className = className;
+                this.size = size;
+                this.parsed = parsed;
+                commit();
+            }
+        }
+    }
+
+    @Name("org.openjdk.leyden.constprop.BasicBlocks")
+    @Label("Basic Block Computation")
+    @Description("Computation of the basic blocks and per-instruction tables of a method")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static final class BasicBlocks extends Event {
+        @Label("Method")
+        String method;
+
+        @Label("Instruction Count")
+        int instructionCount;
+
+        @Label("Block Count")
+        int blockCount;
+
+        void finish(String owner, MethodNode method, int blockCount) {
+            if (shouldCommit()) {
+                this.method = owner + "." + method.name + method.desc;
+                this.instructionCount = method.instructions.size();
+                this.blockCount = blockCount;
+                commit();
+            }
+        }
+    }
+
+    @Name("org.openjdk.leyden.constprop.Fixpoint")
+    @Label("Fixpoint Iteration")
+    @Description("Interpretation of a method until its frames stop changing")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static final class Fixpoint extends Event {
+        @Label("Method")
+        String method;
+
+        @Label("Instruction Count")
+        int instructionCount;
+
+        @Label("Merge Count")
+        @Description("Merges of two different values, widening included")
+        int mergeCount;
+
+        @Label("Maximum Value Depth")
+        @Description("The longest chain of operations any value in the frames was computed through")
+        int maxDepth;
+
+        @Label("Degraded Value Count")
+        @Description("Merges that gave up on tracking the possible values of a value one by one")
+        int degradedCount;
+
+        void finish(String owner,
+                    MethodNode method,
+                    ConstantizationInterpreter interpreter,
+                    Frame<ConstantizationValue<?>>[] frames) {
+            if (!shouldCommit()) {
+                return;
+            }
+
+            this.method = owner + "." + method.name + method.desc;
+            this.instructionCount = method.instructions.size();
+            this.mergeCount = interpreter.getMergeCount();
+            this.degradedCount = interpreter.getDegradedCount();
+
+            int maxDepth = 0;
+            for (Frame<ConstantizationValue<?>> frame : frames) {
+                if (frame == null) {
+                    continue;
+                }
+
+                for (int i = 0; i < frame.getLocals(); i++) {
+                    maxDepth = Math.max(maxDepth, depth(frame.getLocal(i)));
+                }
+                for (int i = 0; i < frame.getStackSize(); i++) {
+                    maxDepth = Math.max(maxDepth, depth(frame.getStack(i)));
+                }
+            }
+            this.maxDepth = maxDepth;
+
+            commit();
+        }
+
+        private static int depth(ConstantizationValue<?> value) {
+            return value != null ? value.getDepth() : 0;
+        }
+    }
+
+    @Name("org.openjdk.leyden.constprop.TargetExtraction")
+    @Label("Target Extraction")
+    @Description("Extraction of the values of the targets of a method from its frames")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static final class TargetExtraction extends Event {
+        @Label("Method")
+        String method;
+
+        @Label("Target Count")
+        int targetCount;
+
+        void finish(String method, int targetCount) {
+            if (shouldCommit()) {
+                this.method = method;
+                this.targetCount = targetCount;
+                commit();
+            }
+        }
+    }
+}
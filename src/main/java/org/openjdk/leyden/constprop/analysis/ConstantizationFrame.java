@@ -0,0 +1,60 @@
+package org.openjdk.leyden.constprop.analysis;
+
+import org.objectweb.asm.tree.analysis.AnalyzerException;
+import org.objectweb.asm.tree.analysis.Frame;
+import org.objectweb.asm.tree.analysis.Interpreter;
+import org.openjdk.leyden.constprop.values.ConstantizationValue;
+
+/**
+ * A frame that widens instead of merging when it sits at a loop header. The analyzer revisits a loop header every time
+ * the loop body changes, so plain merges there would let values grow by one step per pass.
+ */
+class ConstantizationFrame extends Frame<ConstantizationValue<?>> {
+    private boolean loopHeader;
+
+    ConstantizationFrame(int numLocals, int maxStack) {
+        super(numLocals, maxStack);
+        AnalysisMetrics.FRAMES_ALLOCATED.increment();
+    }
+
+    ConstantizationFrame(Frame<? extends ConstantizationValue<?>> frame) {
+        super(frame);
+        AnalysisMetrics.FRAMES_ALLOCATED.increment();
+    }
+
+    void setLoopHeader(boolean loopHeader) {
+        this.loopHeader = loopHeader;
+    }
+
+    @Override
+    public boolean merge(Frame<? extends ConstantizationValue<?>> frame,
+                         Interpreter<ConstantizationValue<?>> interpreter) throws AnalyzerException {
+        if (!loopHeader || !(interpreter instanceof ConstantizationInterpreter constantizationInterpreter)) {
+            return super.merge(frame, interpreter);
+        }
+
+        if (getStackSize() != frame.getStackSize()) {
+            throw new AnalyzerException(null, "Incompatible stack heights");
+        }
+
+        // NOTE: same as Frame#merge, with ConstantizationInterpreter#widen in place of Interpreter#merge
+        boolean changed = false;
+        for (int i = 0; i < getLocals(); i++) {
+            ConstantizationValue<?> value = constantizationInterpreter.widen(getLocal(i), frame.getLocal(i));
+            if (!value.equals(getLocal(i))) {
+                setLocal(i, value);
+                changed = true;
+            }
+        }
+
+        for (int i = 0; i < getStackSize(); i++) {
+            ConstantizationValue<?> value = constantizationInterpreter.widen(getStack(i), frame.getStack(i));
+            if (!value.equals(getStack(i))) {
+                setStack(i, value);
+                changed = true;
+            }
+        }
+
+        return changed;
+    }
+}
@@ -6,32 +6,67 @@ import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.Type;
 import org.objectweb.asm.tree.AbstractInsnNode;
 import org.objectweb.asm.tree.FieldInsnNode;
+import org.objectweb.asm.tree.FieldNode;
 import org.objectweb.asm.tree.FrameNode;
+import org.objectweb.asm.tree.IincInsnNode;
 import org.objectweb.asm.tree.InsnList;
 import org.objectweb.asm.tree.IntInsnNode;
 import org.objectweb.asm.tree.JumpInsnNode;
+import org.objectweb.asm.tree.LabelNode;
 import org.objectweb.asm.tree.LdcInsnNode;
 import org.objectweb.asm.tree.LineNumberNode;
+import org.objectweb.asm.tree.LookupSwitchInsnNode;
+import org.objectweb.asm.tree.MethodInsnNode;
 import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.TableSwitchInsnNode;
+import org.objectweb.asm.tree.TryCatchBlockNode;
 import org.objectweb.asm.tree.TypeInsnNode;
 import org.objectweb.asm.tree.analysis.AnalyzerException;
+import org.objectweb.asm.tree.analysis.Frame;
 import org.objectweb.asm.tree.analysis.Interpreter;
 import org.openjdk.leyden.constprop.operations.BinaryOperation;
+import org.openjdk.leyden.constprop.operations.DoubleBinaryOperation;
+import org.openjdk.leyden.constprop.operations.DoubleUnaryOperation;
+import org.openjdk.leyden.constprop.operations.FloatBinaryOperation;
+import org.openjdk.leyden.constprop.operations.FloatUnaryOperation;
+import org.openjdk.leyden.constprop.operations.IntBinaryOperation;
+import org.openjdk.leyden.constprop.operations.IntUnaryOperation;
+import org.openjdk.leyden.constprop.operations.LongBinaryOperation;
+import org.openjdk.leyden.constprop.operations.LongUnaryOperation;
+import org.openjdk.leyden.constprop.operations.NewOperation;
 import org.openjdk.leyden.constprop.operations.UnaryOperation;
+import org.openjdk.leyden.constprop.util.CartesianProduct;
+import org.openjdk.leyden.constprop.util.IntInterval;
+import org.openjdk.leyden.constprop.util.IntSet;
+import org.openjdk.leyden.constprop.util.LongInterval;
+import org.openjdk.leyden.constprop.util.LongSet;
 import org.openjdk.leyden.constprop.util.Unknowable;
 import org.openjdk.leyden.constprop.values.AbstractConstantizationValueFactory;
 import org.openjdk.leyden.constprop.values.ConstantizationValue;
 import org.openjdk.leyden.constprop.values.DefaultConstantizationValueFactory;
 import org.openjdk.leyden.constprop.values.DoubleValue;
 import org.openjdk.leyden.constprop.values.FloatValue;
+import org.openjdk.leyden.constprop.values.ImmutableReferenceTypeValue;
 import org.openjdk.leyden.constprop.values.IntegerValue;
 import org.openjdk.leyden.constprop.values.LongValue;
+import org.openjdk.leyden.constprop.values.MutableReferenceTypeValue;
+import org.openjdk.leyden.constprop.values.ReferenceIdArena;
+import org.openjdk.leyden.constprop.values.ReferenceTypeValue;
+import org.openjdk.leyden.constprop.values.ValueTypeValue;
 
 import java.lang.constant.ClassDesc;
+import java.util.BitSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
 import java.util.stream.IntStream;
 
 class ConstantizationInterpreter extends Interpreter<ConstantizationValue<?>> {
@@ -39,9 +74,41 @@ class ConstantizationInterpreter extends Interpreter<ConstantizationValue<?>> {
     private final AbstractClassPool classPool;
 
     private InsnList instructions;
+    private List<TryCatchBlockNode> tryCatchBlocks;
     private int[] basicBlockStarts;
+    // NOTE: dense tables indexed by instruction or block, so that every lookup while interpreting takes constant time
+    private int[] basicBlocks;
+    private int[] lineNumbers;
+    // NOTE: only computed on demand, as interpreting a method never needs them
+    private int[] blockSuccessorOffsets;
+    private int[] blockSuccessors;
+    private BitSet loopHeaders;
+    private IntSet intThresholds;
+    private LongSet longThresholds;
     private int currentBasicBlock;
-    private HashMap<Integer, ReferenceTracker> referenceTrackers;
+    private int enteredBasicBlock;
+    private ConstantizationListener listener;
+    private int mergeCount;
+    private int degradedCount;
+    private AnalysisBudget budget = AnalysisBudget.UNLIMITED;
+    private boolean budgeted;
+    private long instructionVisits;
+    private long deadline;
+    private final Set<AnalysisBudget.Limit> exceededLimits = EnumSet.noneOf(AnalysisBudget.Limit.class);
+    private CancellationToken cancellation;
+    private MethodSummaries summaries;
+    // NOTE: the calls being summarized on the way to this method, outermost first, to cut off recursion
+    private List<MethodSummaries.Key> callers = List.of();
+    // the arguments of a call being summarized, by local, null ones are unknown
+    private ConstantizationValue<?>[] parameterValues;
+    private boolean partialSummary;
+    private StaticInitializers staticInitializers;
+    // NOTE: the classes whose static initializers are analyzed on the way to this method, outermost first
+    private List<String> initializing = List.of();
+    // the values assigned to the static fields of the last of these classes, null unless analyzing its initializer
+    private Map<String, ConstantizationValue<?>> staticStores;
+    private ReferenceTracker[] referenceTrackers;
+    private Set<DependencyGraph.Dependency> dependencies = new LinkedHashSet<>();
 
     ConstantizationInterpreter() {
         this(new ClassLoaderClassPool(), new DefaultConstantizationValueFactory());
@@ -52,31 +119,24 @@ class ConstantizationInterpreter extends Interpreter<ConstantizationValue<?>> {
 
         this.classPool = classPool;
         this.valueFactory = valueFactory;
+        this.staticInitializers = new StaticInitializers(classPool, valueFactory);
     }
 
-    private int getInstLineNumberByIndex(int index) {
-        Objects.requireNonNull(this.instructions);
-
-        while (true) {
-            if (index < 0) {
-                return -1;
-            }
+    void setMethodNode(String owner, MethodNode method) {
+        this.instructions = method.instructions;
+        this.tryCatchBlocks = method.tryCatchBlocks;
 
-            AbstractInsnNode inst = this.instructions.get(index--);
-            if (inst instanceof LineNumberNode) {
-                return ((LineNumberNode) inst).line;
+        lineNumbers = new int[method.instructions.size()];
+        int line = -1;
+        for (AbstractInsnNode insn : method.instructions) {
+            if (insn instanceof LineNumberNode lineNumber) {
+                line = lineNumber.line;
             }
+            lineNumbers[method.instructions.indexOf(insn)] = line;
         }
-    }
-
-    void setMethodNode(MethodNode method) {
-        this.instructions = method.instructions;
 
-        // DEBUG:
-        System.out.println("==== instructions ====");
-        for (int i = 0; i < this.instructions.size(); i++) {
-            System.out.printf("inst #%d, line #%d: %s\n", i, getInstLineNumberByIndex(i), this.instructions.get(i));
-        }
+        ConstantizationEvents.BasicBlocks event = new ConstantizationEvents.BasicBlocks();
+        event.begin();
 
         // compute frames
         AbstractInsnNode[] instructions = method.instructions.toArray();
@@ -102,41 +162,349 @@ class ConstantizationInterpreter extends Interpreter<ConstantizationValue<?>> {
                 .distinct()
                 .toArray();
 
+        // NOTE: an instruction belongs to the first block starting at or after it, see trackBasicBlock()
+        basicBlocks = new int[instructions.length];
+        for (int i = 0, block = 0; i < instructions.length; i++) {
+            while (block < basicBlockStarts.length && basicBlockStarts[block] < i) {
+                block++;
+            }
+            basicBlocks[i] = block;
+        }
+        blockSuccessorOffsets = null;
+        blockSuccessors = null;
+        event.finish(owner, method, basicBlockStarts.length + 1);
+
+        loopHeaders = new BitSet(instructions.length);
+        for (int i = 0; i < instructions.length; i++) {
+            for (LabelNode target : jumpTargets(instructions[i])) {
+                // NOTE: a jump back to (or onto) an earlier basic block closes a loop. ASM merges frames at the label
+                // itself, so that is the index recorded here rather than the block start.
+                int index = method.instructions.indexOf(target);
+                if (index <= i) {
+                    loopHeaders.set(index);
+                }
+            }
+        }
+
+        IntSet.Builder ints = new IntSet.Builder();
+        LongSet.Builder longs = new LongSet.Builder();
+        for (AbstractInsnNode insn : instructions) {
+            switch (insn.getOpcode()) {
+                case Opcodes.ICONST_M1, Opcodes.ICONST_0, Opcodes.ICONST_1, Opcodes.ICONST_2, Opcodes.ICONST_3,
+                        Opcodes.ICONST_4, Opcodes.ICONST_5 -> ints.add(insn.getOpcode() - Opcodes.ICONST_0);
+                case Opcodes.BIPUSH, Opcodes.SIPUSH -> ints.add(((IntInsnNode) insn).operand);
+                case Opcodes.LCONST_0, Opcodes.LCONST_1 -> longs.add(insn.getOpcode() - Opcodes.LCONST_0);
+                case Opcodes.LDC -> {
+                    Object cst = ((LdcInsnNode) insn).cst;
+                    if (cst instanceof Integer v) {
+                        ints.add(v);
+                    } else if (cst instanceof Long v) {
+                        longs.add(v);
+                    }
+                }
+            }
+        }
+        intThresholds = ints.build();
+        longThresholds = longs.build();
+
         currentBasicBlock = 0;
+        enteredBasicBlock = -1;
+        mergeCount = 0;
+        degradedCount = 0;
+        instructionVisits = 0;
+        partialSummary = false;
+        deadline = budget.deadline(System.nanoTime());
+        exceededLimits.clear();
+
+        this.referenceTrackers = new ReferenceTracker[basicBlockStarts.length + 1];
+        this.dependencies = new LinkedHashSet<>();
+
+        // reference identities are only meaningful within this method
+        ReferenceIdArena.open();
+    }
+
+    /*
+     * Records the successors of each block in one array, those of block b at
+     * blockSuccessors[blockSuccessorOffsets[b] .. blockSuccessorOffsets[b + 1]).
+     */
+    private void computeBlockSuccessors() {
+        AbstractInsnNode[] instructions = this.instructions.toArray();
+        int blockCount = basicBlockStarts.length + 1;
+        IntSet.Builder[] successors = new IntSet.Builder[blockCount];
+        for (int block = 0; block < blockCount; block++) {
+            successors[block] = new IntSet.Builder();
+        }
+
+        for (int i = 0; i < instructions.length; i++) {
+            int block = basicBlocks[i];
+            for (LabelNode target : jumpTargets(instructions[i])) {
+                successors[block].add(basicBlocks[this.instructions.indexOf(target)]);
+            }
+
+            int opcode = instructions[i].getOpcode();
+            boolean fallsThrough = opcode != Opcodes.GOTO && opcode != Opcodes.ATHROW
+                    && !(opcode >= Opcodes.IRETURN && opcode <= Opcodes.RETURN)
+                    && !(instructions[i] instanceof TableSwitchInsnNode)
+                    && !(instructions[i] instanceof LookupSwitchInsnNode);
+            if (fallsThrough && i + 1 < instructions.length && basicBlocks[i + 1] != block) {
+                successors[block].add(basicBlocks[i + 1]);
+            }
+        }
+
+        for (TryCatchBlockNode tcb : tryCatchBlocks) {
+            int handler = basicBlocks[this.instructions.indexOf(tcb.handler)];
+            int end = this.instructions.indexOf(tcb.end);
+            for (int i = this.instructions.indexOf(tcb.start); i < end; i++) {
+                successors[basicBlocks[i]].add(handler);
+            }
+        }
+
+        blockSuccessorOffsets = new int[blockCount + 1];
+        int[][] sets = new int[blockCount][];
+        for (int block = 0; block < blockCount; block++) {
+            sets[block] = successors[block].build().toArray();
+            blockSuccessorOffsets[block + 1] = blockSuccessorOffsets[block] + sets[block].length;
+        }
+
+        blockSuccessors = new int[blockSuccessorOffsets[blockCount]];
+        for (int block = 0; block < blockCount; block++) {
+            System.arraycopy(sets[block], 0, blockSuccessors, blockSuccessorOffsets[block], sets[block].length);
+        }
+    }
+
+    private static List<LabelNode> jumpTargets(AbstractInsnNode insn) {
+        if (insn instanceof JumpInsnNode jump) {
+            return List.of(jump.label);
+        }
+
+        if (insn instanceof TableSwitchInsnNode tableSwitch) {
+            List<LabelNode> targets = new ArrayList<>(tableSwitch.labels);
+            targets.add(tableSwitch.dflt);
+            return targets;
+        }
 
-        this.referenceTrackers = new HashMap<>();
+        if (insn instanceof LookupSwitchInsnNode lookupSwitch) {
+            List<LabelNode> targets = new ArrayList<>(lookupSwitch.labels);
+            targets.add(lookupSwitch.dflt);
+            return targets;
+        }
+
+        return List.of();
+    }
+
+    ConstantizationListener getListener() {
+        return listener;
+    }
+
+    /**
+     * @param listener receives the events of subsequent analyses, or <code>null</code> for none
+     */
+    void setListener(ConstantizationListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * @return how many merges, widening included, changed a value in the method so far
+     */
+    int getMergeCount() {
+        return mergeCount;
+    }
+
+    /**
+     * @return how many merges degraded a value in the method so far
+     */
+    int getDegradedCount() {
+        return degradedCount;
+    }
+
+    AnalysisBudget getBudget() {
+        return budget;
+    }
+
+    /**
+     * @param budget limits the analysis of subsequent methods
+     */
+    void setBudget(AnalysisBudget budget) {
+        this.budget = Objects.requireNonNull(budget);
+        this.budgeted = !budget.isUnlimited();
+    }
+
+    CancellationToken getCancellationToken() {
+        return cancellation;
+    }
+
+    /**
+     * @param cancellation stops the analysis once cancelled, or <code>null</code> to never stop
+     */
+    void setCancellationToken(CancellationToken cancellation) {
+        this.cancellation = cancellation;
+    }
 
-        // DEBUG:
-        System.out.println("==== basic blocks ====");
-        for (int i = 0; i < basicBlockStarts.length; i++) {
-            System.out.printf("blk #%d, line #%d, inst #%d: %s\n", i, getInstLineNumberByIndex(basicBlockStarts[i]), basicBlockStarts[i], this.instructions.get(basicBlockStarts[i]));
+    MethodSummaries getMethodSummaries() {
+        return summaries;
+    }
+
+    /**
+     * @param summaries the summaries of called methods to share, or <code>null</code> to treat every call as returning
+     *                  an unknown value
+     */
+    void setMethodSummaries(MethodSummaries summaries) {
+        this.summaries = summaries;
+    }
+
+    StaticInitializers getStaticInitializers() {
+        return staticInitializers;
+    }
+
+    /**
+     * @param staticInitializers the static field values of classes to share, or <code>null</code> to read every
+     *                           static final field without a <code>ConstantValue</code> attribute as unknown
+     */
+    void setStaticInitializers(StaticInitializers staticInitializers) {
+        this.staticInitializers = staticInitializers;
+    }
+
+    /**
+     * @return the limits of the budget the method exceeded so far
+     */
+    Set<AnalysisBudget.Limit> getExceededLimits() {
+        return Set.copyOf(exceededLimits);
+    }
+
+    /**
+     * @return everything outside the method the values computed so far depend on
+     */
+    Set<DependencyGraph.Dependency> getDependencies() {
+        return Collections.unmodifiableSet(dependencies);
+    }
+
+    /**
+     * @param index index of an instruction
+     * @return the basic block the instruction belongs to
+     */
+    int getBasicBlock(int index) {
+        return basicBlocks[index];
+    }
+
+    /**
+     * @param index index of an instruction
+     * @return the source line of the instruction, or -1 if unknown
+     */
+    int getLineNumber(int index) {
+        return lineNumbers[index];
+    }
+
+    /**
+     * @param block a basic block, see {@link #getBasicBlock(int)}
+     * @return the blocks control may flow to from the block, including exception handlers, in ascending order
+     */
+    int[] getBlockSuccessors(int block) {
+        if (blockSuccessors == null) {
+            computeBlockSuccessors();
         }
+
+        return Arrays.copyOfRange(blockSuccessors, blockSuccessorOffsets[block], blockSuccessorOffsets[block + 1]);
+    }
+
+    /**
+     * @param index index of an instruction, usually a label
+     * @return whether a jump goes back to the instruction, i.e., frames merged into it flow around a loop
+     */
+    boolean isLoopHeader(int index) {
+        return loopHeaders != null && loopHeaders.get(index);
     }
 
     private void trackBasicBlock(AbstractInsnNode insn) {
+        if (cancellation != null) {
+            cancellation.throwIfCancelled();
+        }
+
         if (instructions == null) {
             return;
         }
 
-        int index = instructions.indexOf(insn);
-        int block;
-        for (block = 0; block < basicBlockStarts.length; block++) {
-            if (basicBlockStarts[block] >= index) {
-                break;
+        if (budgeted) {
+            instructionVisits++;
+            if (instructionVisits > budget.maxInstructionVisits()) {
+                exceeded(AnalysisBudget.Limit.INSTRUCTION_VISITS);
+            } else if ((instructionVisits & 0x3F) == 0 && System.nanoTime() - deadline > 0) {
+                // NOTE: reading the clock costs more than interpreting most instructions, so it is only read every
+                // 64 visits
+                exceeded(AnalysisBudget.Limit.TIME);
             }
         }
 
-        referenceTrackers.putIfAbsent(block,
-                block == 0 ? new ReferenceTracker() : new ReferenceTracker(referenceTrackers.get(currentBasicBlock)));
+        // NOTE: InsnList caches the index of each instruction, so this does not scan the list
+        int index = instructions.indexOf(insn);
+        int block = basicBlocks[index];
+
+        if (referenceTrackers[block] == null) {
+            referenceTrackers[block] = block == 0
+                    ? new ReferenceTracker()
+                    : new ReferenceTracker(referenceTrackers[currentBasicBlock]);
+        }
         currentBasicBlock = block;
 
-        // DEBUG:
-        System.out.println("==== tracking basic block ====");
-        System.out.printf("inst #%d, line #%d, blk #%d\n", index, getInstLineNumberByIndex(index), block);
+        if (listener != null && block != enteredBasicBlock) {
+            enteredBasicBlock = block;
+            listener.blockEntered(block, index, lineNumbers[index]);
+        }
+    }
+
+    private void exceeded(AnalysisBudget.Limit limit) {
+        if (exceededLimits.add(limit)) {
+            AnalysisMetrics.budgetExceeded(limit);
+            if (listener != null) {
+                listener.budgetExceeded(limit);
+            }
+        }
+    }
+
+    /**
+     * Replaces a value the budget does not allow for by an unknown value of the same type, see
+     * {@link AnalysisBudget}. An unknown value may be anything, so merges keep it and the result stays sound. Mutable
+     * references keep their identity, which later instructions rely on, and uninitialized values have no type to be
+     * unknown of.
+     *
+     * @param value    the value just computed, possibly <code>null</code>
+     * @param operands the values it was computed from
+     */
+    private ConstantizationValue<?> withinBudget(ConstantizationValue<?> value, ConstantizationValue<?>... operands) {
+        if (!budgeted || !(value instanceof ValueTypeValue<?> || value instanceof ImmutableReferenceTypeValue<?>)) {
+            return value;
+        }
+
+        if (exceededLimits.contains(AnalysisBudget.Limit.INSTRUCTION_VISITS)
+                || exceededLimits.contains(AnalysisBudget.Limit.TIME)) {
+            return unknownLike(value);
+        }
+
+        if (value.getDepth() > budget.maxValueDepth()) {
+            exceeded(AnalysisBudget.Limit.VALUE_DEPTH);
+            return unknownLike(value);
+        }
+
+        if (operands.length > 1) {
+            int[] sizes = new int[operands.length];
+            for (int i = 0; i < operands.length; i++) {
+                sizes[i] = operands[i].values().size();
+            }
+
+            if (CartesianProduct.size(sizes) > budget.maxOperandCombinations()) {
+                exceeded(AnalysisBudget.Limit.OPERAND_COMBINATIONS);
+                return unknownLike(value);
+            }
+        }
+
+        return value;
+    }
+
+    private ConstantizationValue<?> unknownLike(ConstantizationValue<?> value) {
+        return valueFactory.createValue(value.getDescriptor(), NewOperation.unknown());
     }
 
     private ReferenceTracker getCurrentReferenceTracker() {
-        return referenceTrackers.get(currentBasicBlock);
+        return referenceTrackers[currentBasicBlock];
     }
 
     @Override
@@ -152,10 +520,60 @@ class ConstantizationInterpreter extends Interpreter<ConstantizationValue<?>> {
         return valueFactory.createValue(type.getDescriptor());
     }
 
+    /**
+     * Unlike {@link #newValue(Type)}, which creates the default value of the type, creates a value with no known
+     * possible value, e.g., for a parameter.
+     */
+    ConstantizationValue<?> newUnknownValue(Type type) {
+        if (type == null) {
+            return ConstantizationValue.UninitializedValue.INSTANCE;
+        }
+
+        if (type == Type.VOID_TYPE) {
+            return null;
+        }
+
+        return valueFactory.createValue(type.getDescriptor(), NewOperation.unknown());
+    }
+
+    /**
+     * Arrays are not tracked yet, so an array reference is an unknown object and any element or length read from it
+     * is unknown.
+     */
+    private ConstantizationValue<?> newUnknownArray() {
+        // TODO: support arrays
+        return newUnknownValue(Type.getObjectType("java/lang/Object"));
+    }
+
+    @Override
+    public ConstantizationValue<?> newParameterValue(boolean isInstanceMethod, int local, Type type) {
+        if (parameterValues == null) {
+            return super.newParameterValue(isInstanceMethod, local, type);
+        }
+
+        ConstantizationValue<?> value = parameterValues[local];
+        return value != null ? value : newUnknownValue(computationalType(type));
+    }
+
+    /*
+     * Values of booleans, bytes, chars and shorts are ints, as on the operand stack.
+     */
+    static Type computationalType(Type type) {
+        return switch (type.getSort()) {
+            case Type.BOOLEAN, Type.BYTE, Type.CHAR, Type.SHORT -> Type.INT_TYPE;
+            default -> type;
+        };
+    }
+
     @Override
     public ConstantizationValue<?> newOperation(AbstractInsnNode insn) throws AnalyzerException {
         trackBasicBlock(insn);
 
+        return withinBudget(computeNewOperation(insn));
+    }
+
+    private ConstantizationValue<?> computeNewOperation(AbstractInsnNode insn) throws AnalyzerException {
+
         // constants
         switch (insn.getOpcode()) {
             case Opcodes.ICONST_M1 -> {
@@ -251,19 +669,7 @@ class ConstantizationInterpreter extends Interpreter<ConstantizationValue<?>> {
 
         if (insn.getOpcode() == Opcodes.GETSTATIC) {
             FieldInsnNode fin = ((FieldInsnNode) insn);
-            try {
-                // currently only supports static final fields
-                Optional<Object> opt = classPool.staticFinalFieldValueForName(fin.owner, fin.name);
-                if (opt.isPresent()) {
-                    return valueFactory.createValue(fin.desc, opt.get());
-                } else {
-                    throw new UnsupportedOperationException("GETSTATIC not possible");
-                }
-
-            } catch (ClassNotFoundException | FieldNotFoundException e) {
-                // TODO: result in unknown value
-                throw new UnsupportedOperationException("GETSTATIC not possible");
-            }
+            return staticFieldValue(fin.owner, fin.name, fin.desc);
         }
 
         if (insn.getOpcode() == Opcodes.NEW) {
@@ -286,7 +692,7 @@ class ConstantizationInterpreter extends Interpreter<ConstantizationValue<?>> {
 
         // NOTE: we create a new value which is performs an identify operation from the original instead of creating
         // copies of the original value object. This way we add a new node to the chain.
-        return value.ident();
+        return withinBudget(value.ident());
     }
 
     @Override
@@ -295,6 +701,20 @@ class ConstantizationInterpreter extends Interpreter<ConstantizationValue<?>> {
 
         trackBasicBlock(insn);
 
+        if (insn.getOpcode() == Opcodes.PUTSTATIC && staticStores != null) {
+            FieldInsnNode fin = (FieldInsnNode) insn;
+            // NOTE: any assignment may be the last one, so all values assigned on any path are kept
+            if (fin.owner.equals(initializing.get(initializing.size() - 1))) {
+                staticStores.merge(fin.name, value, this::merge);
+            }
+        }
+
+        return withinBudget(computeUnaryOperation(insn, value));
+    }
+
+    private ConstantizationValue<?> computeUnaryOperation(AbstractInsnNode insn, ConstantizationValue<?> value)
+            throws AnalyzerException {
+
         return switch (insn.getOpcode()) {
             // void results
             case Opcodes.IFEQ,
@@ -310,7 +730,7 @@ class ConstantizationInterpreter extends Interpreter<ConstantizationValue<?>> {
                     Opcodes.LRETURN,
                     Opcodes.DRETURN,
                     Opcodes.ARETURN,
-                    Opcodes.PUTSTATIC, // TODO: handle this?
+                    Opcodes.PUTSTATIC,
                     Opcodes.ATHROW,
                     Opcodes.MONITORENTER,
                     Opcodes.MONITOREXIT,
@@ -318,19 +738,34 @@ class ConstantizationInterpreter extends Interpreter<ConstantizationValue<?>> {
                     Opcodes.IFNONNULL -> null;
 
             // int results
-            case Opcodes.INEG -> new IntegerValue(new UnaryOperation<Integer, Integer>() {
+            case Opcodes.INEG -> new IntegerValue(new IntUnaryOperation() {
                 @Override
-                public Unknowable<Integer> apply(Integer operand) {
-                    return Unknowable.of(operand * -1);
+                public int applyAsInt(int operand) {
+                    return operand * -1;
+                }
+
+                @Override
+                public IntInterval applyRange(IntInterval operand) {
+                    return operand.neg();
                 }
             }, value);
-            case Opcodes.IINC -> new IntegerValue(new UnaryOperation<Integer, Integer>() {
+            case Opcodes.IINC -> new IntegerValue(new IntUnaryOperation() {
+                private final int increment = ((IincInsnNode) insn).incr;
+
                 @Override
-                public Unknowable<Integer> apply(Integer operand) {
-                    return Unknowable.of(operand + 1);
+                public int applyAsInt(int operand) {
+                    return operand + increment;
+                }
+
+                @Override
+                public IntInterval applyRange(IntInterval operand) {
+                    return operand.add(IntInterval.of(increment));
                 }
             }, value);
-            case Opcodes.L2I -> new IntegerValue(new UnaryOperation<Long, Integer>() {
+            // NOTE: a value only known by its range keeps it, see l2i()
+            case Opcodes.L2I -> value instanceof LongValue l && l.isDegraded()
+                    ? IntegerValue.ofRange(l2i(l.longRange()))
+                    : new IntegerValue(new UnaryOperation<Long, Integer>() {
                 @Override
                 public Unknowable<Integer> apply(Long operand) {
                     return Unknowable.of(operand.intValue());
@@ -348,34 +783,56 @@ class ConstantizationInterpreter extends Interpreter<ConstantizationValue<?>> {
                     return Unknowable.of(operand.intValue());
                 }
             }, value);
-            case Opcodes.I2B -> new IntegerValue(new UnaryOperation<Integer, Integer>() {
+            case Opcodes.I2B -> new IntegerValue(new IntUnaryOperation() {
                 @Override
-                public Unknowable<Integer> apply(Integer operand) {
-                    return Unknowable.of((int) operand.byteValue());
+                public int applyAsInt(int operand) {
+                    return (byte) operand;
+                }
+
+                @Override
+                public IntInterval applyRange(IntInterval operand) {
+                    return operand.narrow(Byte.MIN_VALUE, Byte.MAX_VALUE);
                 }
             }, value);
-            case Opcodes.I2C -> new IntegerValue(new UnaryOperation<Integer, Integer>() {
+            case Opcodes.I2C -> new IntegerValue(new IntUnaryOperation() {
+                @Override
+                public int applyAsInt(int operand) {
+                    return (char) operand;
+                }
+
                 @Override
-                public Unknowable<Integer> apply(Integer operand) {
-                    return Unknowable.of((int) (char) operand.intValue());
+                public IntInterval applyRange(IntInterval operand) {
+                    return operand.narrow(Character.MIN_VALUE, Character.MAX_VALUE);
                 }
             }, value);
-            case Opcodes.I2S -> new IntegerValue(new UnaryOperation<Integer, Integer>() {
+            case Opcodes.I2S -> new IntegerValue(new IntUnaryOperation() {
                 @Override
-                public Unknowable<Integer> apply(Integer operand) {
-                    return Unknowable.of((int) operand.shortValue());
+                public int applyAsInt(int operand) {
+                    return (short) operand;
+                }
+
+                @Override
+                public IntInterval applyRange(IntInterval operand) {
+                    return operand.narrow(Short.MIN_VALUE, Short.MAX_VALUE);
                 }
             }, value);
-            case Opcodes.ARRAYLENGTH -> null; // TODO: support arrays
+            case Opcodes.ARRAYLENGTH -> newUnknownValue(Type.INT_TYPE);
 
             // long results
-            case Opcodes.LNEG -> new LongValue(new UnaryOperation<Long, Long>() {
+            case Opcodes.LNEG -> new LongValue(new LongUnaryOperation() {
+                @Override
+                public long applyAsLong(long operand) {
+                    return operand * -1;
+                }
+
                 @Override
-                public Unknowable<Long> apply(Long operand) {
-                    return Unknowable.of(operand * -1);
+                public LongInterval applyRange(LongInterval operand) {
+                    return operand.neg();
                 }
             }, value);
-            case Opcodes.I2L -> new LongValue(new UnaryOperation<Integer, Long>() {
+            case Opcodes.I2L -> value instanceof IntegerValue i && i.isDegraded()
+                    ? LongValue.ofRange(LongInterval.of(i.intRange().min(), i.intRange().max()))
+                    : new LongValue(new UnaryOperation<Integer, Long>() {
                 @Override
                 public Unknowable<Long> apply(Integer operand) {
                     return Unknowable.of(operand.longValue());
@@ -395,10 +852,10 @@ class ConstantizationInterpreter extends Interpreter<ConstantizationValue<?>> {
             }, value);
 
             // float results
-            case Opcodes.FNEG -> new FloatValue(new UnaryOperation<Float, Float>() {
+            case Opcodes.FNEG -> new FloatValue(new FloatUnaryOperation() {
                 @Override
-                public Unknowable<Float> apply(Float operand) {
-                    return Unknowable.of(operand * -1);
+                public float applyAsFloat(float operand) {
+                    return operand * -1;
                 }
             }, value);
             case Opcodes.I2F -> new FloatValue(new UnaryOperation<Integer, Float>() {
@@ -421,10 +878,10 @@ class ConstantizationInterpreter extends Interpreter<ConstantizationValue<?>> {
             }, value);
 
             // double results
-            case Opcodes.DNEG -> new DoubleValue(new UnaryOperation<Double, Double>() {
+            case Opcodes.DNEG -> new DoubleValue(new DoubleUnaryOperation() {
                 @Override
-                public Unknowable<Double> apply(Double operand) {
-                    return Unknowable.of(operand * -1);
+                public double applyAsDouble(double operand) {
+                    return operand * -1;
                 }
             }, value);
             case Opcodes.I2D -> new DoubleValue(new UnaryOperation<Integer, Double>() {
@@ -451,8 +908,7 @@ class ConstantizationInterpreter extends Interpreter<ConstantizationValue<?>> {
             case Opcodes.GETFIELD -> null;
 
             // array creation
-            // TODO: support arrays
-            case Opcodes.NEWARRAY, Opcodes.ANEWARRAY -> null;
+            case Opcodes.NEWARRAY, Opcodes.ANEWARRAY -> newUnknownArray();
 
             // reference type casting
             // TODO: determine actual typing at compile time if possible
@@ -469,6 +925,26 @@ class ConstantizationInterpreter extends Interpreter<ConstantizationValue<?>> {
 
         trackBasicBlock(insn);
 
+        return withinBudget(computeBinaryOperation(insn, value1, value2), value1, value2);
+    }
+
+    /*
+     * Conversions of values only known by their range keep the range instead of going through the generic operations,
+     * which enumerate possible values. Conversions to floats and doubles, which have no ranges, give unknown values.
+     */
+    private static IntInterval l2i(LongInterval range) {
+        if (range.min() < Integer.MIN_VALUE || range.max() > Integer.MAX_VALUE) {
+            // NOTE: the high bits are dropped, so any int may come out
+            return IntInterval.FULL;
+        }
+
+        return IntInterval.of((int) range.min(), (int) range.max());
+    }
+
+    private ConstantizationValue<?> computeBinaryOperation(AbstractInsnNode insn,
+                                                           ConstantizationValue<?> value1,
+                                                           ConstantizationValue<?> value2) throws AnalyzerException {
+
         return switch (insn.getOpcode()) {
             // void results
             case Opcodes.IF_ICMPEQ,
@@ -482,213 +958,272 @@ class ConstantizationInterpreter extends Interpreter<ConstantizationValue<?>> {
                     Opcodes.PUTFIELD -> null; // TODO: support mutable objects
 
             // array operations
-            // TODO: support array access
-            case Opcodes.AALOAD,
-                    Opcodes.BALOAD,
+            case Opcodes.AALOAD -> newUnknownValue(Type.getObjectType("java/lang/Object"));
+            case Opcodes.BALOAD,
                     Opcodes.CALOAD,
-                    Opcodes.FALOAD,
                     Opcodes.IALOAD,
-                    Opcodes.SALOAD -> null;
-            case Opcodes.LALOAD,
-                    Opcodes.DALOAD -> null;
+                    Opcodes.SALOAD -> newUnknownValue(Type.INT_TYPE);
+            case Opcodes.FALOAD -> newUnknownValue(Type.FLOAT_TYPE);
+            case Opcodes.LALOAD -> newUnknownValue(Type.LONG_TYPE);
+            case Opcodes.DALOAD -> newUnknownValue(Type.DOUBLE_TYPE);
 
             // integer arithmetics
-            case Opcodes.IADD -> new IntegerValue(new BinaryOperation<Integer, Integer, Integer>() {
+            case Opcodes.IADD -> new IntegerValue(new IntBinaryOperation() {
                 @Override
-                public Unknowable<Integer> apply(Integer v1, Integer v2) {
-                    return Unknowable.of(v1 + v2);
+                public int applyAsInt(int v1, int v2) {
+                    return v1 + v2;
+                }
+
+                @Override
+                public IntInterval applyRange(IntInterval v1, IntInterval v2) {
+                    return v1.add(v2);
                 }
             }, value1, value2);
-            case Opcodes.ISUB -> new IntegerValue(new BinaryOperation<Integer, Integer, Integer>() {
+            case Opcodes.ISUB -> new IntegerValue(new IntBinaryOperation() {
+                @Override
+                public int applyAsInt(int v1, int v2) {
+                    return v1 - v2;
+                }
+
                 @Override
-                public Unknowable<Integer> apply(Integer v1, Integer v2) {
-                    return Unknowable.of(v1 - v2);
+                public IntInterval applyRange(IntInterval v1, IntInterval v2) {
+                    return v1.sub(v2);
                 }
             }, value1, value2);
-            case Opcodes.IMUL -> new IntegerValue(new BinaryOperation<Integer, Integer, Integer>() {
+            case Opcodes.IMUL -> new IntegerValue(new IntBinaryOperation() {
                 @Override
-                public Unknowable<Integer> apply(Integer v1, Integer v2) {
-                    return Unknowable.of(v1 * v2);
+                public int applyAsInt(int v1, int v2) {
+                    return v1 * v2;
+                }
+
+                @Override
+                public IntInterval applyRange(IntInterval v1, IntInterval v2) {
+                    return v1.mul(v2);
                 }
             }, value1, value2);
-            case Opcodes.IDIV -> new IntegerValue(new BinaryOperation<Integer, Integer, Integer>() {
+            case Opcodes.IDIV -> new IntegerValue(new IntBinaryOperation() {
                 @Override
-                public Unknowable<Integer> apply(Integer v1, Integer v2) {
-                    return Unknowable.of(v1 / v2);
+                public int applyAsInt(int v1, int v2) {
+                    return v1 / v2;
                 }
             }, value1, value2);
-            case Opcodes.IREM -> new IntegerValue(new BinaryOperation<Integer, Integer, Integer>() {
+            case Opcodes.IREM -> new IntegerValue(new IntBinaryOperation() {
                 @Override
-                public Unknowable<Integer> apply(Integer v1, Integer v2) {
-                    return Unknowable.of(v1 % v2);
+                public int applyAsInt(int v1, int v2) {
+                    return v1 % v2;
                 }
             }, value1, value2);
-            case Opcodes.ISHL -> new IntegerValue(new BinaryOperation<Integer, Integer, Integer>() {
+            case Opcodes.ISHL -> new IntegerValue(new IntBinaryOperation() {
                 @Override
-                public Unknowable<Integer> apply(Integer v1, Integer v2) {
-                    return Unknowable.of(v1 << v2);
+                public int applyAsInt(int v1, int v2) {
+                    return v1 << v2;
+                }
+
+                @Override
+                public IntInterval applyRange(IntInterval v1, IntInterval v2) {
+                    return v1.shl(v2);
                 }
             }, value1, value2);
-            case Opcodes.ISHR -> new IntegerValue(new BinaryOperation<Integer, Integer, Integer>() {
+            case Opcodes.ISHR -> new IntegerValue(new IntBinaryOperation() {
+                @Override
+                public int applyAsInt(int v1, int v2) {
+                    return v1 >> v2;
+                }
+
                 @Override
-                public Unknowable<Integer> apply(Integer v1, Integer v2) {
-                    return Unknowable.of(v1 >> v2);
+                public IntInterval applyRange(IntInterval v1, IntInterval v2) {
+                    return v1.shr(v2);
                 }
             }, value1, value2);
-            case Opcodes.IUSHR -> new IntegerValue(new BinaryOperation<Integer, Integer, Integer>() {
+            case Opcodes.IUSHR -> new IntegerValue(new IntBinaryOperation() {
                 @Override
-                public Unknowable<Integer> apply(Integer v1, Integer v2) {
-                    return Unknowable.of(v1 >>> v2);
+                public int applyAsInt(int v1, int v2) {
+                    return v1 >>> v2;
+                }
+
+                @Override
+                public IntInterval applyRange(IntInterval v1, IntInterval v2) {
+                    return v1.ushr(v2);
                 }
             }, value1, value2);
-            case Opcodes.IAND -> new IntegerValue(new BinaryOperation<Integer, Integer, Integer>() {
+            case Opcodes.IAND -> new IntegerValue(new IntBinaryOperation() {
                 @Override
-                public Unknowable<Integer> apply(Integer v1, Integer v2) {
-                    return Unknowable.of(v1 & v2);
+                public int applyAsInt(int v1, int v2) {
+                    return v1 & v2;
                 }
             }, value1, value2);
-            case Opcodes.IOR -> new IntegerValue(new BinaryOperation<Integer, Integer, Integer>() {
+            case Opcodes.IOR -> new IntegerValue(new IntBinaryOperation() {
                 @Override
-                public Unknowable<Integer> apply(Integer v1, Integer v2) {
-                    return Unknowable.of(v1 | v2);
+                public int applyAsInt(int v1, int v2) {
+                    return v1 | v2;
                 }
             }, value1, value2);
-            case Opcodes.IXOR -> new IntegerValue(new BinaryOperation<Integer, Integer, Integer>() {
+            case Opcodes.IXOR -> new IntegerValue(new IntBinaryOperation() {
                 @Override
-                public Unknowable<Integer> apply(Integer v1, Integer v2) {
-                    return Unknowable.of(v1 ^ v2);
+                public int applyAsInt(int v1, int v2) {
+                    return v1 ^ v2;
                 }
             }, value1, value2);
 
             // float arithmetics
-            case Opcodes.FADD -> new FloatValue(new BinaryOperation<Float, Float, Float>() {
+            case Opcodes.FADD -> new FloatValue(new FloatBinaryOperation() {
                 @Override
-                public Unknowable<Float> apply(Float v1, Float v2) {
-                    return Unknowable.of(v1 + v2);
+                public float applyAsFloat(float v1, float v2) {
+                    return v1 + v2;
                 }
             }, value1, value2);
-            case Opcodes.FSUB -> new FloatValue(new BinaryOperation<Float, Float, Float>() {
+            case Opcodes.FSUB -> new FloatValue(new FloatBinaryOperation() {
                 @Override
-                public Unknowable<Float> apply(Float v1, Float v2) {
-                    return Unknowable.of(v1 - v2);
+                public float applyAsFloat(float v1, float v2) {
+                    return v1 - v2;
                 }
             }, value1, value2);
-            case Opcodes.FMUL -> new FloatValue(new BinaryOperation<Float, Float, Float>() {
+            case Opcodes.FMUL -> new FloatValue(new FloatBinaryOperation() {
                 @Override
-                public Unknowable<Float> apply(Float v1, Float v2) {
-                    return Unknowable.of(v1 * v2);
+                public float applyAsFloat(float v1, float v2) {
+                    return v1 * v2;
                 }
             }, value1, value2);
-            case Opcodes.FDIV -> new FloatValue(new BinaryOperation<Float, Float, Float>() {
+            case Opcodes.FDIV -> new FloatValue(new FloatBinaryOperation() {
                 @Override
-                public Unknowable<Float> apply(Float v1, Float v2) {
-                    return Unknowable.of(v1 / v2);
+                public float applyAsFloat(float v1, float v2) {
+                    return v1 / v2;
                 }
             }, value1, value2);
-            case Opcodes.FREM -> new FloatValue(new BinaryOperation<Float, Float, Float>() {
+            case Opcodes.FREM -> new FloatValue(new FloatBinaryOperation() {
                 @Override
-                public Unknowable<Float> apply(Float v1, Float v2) {
-                    return Unknowable.of(v1 % v2);
+                public float applyAsFloat(float v1, float v2) {
+                    return v1 % v2;
                 }
             }, value1, value2);
 
             // long arithmetics
-            case Opcodes.LADD -> new LongValue(new BinaryOperation<Long, Long, Long>() {
+            case Opcodes.LADD -> new LongValue(new LongBinaryOperation() {
                 @Override
-                public Unknowable<Long> apply(Long v1, Long v2) {
-                    return Unknowable.of(v1 + v2);
+                public long applyAsLong(long v1, long v2) {
+                    return v1 + v2;
+                }
+
+                @Override
+                public LongInterval applyRange(LongInterval v1, LongInterval v2) {
+                    return v1.add(v2);
                 }
             }, value1, value2);
-            case Opcodes.LSUB -> new LongValue(new BinaryOperation<Long, Long, Long>() {
+            case Opcodes.LSUB -> new LongValue(new LongBinaryOperation() {
+                @Override
+                public long applyAsLong(long v1, long v2) {
+                    return v1 - v2;
+                }
+
                 @Override
-                public Unknowable<Long> apply(Long v1, Long v2) {
-                    return Unknowable.of(v1 - v2);
+                public LongInterval applyRange(LongInterval v1, LongInterval v2) {
+                    return v1.sub(v2);
                 }
             }, value1, value2);
-            case Opcodes.LMUL -> new LongValue(new BinaryOperation<Long, Long, Long>() {
+            case Opcodes.LMUL -> new LongValue(new LongBinaryOperation() {
                 @Override
-                public Unknowable<Long> apply(Long v1, Long v2) {
-                    return Unknowable.of(v1 * v2);
+                public long applyAsLong(long v1, long v2) {
+                    return v1 * v2;
+                }
+
+                @Override
+                public LongInterval applyRange(LongInterval v1, LongInterval v2) {
+                    return v1.mul(v2);
                 }
             }, value1, value2);
-            case Opcodes.LDIV -> new LongValue(new BinaryOperation<Long, Long, Long>() {
+            case Opcodes.LDIV -> new LongValue(new LongBinaryOperation() {
                 @Override
-                public Unknowable<Long> apply(Long v1, Long v2) {
-                    return Unknowable.of(v1 / v2);
+                public long applyAsLong(long v1, long v2) {
+                    return v1 / v2;
                 }
             }, value1, value2);
-            case Opcodes.LREM -> new LongValue(new BinaryOperation<Long, Long, Long>() {
+            case Opcodes.LREM -> new LongValue(new LongBinaryOperation() {
                 @Override
-                public Unknowable<Long> apply(Long v1, Long v2) {
-                    return Unknowable.of(v1 % v2);
+                public long applyAsLong(long v1, long v2) {
+                    return v1 % v2;
                 }
             }, value1, value2);
-            case Opcodes.LSHL -> new LongValue(new BinaryOperation<Long, Long, Long>() {
+            case Opcodes.LSHL -> new LongValue(new LongBinaryOperation() {
                 @Override
-                public Unknowable<Long> apply(Long v1, Long v2) {
-                    return Unknowable.of(v1 << v2);
+                public long applyAsLong(long v1, long v2) {
+                    return v1 << v2;
+                }
+
+                @Override
+                public LongInterval applyRange(LongInterval v1, LongInterval v2) {
+                    return v1.shl(v2);
                 }
             }, value1, value2);
-            case Opcodes.LSHR -> new LongValue(new BinaryOperation<Long, Long, Long>() {
+            case Opcodes.LSHR -> new LongValue(new LongBinaryOperation() {
+                @Override
+                public long applyAsLong(long v1, long v2) {
+                    return v1 >> v2;
+                }
+
                 @Override
-                public Unknowable<Long> apply(Long v1, Long v2) {
-                    return Unknowable.of(v1 >> v2);
+                public LongInterval applyRange(LongInterval v1, LongInterval v2) {
+                    return v1.shr(v2);
                 }
             }, value1, value2);
-            case Opcodes.LUSHR -> new LongValue(new BinaryOperation<Long, Long, Long>() {
+            case Opcodes.LUSHR -> new LongValue(new LongBinaryOperation() {
                 @Override
-                public Unknowable<Long> apply(Long v1, Long v2) {
-                    return Unknowable.of(v1 >>> v2);
+                public long applyAsLong(long v1, long v2) {
+                    return v1 >>> v2;
+                }
+
+                @Override
+                public LongInterval applyRange(LongInterval v1, LongInterval v2) {
+                    return v1.ushr(v2);
                 }
             }, value1, value2);
-            case Opcodes.LAND -> new LongValue(new BinaryOperation<Long, Long, Long>() {
+            case Opcodes.LAND -> new LongValue(new LongBinaryOperation() {
                 @Override
-                public Unknowable<Long> apply(Long v1, Long v2) {
-                    return Unknowable.of(v1 & v2);
+                public long applyAsLong(long v1, long v2) {
+                    return v1 & v2;
                 }
             }, value1, value2);
-            case Opcodes.LOR -> new LongValue(new BinaryOperation<Long, Long, Long>() {
+            case Opcodes.LOR -> new LongValue(new LongBinaryOperation() {
                 @Override
-                public Unknowable<Long> apply(Long v1, Long v2) {
-                    return Unknowable.of(v1 | v2);
+                public long applyAsLong(long v1, long v2) {
+                    return v1 | v2;
                 }
             }, value1, value2);
-            case Opcodes.LXOR -> new LongValue(new BinaryOperation<Long, Long, Long>() {
+            case Opcodes.LXOR -> new LongValue(new LongBinaryOperation() {
                 @Override
-                public Unknowable<Long> apply(Long v1, Long v2) {
-                    return Unknowable.of(v1 ^ v2);
+                public long applyAsLong(long v1, long v2) {
+                    return v1 ^ v2;
                 }
             }, value1, value2);
 
             // double arithmetics
-            case Opcodes.DADD -> new DoubleValue(new BinaryOperation<Double, Double, Double>() {
+            case Opcodes.DADD -> new DoubleValue(new DoubleBinaryOperation() {
                 @Override
-                public Unknowable<Double> apply(Double v1, Double v2) {
-                    return Unknowable.of(v1 + v2);
+                public double applyAsDouble(double v1, double v2) {
+                    return v1 + v2;
                 }
             }, value1, value2);
-            case Opcodes.DSUB -> new DoubleValue(new BinaryOperation<Double, Double, Double>() {
+            case Opcodes.DSUB -> new DoubleValue(new DoubleBinaryOperation() {
                 @Override
-                public Unknowable<Double> apply(Double v1, Double v2) {
-                    return Unknowable.of(v1 - v2);
+                public double applyAsDouble(double v1, double v2) {
+                    return v1 - v2;
                 }
             }, value1, value2);
-            case Opcodes.DMUL -> new DoubleValue(new BinaryOperation<Double, Double, Double>() {
+            case Opcodes.DMUL -> new DoubleValue(new DoubleBinaryOperation() {
                 @Override
-                public Unknowable<Double> apply(Double v1, Double v2) {
-                    return Unknowable.of(v1 * v2);
+                public double applyAsDouble(double v1, double v2) {
+                    return v1 * v2;
                 }
             }, value1, value2);
-            case Opcodes.DDIV -> new DoubleValue(new BinaryOperation<Double, Double, Double>() {
+            case Opcodes.DDIV -> new DoubleValue(new DoubleBinaryOperation() {
                 @Override
-                public Unknowable<Double> apply(Double v1, Double v2) {
-                    return Unknowable.of(v1 / v2);
+                public double applyAsDouble(double v1, double v2) {
+                    return v1 / v2;
                 }
             }, value1, value2);
-            case Opcodes.DREM -> new DoubleValue(new BinaryOperation<Double, Double, Double>() {
+            case Opcodes.DREM -> new DoubleValue(new DoubleBinaryOperation() {
                 @Override
-                public Unknowable<Double> apply(Double v1, Double v2) {
-                    return Unknowable.of(v1 % v2);
+                public double applyAsDouble(double v1, double v2) {
+                    return v1 % v2;
                 }
             }, value1, value2);
 
@@ -698,7 +1233,7 @@ class ConstantizationInterpreter extends Interpreter<ConstantizationValue<?>> {
                 public Unknowable<Integer> apply(Long v1, Long v2) {
                     return Unknowable.of(Long.compare(v1, v2));
                 }
-            });
+            }, value1, value2);
             case Opcodes.FCMPL -> new IntegerValue(new BinaryOperation<Float, Float, Integer>() {
                 @Override
                 public Unknowable<Integer> apply(Float v1, Float v2) {
@@ -707,7 +1242,7 @@ class ConstantizationInterpreter extends Interpreter<ConstantizationValue<?>> {
                                     ? -1
                                     : Float.compare(v1, v2));
                 }
-            });
+            }, value1, value2);
             case Opcodes.FCMPG -> new IntegerValue(new BinaryOperation<Float, Float, Integer>() {
                 @Override
                 public Unknowable<Integer> apply(Float v1, Float v2) {
@@ -716,7 +1251,7 @@ class ConstantizationInterpreter extends Interpreter<ConstantizationValue<?>> {
                                     ? 1
                                     : Float.compare(v1, v2));
                 }
-            });
+            }, value1, value2);
             case Opcodes.DCMPL -> new IntegerValue(new BinaryOperation<Double, Double, Integer>() {
                 @Override
                 public Unknowable<Integer> apply(Double v1, Double v2) {
@@ -725,7 +1260,7 @@ class ConstantizationInterpreter extends Interpreter<ConstantizationValue<?>> {
                                     ? -1
                                     : Double.compare(v1, v2));
                 }
-            });
+            }, value1, value2);
             case Opcodes.DCMPG -> new IntegerValue(new BinaryOperation<Double, Double, Integer>() {
                 @Override
                 public Unknowable<Integer> apply(Double v1, Double v2) {
@@ -734,7 +1269,7 @@ class ConstantizationInterpreter extends Interpreter<ConstantizationValue<?>> {
                                     ? 1
                                     : Double.compare(v1, v2));
                 }
-            });
+            }, value1, value2);
 
             default -> throw new AnalyzerException(insn, "Illegal opcode: " + insn.getOpcode());
         };
@@ -758,7 +1293,247 @@ class ConstantizationInterpreter extends Interpreter<ConstantizationValue<?>> {
     public ConstantizationValue<?> naryOperation(AbstractInsnNode insn, List<? extends ConstantizationValue<?>> values) throws AnalyzerException {
         trackBasicBlock(insn);
 
-        return null;
+        // TODO: support INVOKEDYNAMIC and MULTIANEWARRAY
+        if (!(insn instanceof MethodInsnNode min)) {
+            return null;
+        }
+
+        return withinBudget(invoke(min, values));
+    }
+
+    /*
+     * Static and private methods cannot be overridden, so the method called is known and its summary stands for the
+     * call. Any other call returns an unknown value.
+     */
+    private ConstantizationValue<?> invoke(MethodInsnNode insn, List<? extends ConstantizationValue<?>> arguments) {
+        Type returnType = Type.getReturnType(insn.desc);
+        if (returnType == Type.VOID_TYPE) {
+            return null;
+        }
+
+        if (returnType.getSort() == Type.ARRAY) {
+            return newUnknownArray();
+        }
+
+        Type valueType = computationalType(returnType);
+        if (summaries == null || arguments.stream().anyMatch(Objects::isNull)) {
+            return newUnknownValue(valueType);
+        }
+
+        // NOTE: recorded before the lookup, since a method that cannot be found yet may well be after a change
+        if (insn.getOpcode() == Opcodes.INVOKESTATIC) {
+            dependencies.add(DependencyGraph.Dependency.onMethod(insn.owner, insn.name, insn.desc));
+        }
+
+        MethodNode callee;
+        try {
+            callee = classPool.methodForName(insn.owner, insn.name, insn.desc);
+        } catch (ClassNotFoundException | MethodNotFoundException e) {
+            return newUnknownValue(valueType);
+        }
+
+        if (insn.getOpcode() != Opcodes.INVOKESTATIC) {
+            if ((callee.access & Opcodes.ACC_PRIVATE) == 0 || insn.name.equals("<init>")) {
+                return newUnknownValue(valueType);
+            }
+
+            dependencies.add(DependencyGraph.Dependency.onMethod(insn.owner, insn.name, insn.desc));
+        }
+
+        MethodSummaries.Key key = MethodSummaries.key(insn.owner, insn.name, insn.desc, arguments);
+        MethodSummaries.Summary summary = summaries.get(key);
+        if (summary == null) {
+            if (callers.contains(key) || callers.size() >= MethodSummaries.MAX_CALL_DEPTH) {
+                // NOTE: the summary of a recursive call is the one being computed, so none of the summaries resting on
+                // this unknown value are stored
+                partialSummary = true;
+                return newUnknownValue(valueType);
+            }
+
+            summary = summarize(key, callee, arguments);
+            if (!summary.provisional()) {
+                summary = summaries.put(key, summary);
+            }
+        }
+
+        if (summary.provisional()) {
+            partialSummary = true;
+        }
+        dependencies.addAll(summary.dependencies());
+
+        // NOTE: the identity of a mutable reference only means something within the callee
+        ConstantizationValue<?> returnValue = summary.returnValue();
+        return returnValue instanceof MutableReferenceTypeValue<?> ? newUnknownValue(valueType) : returnValue;
+    }
+
+    /**
+     * @return arguments without known possible values for each parameter of the method, the receiver first
+     * @throws UnsupportedOperationException if a parameter is an array
+     */
+    List<ConstantizationValue<?>> unknownArguments(String owner, MethodNode method) {
+        List<ConstantizationValue<?>> arguments = new ArrayList<>();
+        if ((method.access & Opcodes.ACC_STATIC) == 0) {
+            arguments.add(newUnknownValue(Type.getObjectType(owner)));
+        }
+        for (Type type : Type.getArgumentTypes(method.desc)) {
+            arguments.add(newUnknownValue(computationalType(type)));
+        }
+
+        return arguments;
+    }
+
+    /**
+     * Analyzes the callee with the arguments to summarize what it returns. The summary is not stored.
+     */
+    MethodSummaries.Summary summarize(MethodSummaries.Key key,
+                                      MethodNode callee,
+                                      List<? extends ConstantizationValue<?>> arguments) {
+        Type valueType = computationalType(Type.getReturnType(callee.desc));
+        ConstantizationInterpreter interpreter = new ConstantizationInterpreter(classPool, valueFactory);
+        interpreter.setMethodSummaries(summaries);
+        interpreter.setStaticInitializers(staticInitializers);
+        interpreter.setBudget(budget);
+        interpreter.setCancellationToken(cancellation);
+        interpreter.initializing = initializing;
+
+        List<MethodSummaries.Key> calls = new ArrayList<>(callers);
+        calls.add(key);
+        interpreter.callers = List.copyOf(calls);
+
+        int locals = arguments.stream().mapToInt(ConstantizationValue::getSize).sum();
+        interpreter.parameterValues = new ConstantizationValue<?>[locals];
+        for (int i = 0, local = 0; i < arguments.size(); local += arguments.get(i).getSize(), i++) {
+            if (!key.arguments().get(i).isUnknown()) {
+                interpreter.parameterValues[local] = arguments.get(i);
+            }
+        }
+
+        // NOTE: the callee gets an arena of its own, which must not replace the one of this method
+        ReferenceIdArena arena = ReferenceIdArena.current();
+        ConstantizationValue<?> returnValue = null;
+        try {
+            Frame<ConstantizationValue<?>>[] frames =
+                    new ConstantizationAnalyzer(interpreter).analyze(key.owner(), callee);
+            returnValue = interpreter.returnValue(callee, frames);
+        } catch (CancellationException e) {
+            throw e;
+        } catch (AnalyzerException | RuntimeException e) {
+            // as with a method failing at the top level, nothing is known about the callee
+        } finally {
+            ReferenceIdArena.restore(arena);
+        }
+
+        return new MethodSummaries.Summary(
+                returnValue != null ? returnValue : newUnknownValue(valueType),
+                Set.copyOf(interpreter.getDependencies()),
+                interpreter.partialSummary);
+    }
+
+    /**
+     * A static final field without a <code>ConstantValue</code> attribute holds whatever the static initializer of
+     * its class assigned to it. Any other static field may be assigned by any method at any time, so its value is
+     * unknown.
+     */
+    ConstantizationValue<?> staticFieldValue(String owner, String name, String descriptor) {
+        Type valueType = computationalType(Type.getType(descriptor));
+        // NOTE: the elements of an array may be assigned by any method at any time, even if the field is final
+        if (valueType.getSort() == Type.ARRAY) {
+            return newUnknownArray();
+        }
+
+        // NOTE: recorded before the lookup, since a field that cannot be found yet may well be after a change
+        dependencies.add(DependencyGraph.Dependency.onField(owner, name));
+
+        FieldNode field;
+        try {
+            field = classPool.fieldForName(owner, name);
+        } catch (ClassNotFoundException | FieldNotFoundException e) {
+            return newUnknownValue(valueType);
+        }
+
+        if ((field.access & Opcodes.ACC_STATIC) == 0 || (field.access & Opcodes.ACC_FINAL) == 0) {
+            return newUnknownValue(valueType);
+        }
+
+        if (field.value != null) {
+            return valueFactory.createValue(valueType.getDescriptor(), field.value);
+        }
+
+        if (staticInitializers == null || initializing.contains(owner)) {
+            return newUnknownValue(valueType);
+        }
+
+        StaticInitializers.Initialization initialization = staticInitializers.get(owner);
+        if (initialization == null) {
+            initialization = staticInitializers.put(owner, initialize(owner));
+        }
+        dependencies.addAll(initialization.dependencies());
+
+        // NOTE: the identity of a mutable reference only means something within the static initializer
+        ConstantizationValue<?> value = initialization.fieldValues().get(name);
+        return value == null || value instanceof MutableReferenceTypeValue<?> ? newUnknownValue(valueType) : value;
+    }
+
+    /**
+     * Analyzes the static initializer of the class to collect the values it assigns to the static fields of the
+     * class. The result is not stored.
+     */
+    private StaticInitializers.Initialization initialize(String owner) {
+        dependencies.add(DependencyGraph.Dependency.onMethod(owner, "<clinit>", "()V"));
+
+        MethodNode clinit;
+        try {
+            clinit = classPool.methodForName(owner, "<clinit>", "()V");
+        } catch (ClassNotFoundException | MethodNotFoundException e) {
+            return new StaticInitializers.Initialization(Map.of(), Set.of());
+        }
+
+        ConstantizationInterpreter interpreter = new ConstantizationInterpreter(classPool, valueFactory);
+        // NOTE: the values are shared by all readers, so they are computed with the summaries of the cache, not with
+        // those of whichever reader comes first
+        interpreter.setMethodSummaries(staticInitializers.getMethodSummaries());
+        interpreter.setStaticInitializers(staticInitializers);
+        interpreter.setBudget(budget);
+        interpreter.setCancellationToken(cancellation);
+
+        List<String> classes = new ArrayList<>(initializing);
+        classes.add(owner);
+        interpreter.initializing = List.copyOf(classes);
+        interpreter.staticStores = new HashMap<>();
+
+        // NOTE: the static initializer gets an arena of its own, which must not replace the one of this method
+        ReferenceIdArena arena = ReferenceIdArena.current();
+        Map<String, ConstantizationValue<?>> fieldValues = Map.of();
+        try {
+            new ConstantizationAnalyzer(interpreter).analyze(owner, clinit);
+            fieldValues = Map.copyOf(interpreter.staticStores);
+        } catch (CancellationException e) {
+            throw e;
+        } catch (AnalyzerException | RuntimeException e) {
+            // as with a method failing at the top level, nothing is known about the fields
+        } finally {
+            ReferenceIdArena.restore(arena);
+        }
+
+        return new StaticInitializers.Initialization(fieldValues, Set.copyOf(interpreter.getDependencies()));
+    }
+
+    /**
+     * @return all values the method may return, or <code>null</code> if it never returns
+     */
+    private ConstantizationValue<?> returnValue(MethodNode method, Frame<ConstantizationValue<?>>[] frames) {
+        ConstantizationValue<?> returnValue = null;
+        for (int i = 0; i < frames.length; i++) {
+            int opcode = method.instructions.get(i).getOpcode();
+            if (frames[i] == null || opcode < Opcodes.IRETURN || opcode > Opcodes.ARETURN) {
+                continue;
+            }
+
+            ConstantizationValue<?> value = frames[i].getStack(frames[i].getStackSize() - 1);
+            returnValue = returnValue == null ? value : merge(returnValue, value);
+        }
+
+        return returnValue;
     }
 
     @Override
@@ -770,6 +1545,10 @@ class ConstantizationInterpreter extends Interpreter<ConstantizationValue<?>> {
 
     @Override
     public ConstantizationValue<?> merge(ConstantizationValue<?> value1, ConstantizationValue<?> value2) {
+        if (cancellation != null) {
+            cancellation.throwIfCancelled();
+        }
+
         // TODO: better way to handle unchecked casts?
 
         @SuppressWarnings("unchecked")
@@ -777,6 +1556,74 @@ class ConstantizationInterpreter extends Interpreter<ConstantizationValue<?>> {
         @SuppressWarnings("unchecked")
         ConstantizationValue<Object> v2 = (ConstantizationValue<Object>) value2;
 
-        return v1.merge(v2);
+        // NOTE: returning the existing instance lets Frame#merge tell by identity that nothing changed
+        if (v1.covers(v2)) {
+            return v1;
+        }
+
+        return merged(value1, value2, v1.merge(v2), false);
+    }
+
+    /**
+     * Merges two values at a loop header, see {@link #isLoopHeader(int)}. Ints and longs widen towards the constants
+     * of the method before giving up on a bound, so a loop stabilizes within a few passes instead of walking up one
+     * value per pass. Branches do not narrow values, though: the counter of a loop like <code>while (i < 10)</code>
+     * is incremented past 10 on the way back to the header, so its upper bound still ends up at the type bound.
+     */
+    public ConstantizationValue<?> widen(ConstantizationValue<?> value1, ConstantizationValue<?> value2) {
+        if (cancellation != null) {
+            cancellation.throwIfCancelled();
+        }
+
+        @SuppressWarnings("unchecked")
+        ConstantizationValue<Object> v1 = (ConstantizationValue<Object>) value1;
+        @SuppressWarnings("unchecked")
+        ConstantizationValue<Object> v2 = (ConstantizationValue<Object>) value2;
+
+        if (v1.covers(v2)) {
+            return v1;
+        }
+
+        ConstantizationValue<?> result;
+        if (value1 instanceof IntegerValue i1 && value2 instanceof IntegerValue i2) {
+            result = i1.widen(i2, intThresholds);
+        } else if (value1 instanceof LongValue l1 && value2 instanceof LongValue l2) {
+            result = l1.widen(l2, longThresholds);
+        } else {
+            result = v1.widen(v2);
+        }
+
+        return merged(value1, value2, result, true);
+    }
+
+    private ConstantizationValue<?> merged(ConstantizationValue<?> value1,
+                                           ConstantizationValue<?> value2,
+                                           ConstantizationValue<?> result,
+                                           boolean widened) {
+        mergeCount++;
+
+        // NOTE: an unknown value covers any other, so once a method is out of budget its frames stabilize at unknown
+        // values instead of at whatever the values computed so far happened to be
+        result = withinBudget(result);
+
+        // NOTE: merging has just evaluated both inputs, and the frame will evaluate the result, so this costs little
+        boolean degraded = result.isDegraded() && !value1.isDegraded() && !value2.isDegraded();
+        if (degraded) {
+            degradedCount++;
+            if (result instanceof ReferenceTypeValue<?>) {
+                AnalysisMetrics.UNION_SET_LIMIT_DEGRADATIONS.increment();
+            } else {
+                AnalysisMetrics.EXPAND_LIMIT_DEGRADATIONS.increment();
+            }
+        }
+
+        if (listener != null) {
+            listener.merged(value1, value2, result, widened);
+            if (degraded) {
+                listener.valueDegraded(result);
+            }
+        }
+
+        return result;
     }
 }
@@ -0,0 +1,87 @@
+package org.openjdk.leyden.constprop.analysis;
+
+import org.objectweb.asm.tree.MethodNode;
+import org.openjdk.leyden.constprop.values.ConstantizationValue;
+
+import java.io.PrintStream;
+
+/**
+ * Receives events while a method is analyzed, e.g., to trace the analysis of a method being debugged. All methods do
+ * nothing by default.
+ * <p>
+ * Events are delivered on the thread analyzing the method. Without a listener, no event is created at all, so
+ * listeners should only be attached when needed.
+ */
+public interface ConstantizationListener {
+
+    default void methodStarted(String owner, MethodNode method) {
+    }
+
+    default void methodFinished(String owner, MethodNode method) {
+    }
+
+    /**
+     * @param block the basic block entered
+     * @param index the index of the first instruction interpreted in the block
+     * @param line  the source line of that instruction, or -1 if unknown
+     */
+    default void blockEntered(int block, int index, int line) {
+    }
+
+    /**
+     * @param widened whether the values were merged at a loop header, and so widened
+     */
+    default void merged(ConstantizationValue<?> value1,
+                        ConstantizationValue<?> value2,
+                        ConstantizationValue<?> result,
+                        boolean widened) {
+    }
+
+    /**
+     * Called when merging two values with known possible values gives up on tracking them individually.
+     */
+    default void valueDegraded(ConstantizationValue<?> value) {
+    }
+
+    /**
+     * Called once per method when it exceeds a limit of its {@link AnalysisBudget}, after which values depending on
+     * the limit are unknown.
+     */
+    default void budgetExceeded(AnalysisBudget.Limit limit) {
+    }
+
+    /**
+     * @return a listener printing every instruction of each method, and every block and degraded value while analyzing
+     */
+    static ConstantizationListener trace(PrintStream out) {
+        return new ConstantizationListener() {
+            @Override
+            public void methodStarted(String owner, MethodNode method) {
+                out.printf("==== %s.%s%s ====\n", owner, method.name, method.desc);
+                for (int i = 0; i < method.instructions.size(); i++) {
+                    out.printf("inst #%d: %s\n", i, method.instructions.get(i));
+                }
+            }
+
+            @Override
+            public void methodFinished(String owner, MethodNode method) {
+                out.printf("==== end of %s.%s%s ====\n", owner, method.name, method.desc);
+            }
+
+            @Override
+            public void blockEntered(int block, int index, int line) {
+                out.printf("inst #%d, line #%d, blk #%d\n", index, line, block);
+            }
+
+            @Override
+            public void valueDegraded(ConstantizationValue<?> value) {
+                out.printf("degraded: %s\n", value.getDescriptor());
+            }
+
+            @Override
+            public void budgetExceeded(AnalysisBudget.Limit limit) {
+                out.printf("budget exceeded: %s\n", limit);
+            }
+        };
+    }
+}
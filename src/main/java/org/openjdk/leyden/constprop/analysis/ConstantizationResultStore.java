@@ -0,0 +1,325 @@
+package org.openjdk.leyden.constprop.analysis;
+
+import org.openjdk.leyden.constprop.operations.NewOperation;
+import org.openjdk.leyden.constprop.util.IntInterval;
+import org.openjdk.leyden.constprop.util.LongInterval;
+import org.openjdk.leyden.constprop.values.AbstractConstantizationValueFactory;
+import org.openjdk.leyden.constprop.values.ConstantizationValue;
+import org.openjdk.leyden.constprop.values.IntegerValue;
+import org.openjdk.leyden.constprop.values.LongValue;
+import org.openjdk.leyden.constprop.values.MutableReferenceTypeValue;
+import org.openjdk.leyden.constprop.values.ObjectValue;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.constant.ClassDesc;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * A directory of analysis results that survives across runs, so classes that have not changed since an earlier run
+ * are not analyzed again.
+ * <p>
+ * Results are stored per class, under a key hashing the class bytes, the targets registered for its methods and a
+ * configuration string. The configuration must identify everything else the results depend on, e.g., the analyzer
+ * version and, since constant fields of other classes are resolved through the class pool, the classpath. Results
+ * depending on other classes are not identified by the key, so {@link ConstantizationDriver} never stores them. Only
+ * the possible values of each target are stored, not how they were computed. Values that cannot be written this way,
+ * such as mutable references, make the whole class uncacheable.
+ * <p>
+ * Each entry is written to a temporary file and then atomically renamed into place, so parallel workers, in the same
+ * or in different processes, never see a partial entry. Writers racing on the same key store equal results, so the
+ * last rename winning is harmless. An unreadable entry is treated as missing.
+ */
+public final class ConstantizationResultStore {
+    private static final int MAGIC = 0x43505253; // "CPRS"
+    private static final int VERSION = 1;
+
+    private static final byte UNINITIALIZED = 0;
+    private static final byte VALUES = 1;
+    private static final byte INT_RANGE = 2;
+    private static final byte LONG_RANGE = 3;
+
+    private static final byte NULL = 0;
+    private static final byte INT = 1;
+    private static final byte LONG = 2;
+    private static final byte FLOAT = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte STRING = 5;
+    private static final byte CLASS = 6;
+
+    /**
+     * The results of one class.
+     *
+     * @param analyzedMethodCount the number of methods analyzed in the class
+     * @param values              the value of each target, in registration order, keyed by method name + descriptor
+     */
+    public record ClassResults(int analyzedMethodCount, Map<String, List<ConstantizationValue<?>>> values) {
+    }
+
+    private final Path directory;
+    private final String configuration;
+
+    /**
+     * @param configuration identifies the analyzer and everything outside a class its results depend on
+     */
+    public ConstantizationResultStore(Path directory, String configuration) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.configuration = configuration;
+    }
+
+    /**
+     * @param bytes   the class file
+     * @param targets a string identifying the targets registered for the methods of the class
+     * @return the key of the class in this store
+     */
+    public String key(byte[] bytes, String targets) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // NOTE: every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+
+        // NOTE: length-prefixed, so that no two different inputs hash the same concatenation
+        for (byte[] part : new byte[][]{configuration.getBytes(StandardCharsets.UTF_8), bytes,
+                targets.getBytes(StandardCharsets.UTF_8)}) {
+            digest.update(new byte[]{(byte) (part.length >>> 24), (byte) (part.length >>> 16),
+                    (byte) (part.length >>> 8), (byte) part.length});
+            digest.update(part);
+        }
+
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    // NOTE: entries are spread over subdirectories, so that no single directory grows too large
+    private Path path(String key) {
+        return directory.resolve(key.substring(0, 2)).resolve(key.substring(2));
+    }
+
+    /**
+     * @param valueFactory creates the values read back
+     * @return the results stored under the key, or empty if there are none or they cannot be read
+     */
+    public Optional<ClassResults> load(String key, AbstractConstantizationValueFactory valueFactory) {
+        try (InputStream is = Files.newInputStream(path(key));
+             DataInputStream in = new DataInputStream(new BufferedInputStream(is))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return Optional.empty();
+            }
+
+            int analyzedMethodCount = in.readInt();
+            int methodCount = in.readInt();
+            Map<String, List<ConstantizationValue<?>>> values = new LinkedHashMap<>();
+            for (int i = 0; i < methodCount; i++) {
+                String method = in.readUTF();
+                int valueCount = in.readInt();
+                List<ConstantizationValue<?>> list = new ArrayList<>(valueCount);
+                for (int j = 0; j < valueCount; j++) {
+                    list.add(readValue(in, valueFactory));
+                }
+                values.put(method, list);
+            }
+
+            return Optional.of(new ClassResults(analyzedMethodCount, values));
+        } catch (IOException | RuntimeException e) {
+            // NOTE: a corrupt or foreign entry is as good as none, the class is simply analyzed again
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * @return whether the results were stored, <code>false</code> if some value cannot be written
+     */
+    public boolean save(String key, ClassResults results) throws IOException {
+        for (List<ConstantizationValue<?>> list : results.values().values()) {
+            for (ConstantizationValue<?> value : list) {
+                if (!isStorable(value)) {
+                    return false;
+                }
+            }
+        }
+
+        Path path = path(key);
+        Files.createDirectories(path.getParent());
+        Path temporary = Files.createTempFile(path.getParent(), path.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream os = Files.newOutputStream(temporary);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(results.analyzedMethodCount());
+                out.writeInt(results.values().size());
+                for (Map.Entry<String, List<ConstantizationValue<?>>> entry : results.values().entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    out.writeInt(entry.getValue().size());
+                    for (ConstantizationValue<?> value : entry.getValue()) {
+                        writeValue(out, value);
+                    }
+                }
+            }
+
+            try {
+                Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+
+        return true;
+    }
+
+    private static boolean isStorable(ConstantizationValue<?> value) {
+        if (value == null || value instanceof MutableReferenceTypeValue<?> || value instanceof ObjectValue) {
+            return false;
+        }
+
+        if (value instanceof ConstantizationValue.UninitializedValue || isRange(value)) {
+            return true;
+        }
+
+        for (Object constant : value) {
+            // NOTE: writeUTF() takes at most 65535 bytes, and a char takes at most three
+            if (constant instanceof String s && s.length() > 0xffff / 3) {
+                return false;
+            }
+
+            if (!(constant == null || constant instanceof Integer || constant instanceof Long
+                    || constant instanceof Float || constant instanceof Double || constant instanceof String
+                    || constant instanceof ClassDesc)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean isRange(ConstantizationValue<?> value) {
+        if (value instanceof IntegerValue v) {
+            return v.intValues().isEmpty() && v.intRange() != null;
+        }
+
+        if (value instanceof LongValue v) {
+            return v.longValues().isEmpty() && v.longRange() != null;
+        }
+
+        return false;
+    }
+
+    private static void writeValue(DataOutputStream out, ConstantizationValue<?> value) throws IOException {
+        if (value instanceof ConstantizationValue.UninitializedValue) {
+            out.writeByte(UNINITIALIZED);
+            return;
+        }
+
+        if (isRange(value)) {
+            if (value instanceof IntegerValue v) {
+                out.writeByte(INT_RANGE);
+                out.writeInt(v.intRange().min());
+                out.writeInt(v.intRange().max());
+            } else {
+                LongValue v = (LongValue) value;
+                out.writeByte(LONG_RANGE);
+                out.writeLong(v.longRange().min());
+                out.writeLong(v.longRange().max());
+            }
+            return;
+        }
+
+        List<Object> constants = new ArrayList<>();
+        value.forEach(constants::add);
+
+        out.writeByte(VALUES);
+        out.writeUTF(value.getDescriptor());
+        out.writeInt(constants.size());
+        for (Object constant : constants) {
+            if (constant == null) {
+                out.writeByte(NULL);
+            } else if (constant instanceof Integer i) {
+                out.writeByte(INT);
+                out.writeInt(i);
+            } else if (constant instanceof Long l) {
+                out.writeByte(LONG);
+                out.writeLong(l);
+            } else if (constant instanceof Float f) {
+                out.writeByte(FLOAT);
+                out.writeFloat(f);
+            } else if (constant instanceof Double d) {
+                out.writeByte(DOUBLE);
+                out.writeDouble(d);
+            } else if (constant instanceof String s) {
+                out.writeByte(STRING);
+                out.writeUTF(s);
+            } else {
+                out.writeByte(CLASS);
+                out.writeUTF(((ClassDesc) constant).descriptorString());
+            }
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static ConstantizationValue<?> readValue(DataInputStream in, AbstractConstantizationValueFactory factory)
+            throws IOException {
+        byte kind = in.readByte();
+        switch (kind) {
+            case UNINITIALIZED -> {
+                return ConstantizationValue.UninitializedValue.INSTANCE;
+            }
+            case INT_RANGE -> {
+                return IntegerValue.ofRange(IntInterval.of(in.readInt(), in.readInt()));
+            }
+            case LONG_RANGE -> {
+                return LongValue.ofRange(LongInterval.of(in.readLong(), in.readLong()));
+            }
+            case VALUES -> {
+                String descriptor = in.readUTF();
+                int count = in.readInt();
+                if (count == 0) {
+                    return factory.createValue(descriptor, NewOperation.unknown());
+                }
+
+                // NOTE: the values are merged back one by one, which reproduces a degraded union as well
+                ConstantizationValue value = null;
+                for (int i = 0; i < count; i++) {
+                    ConstantizationValue constant = factory.createValue(descriptor, readConstant(in));
+                    value = value == null ? constant : value.merge(constant);
+                }
+                return value;
+            }
+            default -> throw new IOException("Unknown value kind " + kind);
+        }
+    }
+
+    private static Object readConstant(DataInputStream in) throws IOException {
+        byte tag = in.readByte();
+        return switch (tag) {
+            case NULL -> null;
+            case INT -> in.readInt();
+            case LONG -> in.readLong();
+            case FLOAT -> in.readFloat();
+            case DOUBLE -> in.readDouble();
+            case STRING -> in.readUTF();
+            case CLASS -> ClassDesc.ofDescriptor(in.readUTF());
+            default -> throw new IOException("Unknown constant tag " + tag);
+        };
+    }
+}
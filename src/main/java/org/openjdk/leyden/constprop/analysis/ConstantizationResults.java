@@ -0,0 +1,64 @@
+package org.openjdk.leyden.constprop.analysis;
+
+import org.openjdk.leyden.constprop.targets.ConstantizationTarget;
+import org.openjdk.leyden.constprop.values.ConstantizationValue;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * The values of all method scope targets found by a {@link ConstantizationDriver}, keyed the same way targets are
+ * looked up in an {@link org.openjdk.leyden.constprop.targets.AbstractConstantizationTargetRegistry}. Methods that
+ * could not be analyzed are reported as failures rather than aborting the whole run.
+ */
+public final class ConstantizationResults {
+    private final Map<String, Map<ConstantizationTarget, ConstantizationValue<?>>> values;
+    private final Map<String, Throwable> failures;
+    private final int analyzedMethodCount;
+    private final int cachedClassCount;
+
+    ConstantizationResults(Map<String, Map<ConstantizationTarget, ConstantizationValue<?>>> values,
+                           Map<String, Throwable> failures,
+                           int analyzedMethodCount,
+                           int cachedClassCount) {
+        this.values = values;
+        this.failures = failures;
+        this.analyzedMethodCount = analyzedMethodCount;
+        this.cachedClassCount = cachedClassCount;
+    }
+
+    private static String methodKey(String clazz, String method, String descriptor) {
+        return clazz + "." + method + descriptor;
+    }
+
+    /**
+     * @return the value of each target registered for the method, empty if there is none or if the method failed
+     */
+    public Map<ConstantizationTarget, ConstantizationValue<?>> getMethodScopeValues(String clazz,
+                                                                                    String method,
+                                                                                    String descriptor) {
+        return Collections.unmodifiableMap(values.getOrDefault(methodKey(clazz, method, descriptor), Map.of()));
+    }
+
+    /**
+     * @return the reason each failed method could not be analyzed, keyed by <code>owner.name + descriptor</code>
+     */
+    public Map<String, Throwable> getFailures() {
+        return Collections.unmodifiableMap(failures);
+    }
+
+    /**
+     * @return the number of methods analyzed successfully, whether or not any target was registered for them
+     */
+    public int getAnalyzedMethodCount() {
+        return analyzedMethodCount;
+    }
+
+    /**
+     * @return the number of classes whose results were read from a {@link ConstantizationResultStore} instead of being
+     * analyzed, their methods are included in {@link #getAnalyzedMethodCount()}
+     */
+    public int getCachedClassCount() {
+        return cachedClassCount;
+    }
+}
@@ -0,0 +1,123 @@
+package org.openjdk.leyden.constprop.analysis;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Which classes, fields and methods the result of each analyzed method depended on, and the reverse: which methods
+ * have to be analyzed again once a class changes. Methods are keyed by <code>owner.name + descriptor</code>, as in
+ * {@link ConstantizationResults}.
+ * <p>
+ * Not safe for concurrent modification.
+ */
+public final class DependencyGraph {
+
+    /**
+     * Something outside the analyzed method that its result was computed from.
+     *
+     * @param owner      the internal name of the class the dependency is in
+     * @param name       the name of the field or method, or <code>null</code> for the class as a whole
+     * @param descriptor the descriptor of the method, or <code>null</code> for a field or a class
+     */
+    public record Dependency(String owner, String name, String descriptor) {
+        public static Dependency onClass(String owner) {
+            return new Dependency(owner, null, null);
+        }
+
+        public static Dependency onField(String owner, String name) {
+            return new Dependency(owner, name, null);
+        }
+
+        public static Dependency onMethod(String owner, String name, String descriptor) {
+            return new Dependency(owner, name, descriptor);
+        }
+
+        boolean isMethod() {
+            return descriptor != null;
+        }
+
+        String methodKey() {
+            return owner + "." + name + descriptor;
+        }
+    }
+
+    private final Map<String, Set<Dependency>> dependencies = new HashMap<>();
+
+    // reverse edges: class -> methods depending on anything in it, method -> methods depending on its result
+    private final Map<String, Set<String>> dependentsByClass = new HashMap<>();
+    private final Map<String, Set<String>> dependentsByMethod = new HashMap<>();
+
+    /**
+     * Replaces what the method depended on by the dependencies found in its latest analysis.
+     */
+    public void record(String method, Collection<Dependency> methodDependencies) {
+        remove(method);
+
+        Set<Dependency> set = new LinkedHashSet<>(methodDependencies);
+        dependencies.put(method, set);
+        for (Dependency dependency : set) {
+            dependentsByClass.computeIfAbsent(dependency.owner(), k -> new HashSet<>()).add(method);
+            if (dependency.isMethod()) {
+                dependentsByMethod.computeIfAbsent(dependency.methodKey(), k -> new HashSet<>()).add(method);
+            }
+        }
+    }
+
+    public void remove(String method) {
+        Set<Dependency> previous = dependencies.remove(method);
+        if (previous == null) {
+            return;
+        }
+
+        for (Dependency dependency : previous) {
+            removeEdge(dependentsByClass, dependency.owner(), method);
+            if (dependency.isMethod()) {
+                removeEdge(dependentsByMethod, dependency.methodKey(), method);
+            }
+        }
+    }
+
+    private static void removeEdge(Map<String, Set<String>> edges, String key, String method) {
+        Set<String> dependents = edges.get(key);
+        if (dependents != null && dependents.remove(method) && dependents.isEmpty()) {
+            edges.remove(key);
+        }
+    }
+
+    /**
+     * @return what the method depended on when it was last analyzed, empty if it is unknown
+     */
+    public Set<Dependency> dependenciesOf(String method) {
+        return dependencies.getOrDefault(method, Set.of());
+    }
+
+    /**
+     * Finds every method whose result may change when the given classes change: those depending on anything in them,
+     * and, transitively, those depending on the result of a method found that way.
+     *
+     * @param classes the internal names of changed or removed classes
+     * @return the keys of the affected methods
+     */
+    public Set<String> dependents(Collection<String> classes) {
+        Set<String> affected = new LinkedHashSet<>();
+        Deque<String> worklist = new ArrayDeque<>();
+        for (String clazz : classes) {
+            worklist.addAll(dependentsByClass.getOrDefault(clazz, Set.of()));
+        }
+
+        while (!worklist.isEmpty()) {
+            String method = worklist.poll();
+            if (affected.add(method)) {
+                worklist.addAll(dependentsByMethod.getOrDefault(method, Set.of()));
+            }
+        }
+
+        return affected;
+    }
+}
@@ -0,0 +1,235 @@
+package org.openjdk.leyden.constprop.analysis;
+
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.analysis.AnalyzerException;
+import org.objectweb.asm.tree.analysis.Frame;
+import org.openjdk.leyden.constprop.targets.AbstractConstantizationTargetRegistry;
+import org.openjdk.leyden.constprop.targets.ConstantizationTarget;
+import org.openjdk.leyden.constprop.values.AbstractConstantizationValueFactory;
+import org.openjdk.leyden.constprop.values.ConstantizationValue;
+import org.openjdk.leyden.constprop.values.DefaultConstantizationValueFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Keeps the results of analyzing a set of classes up to date as classes change, re-analyzing only the methods whose
+ * results may have changed.
+ * <p>
+ * Every method analyzed records what its result depended on, see {@link DependencyGraph}. When classes change or are
+ * removed, the methods in them and the methods depending on them, transitively, are analyzed again. All other results
+ * are kept. Classes handed to {@link #update} take precedence over those of the class pool, which serves everything
+ * else, e.g., the JDK.
+ */
+public class IncrementalAnalysis {
+    private record MethodRef(String owner, String name, String descriptor) {
+        private String key() {
+            return owner + "." + name + descriptor;
+        }
+    }
+
+    private record Outcome(Map<ConstantizationTarget, ConstantizationValue<?>> values,
+                           Throwable failure,
+                           Set<DependencyGraph.Dependency> dependencies) {
+    }
+
+    private final AbstractConstantizationTargetRegistry registry;
+    private final ForkJoinPool pool;
+    private final SessionClassPool classPool;
+    private volatile MethodSummaries summaries;
+    private final StaticInitializers staticInitializers;
+    private final ThreadLocal<ConstantizationAnalyzer> analyzers;
+
+    private final Map<String, List<MethodRef>> methodsByClass = new HashMap<>();
+    private final Map<String, MethodRef> methods = new HashMap<>();
+    private final Map<String, Map<ConstantizationTarget, ConstantizationValue<?>>> values = new HashMap<>();
+    private final Map<String, Throwable> failures = new HashMap<>();
+    private final Set<String> analyzed = new HashSet<>();
+    private final DependencyGraph dependencies = new DependencyGraph();
+    private Set<String> lastAnalyzed = Set.of();
+
+    public IncrementalAnalysis(AbstractConstantizationTargetRegistry registry) {
+        this(registry, new ClassLoaderClassPool(), new DefaultConstantizationValueFactory(), ForkJoinPool.commonPool());
+    }
+
+    public IncrementalAnalysis(AbstractConstantizationTargetRegistry registry,
+                               AbstractClassPool classPool,
+                               AbstractConstantizationValueFactory valueFactory,
+                               ForkJoinPool pool) {
+        this.registry = Objects.requireNonNull(registry);
+        this.pool = Objects.requireNonNull(pool);
+        this.classPool = new SessionClassPool(Objects.requireNonNull(classPool));
+
+        this.staticInitializers = new StaticInitializers(this.classPool, Objects.requireNonNull(valueFactory));
+        this.analyzers = ThreadLocal.withInitial(() -> {
+            ConstantizationAnalyzer analyzer =
+                    new ConstantizationAnalyzer(new ConstantizationInterpreter(this.classPool, valueFactory));
+            analyzer.setStaticInitializers(staticInitializers);
+            return analyzer;
+        });
+    }
+
+    /**
+     * @param summaries the summaries of called methods to share between all updates, which invalidate them along with
+     *                  the classes changed, or <code>null</code>, the default, to treat every call as returning an
+     *                  unknown value; applies to the methods analyzed by subsequent updates
+     */
+    public synchronized void setMethodSummaries(MethodSummaries summaries) {
+        this.summaries = summaries;
+        staticInitializers.setMethodSummaries(summaries);
+    }
+
+    /**
+     * Adds, replaces or removes classes and analyzes again whatever they affect. The first update analyzes all
+     * classes given to it.
+     *
+     * @param changed the bytes of each new or changed class, keyed by internal name
+     * @param removed the internal names of removed classes
+     * @return the results of all methods of all current classes
+     */
+    public synchronized ConstantizationResults update(Map<String, byte[]> changed, Collection<String> removed) {
+        Set<String> touched = new LinkedHashSet<>(changed.keySet());
+        touched.addAll(removed);
+
+        Set<String> affected = new LinkedHashSet<>(dependencies.dependents(touched));
+        for (String clazz : touched) {
+            classPool.classes.remove(clazz);
+            classPool.invalidate(clazz);
+            if (summaries != null) {
+                summaries.invalidate(clazz);
+            }
+            staticInitializers.invalidate(clazz);
+            for (MethodRef method : methodsByClass.getOrDefault(clazz, List.of())) {
+                forget(method.key());
+                methods.remove(method.key());
+            }
+            methodsByClass.remove(clazz);
+        }
+
+        for (Map.Entry<String, byte[]> entry : changed.entrySet()) {
+            String clazz = entry.getKey();
+            classPool.classes.put(clazz, entry.getValue());
+
+            List<MethodRef> classMethods = new ArrayList<>();
+            for (ClassMemberIndex.MethodHeader header : ClassMemberIndex.read(entry.getValue()).methods()) {
+                // abstract and native methods have nothing to analyze
+                if ((header.access() & (Opcodes.ACC_ABSTRACT | Opcodes.ACC_NATIVE)) == 0) {
+                    MethodRef method = new MethodRef(clazz, header.name(), header.descriptor());
+                    classMethods.add(method);
+                    methods.put(method.key(), method);
+                    affected.add(method.key());
+                }
+            }
+            methodsByClass.put(clazz, classMethods);
+        }
+
+        // NOTE: methods of removed classes may have been found through the graph, but there is nothing left to analyze
+        affected.retainAll(methods.keySet());
+
+        // NOTE: a parallel stream started from within the pool runs on the pool
+        Map<String, Outcome> outcomes = new ConcurrentHashMap<>();
+        pool.submit(() -> affected.parallelStream().forEach(key -> outcomes.put(key, analyze(methods.get(key)))))
+                .join();
+
+        for (Map.Entry<String, Outcome> entry : outcomes.entrySet()) {
+            String key = entry.getKey();
+            Outcome outcome = entry.getValue();
+
+            forget(key);
+            dependencies.record(key, outcome.dependencies());
+            if (outcome.failure() != null) {
+                failures.put(key, outcome.failure());
+            } else {
+                analyzed.add(key);
+                if (!outcome.values().isEmpty()) {
+                    values.put(key, outcome.values());
+                }
+            }
+        }
+
+        lastAnalyzed = Collections.unmodifiableSet(affected);
+        return new ConstantizationResults(new HashMap<>(values), new HashMap<>(failures), analyzed.size(), 0);
+    }
+
+    /**
+     * @return the keys of the methods analyzed by the last {@link #update}, as <code>owner.name + descriptor</code>
+     */
+    public synchronized Set<String> getLastAnalyzedMethods() {
+        return lastAnalyzed;
+    }
+
+    /**
+     * @return what the result of the method depended on when it was last analyzed
+     */
+    public synchronized Set<DependencyGraph.Dependency> getDependencies(String clazz,
+                                                                       String method,
+                                                                       String descriptor) {
+        return Set.copyOf(dependencies.dependenciesOf(clazz + "." + method + descriptor));
+    }
+
+    private void forget(String key) {
+        values.remove(key);
+        failures.remove(key);
+        analyzed.remove(key);
+        dependencies.remove(key);
+    }
+
+    private Outcome analyze(MethodRef method) {
+        MethodNode mn;
+        try {
+            mn = classPool.methodForName(method.owner(), method.name(), method.descriptor());
+        } catch (ClassNotFoundException | MethodNotFoundException e) {
+            return new Outcome(null, e, Set.of(DependencyGraph.Dependency.onClass(method.owner())));
+        }
+
+        ConstantizationAnalyzer analyzer = analyzers.get();
+        analyzer.setMethodSummaries(summaries);
+        try {
+            Frame<ConstantizationValue<?>>[] frames = analyzer.analyze(method.owner(), mn);
+
+            ConstantizationEvents.TargetExtraction event = new ConstantizationEvents.TargetExtraction();
+            event.begin();
+            Map<ConstantizationTarget, ConstantizationValue<?>> targetValues = new LinkedHashMap<>();
+            for (ConstantizationTarget target :
+                    registry.getMethodScopeTargets(method.owner(), method.name(), method.descriptor())) {
+                targetValues.put(target, target.extractValueFromFrames(frames));
+            }
+            event.finish(method.key(), targetValues.size());
+
+            return new Outcome(targetValues, null, Set.copyOf(analyzer.getDependencies()));
+        } catch (AnalyzerException | RuntimeException e) {
+            // NOTE: the failure may go away once a dependency changes, so its dependencies are kept too
+            return new Outcome(null, e, Set.copyOf(analyzer.getDependencies()));
+        }
+    }
+
+    /**
+     * Serves the classes of the session, and everything else from the class pool it wraps.
+     */
+    private static final class SessionClassPool extends AbstractClassPool {
+        private final AbstractClassPool delegate;
+        private final Map<String, byte[]> classes = new ConcurrentHashMap<>();
+
+        private SessionClassPool(AbstractClassPool delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public byte[] classForName(String name) throws ClassNotFoundException {
+            byte[] bytes = classes.get(name);
+            return bytes != null ? bytes : delegate.classForName(name);
+        }
+    }
+}
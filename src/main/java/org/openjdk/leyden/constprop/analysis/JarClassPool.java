@@ -0,0 +1,277 @@
+package org.openjdk.leyden.constprop.analysis;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * A class pool reading classes straight from jar files, without loading them or putting them on the classpath.
+ * <p>
+ * The central directory of each jar is read once, up front, into an index from class name to the location of its
+ * entry. Jars are memory-mapped, so a lookup is a single index probe followed by copying (or inflating) the entry from
+ * the mapping. No streams are allocated per lookup, and each thread reuses one {@link Inflater}. If a class is in more
+ * than one jar, the first jar wins, as on a classpath. Entries under <code>META-INF/</code> are not indexed.
+ */
+public class JarClassPool extends AbstractClassPool implements Closeable {
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    private static final int END_SIGNATURE = 0x06054b50;
+    private static final int ZIP64_END_LOCATOR_SIGNATURE = 0x07064b50;
+    private static final int ZIP64_END_SIGNATURE = 0x06064b50;
+    private static final int ZIP64_EXTRA_FIELD = 0x0001;
+
+    private static final int STORED = 0;
+    private static final int DEFLATED = 8;
+
+    // the end record is followed by a comment of at most 0xffff bytes
+    private static final int MAX_END_SEARCH = 22 + 0xffff;
+
+    private static final ThreadLocal<Inflater> INFLATERS = ThreadLocal.withInitial(() -> new Inflater(true));
+
+    private record Entry(ByteBuffer jar, long localHeaderOffset, int method, long compressedSize, long size) {
+    }
+
+    private final List<FileChannel> channels = new ArrayList<>();
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    public JarClassPool(Path... jars) throws IOException {
+        this(List.of(jars));
+    }
+
+    public JarClassPool(List<Path> jars) throws IOException {
+        try {
+            for (Path jar : jars) {
+                index(jar);
+            }
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    private void index(Path jar) throws IOException {
+        FileChannel channel = FileChannel.open(jar, StandardOpenOption.READ);
+        channels.add(channel);
+
+        if (channel.size() > Integer.MAX_VALUE) {
+            throw new ZipException(jar + " is too large to be mapped");
+        }
+
+        ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())
+                .order(ByteOrder.LITTLE_ENDIAN);
+
+        int end = findEndRecord(mapped, jar);
+        long count = Short.toUnsignedInt(mapped.getShort(end + 10));
+        long offset = Integer.toUnsignedLong(mapped.getInt(end + 16));
+
+        // NOTE: a ZIP64 end record takes over if one of the fields above overflowed
+        int locator = end - 20;
+        if (locator >= 0 && mapped.getInt(locator) == ZIP64_END_LOCATOR_SIGNATURE) {
+            int zip64End = checkedOffset(mapped.getLong(locator + 8), mapped, jar);
+            if (mapped.getInt(zip64End) != ZIP64_END_SIGNATURE) {
+                throw new ZipException("Invalid ZIP64 end record in " + jar);
+            }
+
+            count = mapped.getLong(zip64End + 32);
+            offset = mapped.getLong(zip64End + 48);
+        }
+
+        int position = checkedOffset(offset, mapped, jar);
+        for (long i = 0; i < count; i++) {
+            if (mapped.getInt(position) != CENTRAL_HEADER_SIGNATURE) {
+                throw new ZipException("Invalid central directory header in " + jar);
+            }
+
+            int method = Short.toUnsignedInt(mapped.getShort(position + 10));
+            long compressedSize = Integer.toUnsignedLong(mapped.getInt(position + 20));
+            long size = Integer.toUnsignedLong(mapped.getInt(position + 24));
+            int nameLength = Short.toUnsignedInt(mapped.getShort(position + 28));
+            int extraLength = Short.toUnsignedInt(mapped.getShort(position + 30));
+            int commentLength = Short.toUnsignedInt(mapped.getShort(position + 32));
+            long localHeaderOffset = Integer.toUnsignedLong(mapped.getInt(position + 42));
+
+            String name = readName(mapped, position + 46, nameLength);
+            if (name.endsWith(".class") && !name.startsWith("META-INF/")) {
+                if (size == 0xffffffffL || compressedSize == 0xffffffffL || localHeaderOffset == 0xffffffffL) {
+                    long[] zip64 = readZip64Extra(mapped, position + 46 + nameLength, extraLength,
+                            size, compressedSize, localHeaderOffset);
+                    size = zip64[0];
+                    compressedSize = zip64[1];
+                    localHeaderOffset = zip64[2];
+                }
+
+                entries.putIfAbsent(name.substring(0, name.length() - ".class".length()),
+                        new Entry(mapped, localHeaderOffset, method, compressedSize, size));
+            }
+
+            position += 46 + nameLength + extraLength + commentLength;
+        }
+    }
+
+    private static int findEndRecord(ByteBuffer mapped, Path jar) throws ZipException {
+        int limit = Math.max(0, mapped.limit() - MAX_END_SEARCH);
+        for (int i = mapped.limit() - 22; i >= limit; i--) {
+            if (mapped.getInt(i) == END_SIGNATURE) {
+                return i;
+            }
+        }
+
+        throw new ZipException("No end of central directory record in " + jar);
+    }
+
+    private static int checkedOffset(long offset, ByteBuffer mapped, Path jar) throws ZipException {
+        if (offset < 0 || offset >= mapped.limit()) {
+            throw new ZipException("Offset " + offset + " out of bounds in " + jar);
+        }
+
+        return (int) offset;
+    }
+
+    private static String readName(ByteBuffer mapped, int position, int length) {
+        byte[] bytes = new byte[length];
+        mapped.get(position, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /*
+     * The ZIP64 extended information only contains the fields that overflowed, in this order: size, compressed size,
+     * local header offset.
+     */
+    private static long[] readZip64Extra(ByteBuffer mapped, int position, int length,
+                                         long size, long compressedSize, long localHeaderOffset) {
+        int end = position + length;
+        while (position + 4 <= end) {
+            int id = Short.toUnsignedInt(mapped.getShort(position));
+            int dataLength = Short.toUnsignedInt(mapped.getShort(position + 2));
+            int data = position + 4;
+
+            if (id == ZIP64_EXTRA_FIELD) {
+                if (size == 0xffffffffL) {
+                    size = mapped.getLong(data);
+                    data += 8;
+                }
+                if (compressedSize == 0xffffffffL) {
+                    compressedSize = mapped.getLong(data);
+                    data += 8;
+                }
+                if (localHeaderOffset == 0xffffffffL) {
+                    localHeaderOffset = mapped.getLong(data);
+                }
+                break;
+            }
+
+            position += 4 + dataLength;
+        }
+
+        return new long[]{size, compressedSize, localHeaderOffset};
+    }
+
+    /**
+     * @return the internal names of all classes found in the jars
+     */
+    public Set<String> classNames() {
+        return Collections.unmodifiableSet(entries.keySet());
+    }
+
+    @Override
+    public byte[] classForName(String name) throws ClassNotFoundException {
+        Entry entry = entries.get(name);
+        if (entry == null) {
+            throw new ClassNotFoundException("class " + name + " cannot be found");
+        }
+
+        try {
+            return read(entry);
+        } catch (ZipException | DataFormatException | IndexOutOfBoundsException e) {
+            throw new ClassNotFoundException("class " + name + " cannot be read", e);
+        }
+    }
+
+    private static byte[] read(Entry entry) throws ZipException, DataFormatException {
+        ByteBuffer jar = entry.jar();
+        int header = (int) entry.localHeaderOffset();
+        if (jar.getInt(header) != LOCAL_HEADER_SIGNATURE) {
+            throw new ZipException("Invalid local file header");
+        }
+
+        // NOTE: the local header has its own name and extra field lengths, which may differ from the central ones
+        int data = header + 30 + Short.toUnsignedInt(jar.getShort(header + 26))
+                + Short.toUnsignedInt(jar.getShort(header + 28));
+        byte[] bytes = new byte[Math.toIntExact(entry.size())];
+
+        switch (entry.method()) {
+            case STORED -> {
+                if (entry.compressedSize() != entry.size()) {
+                    throw new ZipException("Stored entry of " + entry.compressedSize() + " bytes, expected "
+                            + entry.size());
+                }
+                jar.get(data, bytes);
+            }
+            case DEFLATED -> {
+                Inflater inflater = INFLATERS.get();
+                try {
+                    inflater.setInput(jar.slice(data, Math.toIntExact(entry.compressedSize())));
+                    int n = 0;
+                    while (n < bytes.length && !inflater.finished()) {
+                        int inflated = inflater.inflate(bytes, n, bytes.length - n);
+                        if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                            throw new ZipException("Truncated entry");
+                        }
+                        n += inflated;
+                    }
+
+                    // NOTE: the end of the stream may only show once asked for more than the expected bytes
+                    if (n == bytes.length && !inflater.finished()) {
+                        n += inflater.inflate(new byte[1]);
+                    }
+                    if (n != bytes.length || !inflater.finished()) {
+                        throw new ZipException("Inflated " + (n > bytes.length ? "more than " : "") + n
+                                + " bytes, expected " + bytes.length);
+                    }
+                } finally {
+                    inflater.reset();
+                }
+            }
+            default -> throw new ZipException("Unsupported compression method " + entry.method());
+        }
+
+        return bytes;
+    }
+
+    /**
+     * Closes the jar files. The mappings themselves are released once the pool is garbage collected.
+     */
+    @Override
+    public void close() throws IOException {
+        IOException exception = null;
+        for (FileChannel channel : channels) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                if (exception == null) {
+                    exception = e;
+                } else {
+                    exception.addSuppressed(e);
+                }
+            }
+        }
+
+        if (exception != null) {
+            throw exception;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package org.openjdk.leyden.constprop.analysis;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A class pool reading the classes of a JDK runtime image through the <code>jrt:/</code> file system.
+ * <p>
+ * The image's package-to-module mapping is indexed once, so finding a class is a single map lookup instead of a
+ * classpath resource search. Class bytes are read from the image on every call, as the classes parsed from them are
+ * cached already, see {@link ClassNodeCache}. By default the image of the running JDK is used; another JDK 9+
+ * installation can be targeted by passing its <code>JAVA_HOME</code>.
+ */
+public class JrtClassPool extends AbstractClassPool implements Closeable {
+    private static final URI JRT = URI.create("jrt:/");
+
+    private final FileSystem fileSystem;
+    private final boolean ownsFileSystem;
+
+    // package internal name -> module name
+    private final Map<String, String> modulesByPackage = new HashMap<>();
+
+    /**
+     * Reads from the image of the running JDK.
+     */
+    public JrtClassPool() throws IOException {
+        this(FileSystems.getFileSystem(JRT), false);
+    }
+
+    /**
+     * @param javaHome the installation directory of the JDK whose image is read
+     */
+    public JrtClassPool(Path javaHome) throws IOException {
+        this(FileSystems.newFileSystem(JRT, Map.of("java.home", javaHome.toString())), true);
+    }
+
+    private JrtClassPool(FileSystem fileSystem, boolean ownsFileSystem) throws IOException {
+        this.fileSystem = fileSystem;
+        this.ownsFileSystem = ownsFileSystem;
+
+        try {
+            index();
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /*
+     * The image lists each package as /packages/<dotted package name>/<module>, so the index is built from directory
+     * listings alone, without walking the classes themselves.
+     */
+    private void index() throws IOException {
+        try (DirectoryStream<Path> packages = Files.newDirectoryStream(fileSystem.getPath("/packages"))) {
+            for (Path pkg : packages) {
+                String name = pkg.getFileName().toString().replace('.', '/');
+                try (DirectoryStream<Path> modules = Files.newDirectoryStream(pkg)) {
+                    for (Path module : modules) {
+                        modulesByPackage.putIfAbsent(name, module.getFileName().toString());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @param name the internal name of a class
+     * @return the name of the module containing the package of the class, or <code>null</code> if no module does
+     */
+    public String moduleForName(String name) {
+        int slash = name.lastIndexOf('/');
+        return modulesByPackage.get(slash < 0 ? "" : name.substring(0, slash));
+    }
+
+    @Override
+    public byte[] classForName(String name) throws ClassNotFoundException {
+        String module = moduleForName(name);
+        if (module == null) {
+            throw new ClassNotFoundException("class " + name + " cannot be found");
+        }
+
+        try {
+            return Files.readAllBytes(fileSystem.getPath("/modules", module, name + ".class"));
+        } catch (IOException e) {
+            throw new ClassNotFoundException("class " + name + " cannot be found", e);
+        }
+    }
+
+    /**
+     * Closes the file system if it was opened for another JDK. The running JDK's file system cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        if (ownsFileSystem) {
+            fileSystem.close();
+        }
+    }
+}
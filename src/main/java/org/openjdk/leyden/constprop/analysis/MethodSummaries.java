@@ -0,0 +1,128 @@
+package org.openjdk.leyden.constprop.analysis;
+
+import org.openjdk.leyden.constprop.values.ConstantizationValue;
+import org.openjdk.leyden.constprop.values.IntegerValue;
+import org.openjdk.leyden.constprop.values.LongValue;
+import org.openjdk.leyden.constprop.values.MutableReferenceTypeValue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The values returned by called methods, each computed once per callee and abstract arguments and shared by all call
+ * sites, see {@link ConstantizationInterpreter#naryOperation}. A call with arguments seen before costs a lookup
+ * instead of another analysis of the callee.
+ * <p>
+ * Arguments are told apart by their possible values, not by the operations that computed them, so calls passing the
+ * same constants share a summary. Ints and longs only known by a range are told apart by the range. Other values no
+ * longer tracked one by one, and mutable references, whose identities only mean something within the caller, are
+ * passed to the callee as unknown.
+ * <p>
+ * Safe for concurrent use. Two threads missing the same summary at once both analyze the callee, and the first result
+ * stored is kept.
+ */
+public final class MethodSummaries {
+    // NOTE: every level of a call chain analyzes a whole method, while chains deeper than this rarely return constants
+    static final int MAX_CALL_DEPTH = 8;
+
+    /**
+     * @param arguments the abstract value of each argument, the receiver first for instance methods
+     */
+    record Key(String owner, String name, String descriptor, List<Argument> arguments) {
+    }
+
+    /**
+     * @param values the possible values, the range of an int or long only known by its range, or <code>null</code> if
+     *               passed as unknown
+     */
+    record Argument(String descriptor, Object values) {
+        boolean isUnknown() {
+            return values == null;
+        }
+    }
+
+    /**
+     * @param returnValue  all values the callee may return, unknown if it could not be analyzed
+     * @param dependencies everything outside the callee its return value was computed from, the callees of the callee
+     *                     included
+     * @param provisional  whether the return value rests on a recursive call, whose summary was either cut off or not
+     *                     final yet, see {@link CallGraphScheduler}, so that neither it nor anything computed from it
+     *                     may be stored for good
+     */
+    record Summary(ConstantizationValue<?> returnValue,
+                   Set<DependencyGraph.Dependency> dependencies,
+                   boolean provisional) {
+    }
+
+    private final Map<Key, Summary> summaries = new ConcurrentHashMap<>();
+
+    static Key key(String owner, String name, String descriptor, List<? extends ConstantizationValue<?>> arguments) {
+        List<Argument> abstractArguments = new ArrayList<>(arguments.size());
+        for (ConstantizationValue<?> argument : arguments) {
+            abstractArguments.add(argument(argument));
+        }
+
+        return new Key(owner, name, descriptor, List.copyOf(abstractArguments));
+    }
+
+    private static Argument argument(ConstantizationValue<?> value) {
+        if (value instanceof IntegerValue i && i.isDegraded()) {
+            return new Argument(value.getDescriptor(), i.intRange());
+        }
+
+        if (value instanceof LongValue l && l.isDegraded()) {
+            return new Argument(value.getDescriptor(), l.longRange());
+        }
+
+        if (value instanceof MutableReferenceTypeValue<?> || value.isDegraded()) {
+            return new Argument(value.getDescriptor(), null);
+        }
+
+        // NOTE: a HashSet, since possible values may include null
+        return new Argument(value.getDescriptor(), new HashSet<>(value.values()));
+    }
+
+    Summary get(Key key) {
+        return summaries.get(key);
+    }
+
+    /**
+     * @return the summary stored first, either this one or one stored by another thread meanwhile
+     */
+    Summary put(Key key, Summary summary) {
+        Summary existing = summaries.putIfAbsent(key, summary);
+        return existing != null ? existing : summary;
+    }
+
+    /**
+     * Stores a summary, replacing any stored before, e.g., while iterating recursive methods to a fixpoint.
+     */
+    void update(Key key, Summary summary) {
+        summaries.put(key, summary);
+    }
+
+    void remove(Key key) {
+        summaries.remove(key);
+    }
+
+    /**
+     * Drops the summaries of the methods of a class, and of all methods whose summaries depend on the class, e.g.,
+     * once the class changed.
+     */
+    public void invalidate(String owner) {
+        summaries.entrySet().removeIf(entry -> entry.getKey().owner().equals(owner)
+                || entry.getValue().dependencies().stream().anyMatch(d -> d.owner().equals(owner)));
+    }
+
+    public void clear() {
+        summaries.clear();
+    }
+
+    public int size() {
+        return summaries.size();
+    }
+}
@@ -2,14 +2,20 @@ package org.openjdk.leyden.constprop.analysis;
 
 import org.openjdk.leyden.constprop.values.MutableReferenceTypeValue;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.TreeMap;
 
 public class ReferenceTracker {
     private final ReferenceTracker parent;
     private final Map<Integer, MutableReferenceTypeValue<?>> values = new HashMap<>();
 
+    // NOTE: reference identities are dense within an analysis, so the versions of each reference are found by
+    //       indexing with its identity instead of scanning all values
+    private final List<TreeMap<Integer, MutableReferenceTypeValue<?>>> valuesById = new ArrayList<>();
+
     public ReferenceTracker() {
         this(null);
     }
@@ -19,17 +25,30 @@ public class ReferenceTracker {
     }
 
     public void put(int index, MutableReferenceTypeValue<?> value) {
-        values.put(index, value);
-    }
+        MutableReferenceTypeValue<?> previous = values.put(index, value);
+        if (previous != null && previous.getId() != value.getId()) {
+            valuesById.get(previous.getId()).remove(index);
+        }
 
-    public MutableReferenceTypeValue<?> get(int index, long id) {
-        Optional<MutableReferenceTypeValue<?>> optional = values.entrySet().stream()
-                .filter(e -> e.getValue().getId() == id && e.getKey() <= index)
-                .max(Map.Entry.comparingByKey())
-                .map(Map.Entry::getValue);
+        int id = value.getId();
+        while (valuesById.size() <= id) {
+            valuesById.add(null);
+        }
+
+        TreeMap<Integer, MutableReferenceTypeValue<?>> versions = valuesById.get(id);
+        if (versions == null) {
+            versions = new TreeMap<>();
+            valuesById.set(id, versions);
+        }
+        versions.put(index, value);
+    }
 
-        if (optional.isPresent()) {
-            return optional.get();
+    public MutableReferenceTypeValue<?> get(int index, int id) {
+        if (id < valuesById.size() && valuesById.get(id) != null) {
+            Map.Entry<Integer, MutableReferenceTypeValue<?>> entry = valuesById.get(id).floorEntry(index);
+            if (entry != null) {
+                return entry.getValue();
+            }
         }
 
         if (parent != null) {
@@ -0,0 +1,438 @@
+package org.openjdk.leyden.constprop.analysis;
+
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.InsnList;
+import org.objectweb.asm.tree.JumpInsnNode;
+import org.objectweb.asm.tree.LabelNode;
+import org.objectweb.asm.tree.LookupSwitchInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.TableSwitchInsnNode;
+import org.objectweb.asm.tree.TryCatchBlockNode;
+import org.objectweb.asm.tree.analysis.AnalyzerException;
+import org.objectweb.asm.tree.analysis.Frame;
+import org.openjdk.leyden.constprop.util.IntSet;
+import org.openjdk.leyden.constprop.values.ConstantizationValue;
+import org.openjdk.leyden.constprop.values.IntegerValue;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * An alternative to {@link ConstantizationAnalyzer} in the style of sparse conditional constant propagation: control
+ * flow only follows edges that can be taken given the values computed so far, and only basic blocks whose input
+ * changed are executed again.
+ * <p>
+ * A conditional jump or switch whose operands have known possible values only flows into the successors those values
+ * select. Code reached through no other edge is never executed and keeps <code>null</code> frames, as unreachable code
+ * does with ASM's analyzer. Frames are merged and widened at the same instructions as with
+ * {@link ConstantizationAnalyzer}, with the same {@link ConstantizationValue} lattice and interpreter, so the frames
+ * returned can be read by the same targets. Blocks wait in a worklist ordered by instruction index, so a block usually
+ * runs after all of its forward predecessors.
+ * <p>
+ * Pruning is only sound if values over-approximate what can happen at run time. Parameters are therefore unknown here,
+ * instead of the default value of their type as with {@link ConstantizationAnalyzer}, so the two analyzers may return
+ * different values for code reading parameters. For the same reason, branches on values that are unknown or only known
+ * by a range are never pruned.
+ */
+public class SparseConstantizationAnalyzer {
+    private final ConstantizationInterpreter interpreter;
+
+    private Frame<ConstantizationValue<?>>[] frames;
+    private int visitedInstructionCount;
+
+    public SparseConstantizationAnalyzer() {
+        this(new ConstantizationInterpreter());
+    }
+
+    public SparseConstantizationAnalyzer(ConstantizationInterpreter interpreter) {
+        this.interpreter = interpreter;
+    }
+
+    /**
+     * @return the frame before each instruction, <code>null</code> for instructions that cannot be reached
+     */
+    public Frame<ConstantizationValue<?>>[] analyze(String owner, MethodNode method) throws AnalyzerException {
+        ConstantizationListener listener = interpreter.getListener();
+        if (listener != null) {
+            listener.methodStarted(owner, method);
+        }
+
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            Frame<ConstantizationValue<?>>[] frames = doAnalyze(owner, method);
+            failed = false;
+            return frames;
+        } finally {
+            AnalysisMetrics.methodAnalyzed(start, failed);
+            if (listener != null) {
+                listener.methodFinished(owner, method);
+            }
+        }
+    }
+
+    /**
+     * Like {@link #analyze(String, MethodNode)}, but stops as soon as the token is cancelled.
+     *
+     * @throws java.util.concurrent.CancellationException if the token was cancelled before the analysis completed
+     */
+    public Frame<ConstantizationValue<?>>[] analyze(String owner, MethodNode method, CancellationToken cancellation)
+            throws AnalyzerException {
+        CancellationToken previous = interpreter.getCancellationToken();
+        interpreter.setCancellationToken(cancellation);
+        try {
+            return analyze(owner, method);
+        } finally {
+            interpreter.setCancellationToken(previous);
+        }
+    }
+
+    /**
+     * @param listener receives the events of subsequent analyses, or <code>null</code> for none
+     */
+    public void setListener(ConstantizationListener listener) {
+        interpreter.setListener(listener);
+    }
+
+    /**
+     * @param budget limits the analysis of each subsequent method, values beyond it are unknown instead
+     */
+    public void setBudget(AnalysisBudget budget) {
+        interpreter.setBudget(budget);
+    }
+
+    /**
+     * @param summaries the summaries of static and private methods called, shared with other analyzers, or
+     *                  <code>null</code> to treat every call as returning an unknown value
+     */
+    public void setMethodSummaries(MethodSummaries summaries) {
+        interpreter.setMethodSummaries(summaries);
+    }
+
+    /**
+     * @param staticInitializers the static field values of classes read, shared with other analyzers, or
+     *                           <code>null</code> to read every static final field computed by a static initializer
+     *                           as unknown
+     */
+    public void setStaticInitializers(StaticInitializers staticInitializers) {
+        interpreter.setStaticInitializers(staticInitializers);
+    }
+
+    /**
+     * @return the limits of the budget the method last analyzed exceeded, so that its frames are less precise
+     */
+    public Set<AnalysisBudget.Limit> getExceededLimits() {
+        return interpreter.getExceededLimits();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Frame<ConstantizationValue<?>>[] doAnalyze(String owner, MethodNode method) throws AnalyzerException {
+        visitedInstructionCount = 0;
+        if ((method.access & (Opcodes.ACC_ABSTRACT | Opcodes.ACC_NATIVE)) != 0) {
+            frames = (Frame<ConstantizationValue<?>>[]) new Frame<?>[0];
+            return frames;
+        }
+
+        interpreter.setMethodNode(owner, method);
+
+        ConstantizationEvents.Fixpoint event = new ConstantizationEvents.Fixpoint();
+        event.begin();
+
+        InsnList instructions = method.instructions;
+        AbstractInsnNode[] insns = instructions.toArray();
+        int n = insns.length;
+        frames = (Frame<ConstantizationValue<?>>[]) new Frame<?>[n];
+
+        List<TryCatchBlockNode>[] handlers = (List<TryCatchBlockNode>[]) new List<?>[n];
+        BitSet leaders = new BitSet(n);
+        leaders.set(0);
+        for (TryCatchBlockNode tcb : method.tryCatchBlocks) {
+            int end = instructions.indexOf(tcb.end);
+            for (int i = instructions.indexOf(tcb.start); i < end; i++) {
+                if (handlers[i] == null) {
+                    handlers[i] = new ArrayList<>();
+                }
+                handlers[i].add(tcb);
+            }
+            leaders.set(instructions.indexOf(tcb.handler));
+        }
+
+        for (int i = 0; i < n; i++) {
+            List<LabelNode> targets = targets(insns[i]);
+            for (LabelNode target : targets) {
+                leaders.set(instructions.indexOf(target));
+            }
+            if (!targets.isEmpty() || isExit(insns[i].getOpcode())) {
+                leaders.set(i + 1);
+            }
+        }
+
+        BitSet pending = new BitSet(n);
+        frames[0] = computeInitialFrame(owner, method);
+        pending.set(0);
+
+        for (int start = pending.nextSetBit(0); start >= 0; start = pending.nextSetBit(0)) {
+            pending.clear(start);
+            executeBlock(start, insns, instructions, handlers, leaders, pending);
+        }
+
+        event.end();
+        event.finish(owner, method, interpreter, frames);
+        return frames;
+    }
+
+    public Frame<ConstantizationValue<?>>[] getFrames() {
+        return frames;
+    }
+
+    /**
+     * @return how many instructions, pseudo-instructions included, the last analysis executed, counting every time a
+     * block was executed again
+     */
+    public int getVisitedInstructionCount() {
+        return visitedInstructionCount;
+    }
+
+    private Frame<ConstantizationValue<?>> computeInitialFrame(String owner, MethodNode method) {
+        Frame<ConstantizationValue<?>> frame = new ConstantizationFrame(method.maxLocals, method.maxStack);
+
+        int local = 0;
+        boolean isInstanceMethod = (method.access & Opcodes.ACC_STATIC) == 0;
+        if (isInstanceMethod) {
+            frame.setLocal(local++, interpreter.newUnknownValue(Type.getObjectType(owner)));
+        }
+
+        for (Type argumentType : Type.getArgumentTypes(method.desc)) {
+            Type valueType = ConstantizationInterpreter.computationalType(argumentType);
+            frame.setLocal(local++, interpreter.newUnknownValue(valueType));
+            if (argumentType.getSize() == 2) {
+                frame.setLocal(local, interpreter.newEmptyValue(local));
+                local++;
+            }
+        }
+
+        while (local < method.maxLocals) {
+            frame.setLocal(local, interpreter.newEmptyValue(local));
+            local++;
+        }
+
+        frame.setReturn(interpreter.newReturnTypeValue(Type.getReturnType(method.desc)));
+        return frame;
+    }
+
+    private void executeBlock(int start,
+                              AbstractInsnNode[] insns,
+                              InsnList instructions,
+                              List<TryCatchBlockNode>[] handlers,
+                              BitSet leaders,
+                              BitSet pending) throws AnalyzerException {
+        for (int i = start; ; i++) {
+            visitedInstructionCount++;
+            AbstractInsnNode insn = insns[i];
+            Frame<ConstantizationValue<?>> in = frames[i];
+
+            if (handlers[i] != null) {
+                for (TryCatchBlockNode tcb : handlers[i]) {
+                    Type catchType = Type.getObjectType(tcb.type == null ? "java/lang/Throwable" : tcb.type);
+                    Frame<ConstantizationValue<?>> handler = new ConstantizationFrame(in);
+                    handler.clearStack();
+                    handler.push(interpreter.newExceptionValue(tcb, handler, catchType));
+                    merge(instructions.indexOf(tcb.handler), handler, pending);
+                }
+            }
+
+            Frame<ConstantizationValue<?>> out = new ConstantizationFrame(in);
+            int opcode = insn.getOpcode();
+            if (opcode == Opcodes.JSR || opcode == Opcodes.RET) {
+                throw new AnalyzerException(insn, "Subroutines are not supported");
+            }
+
+            if (opcode != -1) {
+                out.execute(insn, interpreter);
+            }
+
+            if (insn instanceof JumpInsnNode jump) {
+                int target = instructions.indexOf(jump.label);
+                if (opcode == Opcodes.GOTO) {
+                    merge(target, out, pending);
+                } else {
+                    boolean[] outcomes = branchOutcomes(opcode, in);
+                    if (outcomes[1]) {
+                        out.initJumpTarget(opcode, null);
+                        merge(i + 1, out, pending);
+                    }
+                    if (outcomes[0]) {
+                        out.initJumpTarget(opcode, jump.label);
+                        merge(target, out, pending);
+                    }
+                }
+                return;
+            }
+
+            if (insn instanceof TableSwitchInsnNode || insn instanceof LookupSwitchInsnNode) {
+                for (LabelNode target : switchTargets(insn, in)) {
+                    out.initJumpTarget(opcode, target);
+                    merge(instructions.indexOf(target), out, pending);
+                }
+                return;
+            }
+
+            if (isExit(opcode)) {
+                return;
+            }
+
+            if (i + 1 >= insns.length) {
+                throw new AnalyzerException(insn, "Execution can fall off the end of the code");
+            }
+
+            if (leaders.get(i + 1)) {
+                merge(i + 1, out, pending);
+                return;
+            }
+
+            frames[i + 1] = out;
+        }
+    }
+
+    private void merge(int index, Frame<ConstantizationValue<?>> frame, BitSet pending) throws AnalyzerException {
+        Frame<ConstantizationValue<?>> old = frames[index];
+        boolean changed;
+        if (old == null) {
+            frames[index] = new ConstantizationFrame(frame);
+            changed = true;
+        } else {
+            changed = old.merge(frame, interpreter);
+        }
+
+        // NOTE: as with ConstantizationAnalyzer, the first merge only copies, widening starts from the second one
+        if (interpreter.isLoopHeader(index)) {
+            ((ConstantizationFrame) frames[index]).setLoopHeader(true);
+        }
+
+        if (changed) {
+            pending.set(index);
+        }
+    }
+
+    private static boolean isExit(int opcode) {
+        return (opcode >= Opcodes.IRETURN && opcode <= Opcodes.RETURN) || opcode == Opcodes.ATHROW;
+    }
+
+    private static List<LabelNode> targets(AbstractInsnNode insn) {
+        if (insn instanceof JumpInsnNode jump) {
+            return List.of(jump.label);
+        }
+
+        if (insn instanceof TableSwitchInsnNode tableSwitch) {
+            List<LabelNode> targets = new ArrayList<>(tableSwitch.labels);
+            targets.add(tableSwitch.dflt);
+            return targets;
+        }
+
+        if (insn instanceof LookupSwitchInsnNode lookupSwitch) {
+            List<LabelNode> targets = new ArrayList<>(lookupSwitch.labels);
+            targets.add(lookupSwitch.dflt);
+            return targets;
+        }
+
+        return List.of();
+    }
+
+    private static ConstantizationValue<?> top(Frame<ConstantizationValue<?>> frame, int depth) {
+        return frame.getStack(frame.getStackSize() - 1 - depth);
+    }
+
+    /**
+     * @return whether the jump may be taken, and whether execution may fall through
+     */
+    private static boolean[] branchOutcomes(int opcode, Frame<ConstantizationValue<?>> in) {
+        ConstantizationValue<?> value1;
+        ConstantizationValue<?> value2;
+        int comparison;
+        if (opcode >= Opcodes.IFEQ && opcode <= Opcodes.IFLE) {
+            value1 = top(in, 0);
+            value2 = new IntegerValue(0);
+            comparison = opcode - Opcodes.IFEQ;
+        } else if (opcode >= Opcodes.IF_ICMPEQ && opcode <= Opcodes.IF_ICMPLE) {
+            value1 = top(in, 1);
+            value2 = top(in, 0);
+            comparison = opcode - Opcodes.IF_ICMPEQ;
+        } else {
+            // NOTE: reference values track neither nullness nor identity apart from their possible values, so
+            // IFNULL, IFNONNULL, IF_ACMPEQ and IF_ACMPNE keep both edges. Following an edge that cannot be taken only
+            // merges more values into its target, which stays sound, while pruning one that can would not.
+            return new boolean[]{true, true};
+        }
+
+        if (!(value1 instanceof IntegerValue v1) || !(value2 instanceof IntegerValue v2)) {
+            return new boolean[]{true, true};
+        }
+
+        // NOTE: a value that may be anything, or whose exact values were given up on, decides nothing
+        if (!isExact(v1) || !isExact(v2)) {
+            return new boolean[]{true, true};
+        }
+
+        boolean taken = false;
+        boolean fallsThrough = false;
+        for (int x : v1.intValues().toArray()) {
+            for (int y : v2.intValues().toArray()) {
+                if (compare(comparison, x, y)) {
+                    taken = true;
+                } else {
+                    fallsThrough = true;
+                }
+            }
+        }
+        return new boolean[]{taken, fallsThrough};
+    }
+
+    private static boolean isExact(IntegerValue value) {
+        return !value.isUnknown() && !value.isDegraded();
+    }
+
+    // comparisons in the order of IFEQ, IFNE, IFLT, IFGE, IFGT, IFLE
+    private static boolean compare(int comparison, int x, int y) {
+        return switch (comparison) {
+            case 0 -> x == y;
+            case 1 -> x != y;
+            case 2 -> x < y;
+            case 3 -> x >= y;
+            case 4 -> x > y;
+            default -> x <= y;
+        };
+    }
+
+    private static Set<LabelNode> switchTargets(AbstractInsnNode insn, Frame<ConstantizationValue<?>> in) {
+        Set<LabelNode> targets = new LinkedHashSet<>();
+        if (!(top(in, 0) instanceof IntegerValue v) || !isExact(v)) {
+            targets.addAll(targets(insn));
+            return targets;
+        }
+
+        IntSet keys = v.intValues();
+        if (keys.isEmpty()) {
+            targets.addAll(targets(insn));
+            return targets;
+        }
+
+        for (int key : keys.toArray()) {
+            if (insn instanceof TableSwitchInsnNode tableSwitch) {
+                targets.add(key >= tableSwitch.min && key <= tableSwitch.max
+                        ? tableSwitch.labels.get(key - tableSwitch.min)
+                        : tableSwitch.dflt);
+            } else {
+                LookupSwitchInsnNode lookupSwitch = (LookupSwitchInsnNode) insn;
+                int index = lookupSwitch.keys.indexOf(key);
+                targets.add(index >= 0 ? lookupSwitch.labels.get(index) : lookupSwitch.dflt);
+            }
+        }
+
+        return targets;
+    }
+}
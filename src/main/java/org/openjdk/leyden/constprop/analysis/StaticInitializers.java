@@ -0,0 +1,107 @@
+package org.openjdk.leyden.constprop.analysis;
+
+import org.objectweb.asm.tree.FieldNode;
+import org.openjdk.leyden.constprop.values.AbstractConstantizationValueFactory;
+import org.openjdk.leyden.constprop.values.ConstantizationValue;
+import org.openjdk.leyden.constprop.values.DefaultConstantizationValueFactory;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The values of the static final fields of classes, computed once per class by analyzing its static initializer and
+ * shared by all reads, see {@link ConstantizationInterpreter#newOperation}. Fields with a <code>ConstantValue</code>
+ * attribute do not need the static initializer, any other static final field is assigned by it.
+ * <p>
+ * A static initializer reading a field of a class whose static initializer is being analyzed on the way to it, e.g.,
+ * of its own class, reads an unknown value, as the JVM may read the default value there.
+ * <p>
+ * Safe for concurrent use. Two threads missing the same class at once both analyze its static initializer, and the
+ * first result stored is kept.
+ */
+public final class StaticInitializers {
+    /**
+     * @param fieldValues  all values each static field of the class may be assigned by its static initializer, empty
+     *                     if the static initializer could not be analyzed
+     * @param dependencies everything outside the static initializer the values were computed from
+     */
+    record Initialization(Map<String, ConstantizationValue<?>> fieldValues,
+                          Set<DependencyGraph.Dependency> dependencies) {
+    }
+
+    private final AbstractClassPool classPool;
+    private final AbstractConstantizationValueFactory valueFactory;
+    private final Map<String, Initialization> initializations = new ConcurrentHashMap<>();
+    private volatile MethodSummaries summaries;
+
+    public StaticInitializers() {
+        this(new ClassLoaderClassPool(), new DefaultConstantizationValueFactory());
+    }
+
+    /**
+     * @param classPool    resolves the static initializers of classes whose fields are looked up by
+     *                     {@link #valueOf(String, String)}
+     * @param valueFactory creates the values of these lookups
+     */
+    public StaticInitializers(AbstractClassPool classPool, AbstractConstantizationValueFactory valueFactory) {
+        this.classPool = Objects.requireNonNull(classPool);
+        this.valueFactory = Objects.requireNonNull(valueFactory);
+    }
+
+    /**
+     * @return the value read from the static field, as by a <code>GETSTATIC</code>, which analyzes the static
+     * initializer of the class unless done before
+     */
+    public ConstantizationValue<?> valueOf(String owner, String name)
+            throws ClassNotFoundException, FieldNotFoundException {
+        FieldNode field = classPool.fieldForName(owner, name);
+
+        ConstantizationInterpreter interpreter = new ConstantizationInterpreter(classPool, valueFactory);
+        interpreter.setMethodSummaries(summaries);
+        interpreter.setStaticInitializers(this);
+        return interpreter.staticFieldValue(owner, name, field.desc);
+    }
+
+    MethodSummaries getMethodSummaries() {
+        return summaries;
+    }
+
+    /**
+     * @param summaries the summaries of the methods static initializers call, or <code>null</code>, the default, to
+     *                  treat every call as returning an unknown value
+     */
+    public void setMethodSummaries(MethodSummaries summaries) {
+        this.summaries = summaries;
+    }
+
+    Initialization get(String owner) {
+        return initializations.get(owner);
+    }
+
+    /**
+     * @return the initialization stored first, either this one or one stored by another thread meanwhile
+     */
+    Initialization put(String owner, Initialization initialization) {
+        Initialization existing = initializations.putIfAbsent(owner, initialization);
+        return existing != null ? existing : initialization;
+    }
+
+    /**
+     * Drops the static field values of a class, and of all classes whose static initializers depend on the class,
+     * e.g., once the class changed.
+     */
+    public void invalidate(String owner) {
+        initializations.entrySet().removeIf(entry -> entry.getKey().equals(owner)
+                || entry.getValue().dependencies().stream().anyMatch(d -> d.owner().equals(owner)));
+    }
+
+    public void clear() {
+        initializations.clear();
+    }
+
+    public int size() {
+        return initializations.size();
+    }
+}
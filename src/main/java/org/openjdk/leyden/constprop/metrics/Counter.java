@@ -0,0 +1,29 @@
+package org.openjdk.leyden.constprop.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A count that only goes up, cheap to increment from many threads at once.
+ */
+public final class Counter {
+    private final LongAdder count = new LongAdder();
+
+    Counter() {
+    }
+
+    public void increment() {
+        count.increment();
+    }
+
+    public void add(long n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("Counters cannot decrease: " + n);
+        }
+
+        count.add(n);
+    }
+
+    public long sum() {
+        return count.sum();
+    }
+}
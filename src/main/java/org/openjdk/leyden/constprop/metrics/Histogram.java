@@ -0,0 +1,62 @@
+package org.openjdk.leyden.constprop.metrics;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts observations into buckets with fixed upper bounds, e.g., of durations, cheap to update from many threads at
+ * once.
+ */
+public final class Histogram {
+    private final double[] bounds;
+    private final LongAdder[] counts;
+    private final DoubleAdder sum = new DoubleAdder();
+
+    /**
+     * @param bounds the inclusive upper bound of each bucket, in ascending order. A last bucket takes everything above.
+     */
+    Histogram(double[] bounds) {
+        for (int i = 1; i < bounds.length; i++) {
+            if (!(bounds[i - 1] < bounds[i])) {
+                throw new IllegalArgumentException("Bucket bounds must ascend: " + Arrays.toString(bounds));
+            }
+        }
+
+        this.bounds = bounds.clone();
+        this.counts = new LongAdder[bounds.length + 1];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = new LongAdder();
+        }
+    }
+
+    public void observe(double value) {
+        int bucket = Arrays.binarySearch(bounds, value);
+        // NOTE: a value equal to a bound belongs to that bucket, otherwise to the first bucket with a larger bound
+        counts[bucket >= 0 ? bucket : -bucket - 1].increment();
+        sum.add(value);
+    }
+
+    double[] bounds() {
+        return bounds.clone();
+    }
+
+    /**
+     * @return the number of observations in each bucket, not cumulative, the last one being above all bounds
+     */
+    long[] counts() {
+        long[] result = new long[counts.length];
+        for (int i = 0; i < counts.length; i++) {
+            result[i] = counts[i].sum();
+        }
+        return result;
+    }
+
+    public long count() {
+        return Arrays.stream(counts()).sum();
+    }
+
+    public double sum() {
+        return sum.sum();
+    }
+}
@@ -0,0 +1,208 @@
+package org.openjdk.leyden.constprop.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Counters, histograms and gauges of a long-running analysis, exported in the Prometheus text format.
+ * <p>
+ * Components report into {@link #global()}, usually through metrics looked up once into static fields. Looking up a
+ * metric with the same name and labels again returns the same instance. Updating a metric only touches a
+ * {@link java.util.concurrent.atomic.LongAdder}, so reporting from every analysis thread does not contend.
+ */
+public final class MetricsRegistry {
+    private static final MetricsRegistry GLOBAL = new MetricsRegistry();
+    private static final Pattern NAME = Pattern.compile("[a-zA-Z_:][a-zA-Z0-9_:]*");
+
+    private enum Type {
+        COUNTER, GAUGE, HISTOGRAM;
+
+        private String text() {
+            return name().toLowerCase();
+        }
+    }
+
+    private record Family(String name, String help, Type type, Map<String, Object> metrics) {
+    }
+
+    private final Map<String, Family> families = new ConcurrentHashMap<>();
+
+    public static MetricsRegistry global() {
+        return GLOBAL;
+    }
+
+    /**
+     * @param labels alternating label names and values
+     */
+    public Counter counter(String name, String help, String... labels) {
+        return (Counter) register(name, help, Type.COUNTER, labels, Counter::new);
+    }
+
+    /**
+     * @param bounds the inclusive upper bound of each bucket, in ascending order, which must be the same for all
+     *               labels
+     * @param labels alternating label names and values
+     */
+    public Histogram histogram(String name, String help, double[] bounds, String... labels) {
+        return (Histogram) register(name, help, Type.HISTOGRAM, labels, () -> new Histogram(bounds));
+    }
+
+    /**
+     * Registers a value read at export time, e.g., the size of a cache. A gauge registered again with the same name
+     * and labels replaces the earlier one.
+     *
+     * @param labels alternating label names and values
+     */
+    public void gauge(String name, String help, DoubleSupplier value, String... labels) {
+        family(name, help, Type.GAUGE).metrics().put(labels(labels), value);
+    }
+
+    private Object register(String name, String help, Type type, String[] labels, Supplier<Object> factory) {
+        return family(name, help, type).metrics().computeIfAbsent(labels(labels), k -> factory.get());
+    }
+
+    private Family family(String name, String help, Type type) {
+        if (!NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("Invalid metric name: " + name);
+        }
+
+        Family family = families.computeIfAbsent(name,
+                k -> new Family(name, help, type, new ConcurrentHashMap<>()));
+        if (family.type() != type) {
+            throw new IllegalArgumentException(name + " is already registered as a " + family.type().text());
+        }
+
+        return family;
+    }
+
+    // NOTE: labels are kept rendered, as they appear between the braces of a sample
+    private static String labels(String[] labels) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels must come in name and value pairs");
+        }
+
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < labels.length; i += 2) {
+            if (!NAME.matcher(labels[i]).matches() || labels[i].contains(":")) {
+                throw new IllegalArgumentException("Invalid label name: " + labels[i]);
+            }
+
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            sb.append(labels[i]).append("=\"").append(escape(labels[i + 1], true)).append('"');
+        }
+
+        return sb.toString();
+    }
+
+    private static String escape(String s, boolean quotes) {
+        StringBuilder sb = new StringBuilder(s.length());
+        for (char c : s.toCharArray()) {
+            switch (c) {
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '"' -> sb.append(quotes ? "\\\"" : "\"");
+                default -> sb.append(c);
+            }
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Writes all metrics in the Prometheus text exposition format, families sorted by name.
+     */
+    public void writePrometheus(Appendable out) throws IOException {
+        List<Family> sorted = new ArrayList<>(families.values());
+        sorted.sort(Comparator.comparing(Family::name));
+
+        for (Family family : sorted) {
+            out.append("# HELP ").append(family.name()).append(' ').append(escape(family.help(), false)).append('\n');
+            out.append("# TYPE ").append(family.name()).append(' ').append(family.type().text()).append('\n');
+
+            for (Map.Entry<String, Object> entry : new TreeMap<>(family.metrics()).entrySet()) {
+                String labels = entry.getKey();
+                Object metric = entry.getValue();
+                if (metric instanceof Counter counter) {
+                    sample(out, family.name(), labels, Long.toString(counter.sum()));
+                } else if (metric instanceof DoubleSupplier gauge) {
+                    sample(out, family.name(), labels, number(gauge.getAsDouble()));
+                } else {
+                    Histogram histogram = (Histogram) metric;
+                    double[] bounds = histogram.bounds();
+                    long[] counts = histogram.counts();
+
+                    // NOTE: Prometheus buckets are cumulative, each counting everything up to its bound
+                    long cumulative = 0;
+                    for (int i = 0; i < counts.length; i++) {
+                        cumulative += counts[i];
+                        String le = "le=\"" + (i < bounds.length ? number(bounds[i]) : "+Inf") + '"';
+                        sample(out, family.name() + "_bucket", labels.isEmpty() ? le : labels + ',' + le,
+                                Long.toString(cumulative));
+                    }
+                    sample(out, family.name() + "_sum", labels, number(histogram.sum()));
+                    sample(out, family.name() + "_count", labels, Long.toString(cumulative));
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes all metrics to the file, e.g., for the textfile collector of the Prometheus node exporter. The file is
+     * replaced atomically, so a scrape never reads a partial file.
+     */
+    public void writePrometheus(Path file) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+                writePrometheus(writer);
+            }
+
+            try {
+                Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private static void sample(Appendable out, String name, String labels, String value) throws IOException {
+        out.append(name);
+        if (!labels.isEmpty()) {
+            out.append('{').append(labels).append('}');
+        }
+        out.append(' ').append(value).append('\n');
+    }
+
+    private static String number(double value) {
+        if (Double.isNaN(value)) {
+            return "NaN";
+        }
+
+        if (Double.isInfinite(value)) {
+            return value > 0 ? "+Inf" : "-Inf";
+        }
+
+        return value == Math.rint(value) && Math.abs(value) < 1e15
+                ? Long.toString((long) value)
+                : Double.toString(value);
+    }
+}
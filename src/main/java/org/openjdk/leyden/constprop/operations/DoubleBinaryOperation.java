@@ -0,0 +1,35 @@
+package org.openjdk.leyden.constprop.operations;
+
+import org.openjdk.leyden.constprop.util.Unknowable;
+
+/**
+ * A binary operation on <code>double</code>s. Values backed by primitive sets evaluate it with
+ * {@link #applyAll(double[], double[])} without boxing. The boxed {@link #apply(Object...)} path stays available for
+ * everything else.
+ */
+public abstract class DoubleBinaryOperation extends BinaryOperation<Double, Double, Double> {
+
+    public abstract double applyAsDouble(double operand1, double operand2);
+
+    /**
+     * @param operands1 all possible values of the first operand
+     * @param operands2 all possible values of the second operand
+     * @return the result for each combination of operands, possibly with duplicates
+     */
+    public double[] applyAll(double[] operands1, double[] operands2) {
+        double[] results = new double[operands1.length * operands2.length];
+        int k = 0;
+        for (double operand1 : operands1) {
+            for (double operand2 : operands2) {
+                results[k++] = applyAsDouble(operand1, operand2);
+            }
+        }
+
+        return results;
+    }
+
+    @Override
+    public Unknowable<Double> apply(Object... operands) {
+        return Unknowable.of(applyAsDouble(((Number) operands[0]).doubleValue(), ((Number) operands[1]).doubleValue()));
+    }
+}
@@ -0,0 +1,31 @@
+package org.openjdk.leyden.constprop.operations;
+
+import org.openjdk.leyden.constprop.util.Unknowable;
+
+/**
+ * A unary operation on <code>double</code>s. Values backed by primitive sets evaluate it with
+ * {@link #applyAll(double[])} without boxing. The boxed {@link #apply(Object...)} path stays available for everything
+ * else.
+ */
+public abstract class DoubleUnaryOperation extends UnaryOperation<Double, Double> {
+
+    public abstract double applyAsDouble(double operand);
+
+    /**
+     * @param operands all possible values of the operand
+     * @return the result for each operand, possibly with duplicates
+     */
+    public double[] applyAll(double[] operands) {
+        double[] results = new double[operands.length];
+        for (int i = 0; i < operands.length; i++) {
+            results[i] = applyAsDouble(operands[i]);
+        }
+
+        return results;
+    }
+
+    @Override
+    public Unknowable<Double> apply(Object... operands) {
+        return Unknowable.of(applyAsDouble(((Number) operands[0]).doubleValue()));
+    }
+}
@@ -0,0 +1,35 @@
+package org.openjdk.leyden.constprop.operations;
+
+import org.openjdk.leyden.constprop.util.Unknowable;
+
+/**
+ * A binary operation on <code>float</code>s. Values backed by primitive sets evaluate it with
+ * {@link #applyAll(float[], float[])} without boxing. The boxed {@link #apply(Object...)} path stays available for
+ * everything else.
+ */
+public abstract class FloatBinaryOperation extends BinaryOperation<Float, Float, Float> {
+
+    public abstract float applyAsFloat(float operand1, float operand2);
+
+    /**
+     * @param operands1 all possible values of the first operand
+     * @param operands2 all possible values of the second operand
+     * @return the result for each combination of operands, possibly with duplicates
+     */
+    public float[] applyAll(float[] operands1, float[] operands2) {
+        float[] results = new float[operands1.length * operands2.length];
+        int k = 0;
+        for (float operand1 : operands1) {
+            for (float operand2 : operands2) {
+                results[k++] = applyAsFloat(operand1, operand2);
+            }
+        }
+
+        return results;
+    }
+
+    @Override
+    public Unknowable<Float> apply(Object... operands) {
+        return Unknowable.of(applyAsFloat(((Number) operands[0]).floatValue(), ((Number) operands[1]).floatValue()));
+    }
+}
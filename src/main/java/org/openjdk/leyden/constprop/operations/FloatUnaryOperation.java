@@ -0,0 +1,30 @@
+package org.openjdk.leyden.constprop.operations;
+
+import org.openjdk.leyden.constprop.util.Unknowable;
+
+/**
+ * A unary operation on <code>float</code>s. Values backed by primitive sets evaluate it with {@link #applyAll(float[])}
+ * without boxing. The boxed {@link #apply(Object...)} path stays available for everything else.
+ */
+public abstract class FloatUnaryOperation extends UnaryOperation<Float, Float> {
+
+    public abstract float applyAsFloat(float operand);
+
+    /**
+     * @param operands all possible values of the operand
+     * @return the result for each operand, possibly with duplicates
+     */
+    public float[] applyAll(float[] operands) {
+        float[] results = new float[operands.length];
+        for (int i = 0; i < operands.length; i++) {
+            results[i] = applyAsFloat(operands[i]);
+        }
+
+        return results;
+    }
+
+    @Override
+    public Unknowable<Float> apply(Object... operands) {
+        return Unknowable.of(applyAsFloat(((Number) operands[0]).floatValue()));
+    }
+}
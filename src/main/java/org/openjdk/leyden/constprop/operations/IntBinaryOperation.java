@@ -0,0 +1,48 @@
+package org.openjdk.leyden.constprop.operations;
+
+import org.openjdk.leyden.constprop.util.IntInterval;
+import org.openjdk.leyden.constprop.util.Unknowable;
+
+/**
+ * A binary operation on <code>int</code>s. Values backed by primitive sets evaluate it with
+ * {@link #applyAll(int[], int[])} without boxing. The boxed {@link #apply(Object...)} path stays available for
+ * everything else.
+ */
+public abstract class IntBinaryOperation extends BinaryOperation<Integer, Integer, Integer> {
+
+    public abstract int applyAsInt(int operand1, int operand2);
+
+    /**
+     * @param operands1 all possible values of the first operand
+     * @param operands2 all possible values of the second operand
+     * @return the result for each combination of operands, possibly with duplicates
+     */
+    public int[] applyAll(int[] operands1, int[] operands2) {
+        int[] results = new int[operands1.length * operands2.length];
+        int k = 0;
+        for (int operand1 : operands1) {
+            for (int operand2 : operands2) {
+                results[k++] = applyAsInt(operand1, operand2);
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * Applies the operation to ranges of operands. Used once an operand has too many possible values to enumerate.
+     * Override to keep results bounded, the default gives up on precision.
+     *
+     * @param operand1 an interval containing all possible values of the first operand
+     * @param operand2 an interval containing all possible values of the second operand
+     * @return an interval containing all possible results
+     */
+    public IntInterval applyRange(IntInterval operand1, IntInterval operand2) {
+        return IntInterval.FULL;
+    }
+
+    @Override
+    public Unknowable<Integer> apply(Object... operands) {
+        return Unknowable.of(applyAsInt(((Number) operands[0]).intValue(), ((Number) operands[1]).intValue()));
+    }
+}
@@ -0,0 +1,66 @@
+package org.openjdk.leyden.constprop.operations;
+
+import org.openjdk.leyden.constprop.util.IntInterval;
+import org.openjdk.leyden.constprop.util.Unknowable;
+
+/**
+ * A unary operation on <code>int</code>s. Values backed by primitive sets evaluate it with {@link #applyAll(int[])}
+ * without boxing. The boxed {@link #apply(Object...)} path stays available for everything else.
+ */
+public abstract class IntUnaryOperation extends UnaryOperation<Integer, Integer> {
+
+    /**
+     * Unlike {@link UnaryOperation#identity()}, also carries a range through unchanged.
+     */
+    // NOTE: hides the generic UnaryOperation#identity(), which javac flags as unchecked although nothing is cast
+    @SuppressWarnings("unchecked")
+    public static IntUnaryOperation identity() {
+        return new IntUnaryOperation() {
+            @Override
+            public int applyAsInt(int operand) {
+                return operand;
+            }
+
+            @Override
+            public IntInterval applyRange(IntInterval operand) {
+                return operand;
+            }
+
+            @Override
+            public String toString() {
+                return "ident op";
+            }
+        };
+    }
+
+    public abstract int applyAsInt(int operand);
+
+    /**
+     * @param operands all possible values of the operand
+     * @return the result for each operand, possibly with duplicates
+     */
+    public int[] applyAll(int[] operands) {
+        int[] results = new int[operands.length];
+        for (int i = 0; i < operands.length; i++) {
+            results[i] = applyAsInt(operands[i]);
+        }
+
+        return results;
+    }
+
+    /**
+     * Applies the operation to a range of operands. Used once a value has too many possible values to enumerate.
+     * Override to keep results bounded, the default gives up on precision.
+     *
+     * @param operand an interval containing all possible values of the operand
+     * @return an interval containing all possible results
+     */
+    public IntInterval applyRange(IntInterval operand) {
+        return IntInterval.FULL;
+    }
+
+    @Override
+    public Unknowable<Integer> apply(Object... operands) {
+        return Unknowable.of(applyAsInt(((Number) operands[0]).intValue()));
+    }
+}
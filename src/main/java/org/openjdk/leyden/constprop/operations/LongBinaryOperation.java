@@ -0,0 +1,48 @@
+package org.openjdk.leyden.constprop.operations;
+
+import org.openjdk.leyden.constprop.util.LongInterval;
+import org.openjdk.leyden.constprop.util.Unknowable;
+
+/**
+ * A binary operation on <code>long</code>s. Values backed by primitive sets evaluate it with
+ * {@link #applyAll(long[], long[])} without boxing. The boxed {@link #apply(Object...)} path stays available for
+ * everything else.
+ */
+public abstract class LongBinaryOperation extends BinaryOperation<Long, Long, Long> {
+
+    public abstract long applyAsLong(long operand1, long operand2);
+
+    /**
+     * @param operands1 all possible values of the first operand
+     * @param operands2 all possible values of the second operand
+     * @return the result for each combination of operands, possibly with duplicates
+     */
+    public long[] applyAll(long[] operands1, long[] operands2) {
+        long[] results = new long[operands1.length * operands2.length];
+        int k = 0;
+        for (long operand1 : operands1) {
+            for (long operand2 : operands2) {
+                results[k++] = applyAsLong(operand1, operand2);
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * Applies the operation to ranges of operands. Used once an operand has too many possible values to enumerate.
+     * Override to keep results bounded, the default gives up on precision.
+     *
+     * @param operand1 an interval containing all possible values of the first operand
+     * @param operand2 an interval containing all possible values of the second operand
+     * @return an interval containing all possible results
+     */
+    public LongInterval applyRange(LongInterval operand1, LongInterval operand2) {
+        return LongInterval.FULL;
+    }
+
+    @Override
+    public Unknowable<Long> apply(Object... operands) {
+        return Unknowable.of(applyAsLong(((Number) operands[0]).longValue(), ((Number) operands[1]).longValue()));
+    }
+}
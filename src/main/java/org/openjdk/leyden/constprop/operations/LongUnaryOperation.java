@@ -0,0 +1,66 @@
+package org.openjdk.leyden.constprop.operations;
+
+import org.openjdk.leyden.constprop.util.LongInterval;
+import org.openjdk.leyden.constprop.util.Unknowable;
+
+/**
+ * A unary operation on <code>long</code>s. Values backed by primitive sets evaluate it with {@link #applyAll(long[])}
+ * without boxing. The boxed {@link #apply(Object...)} path stays available for everything else.
+ */
+public abstract class LongUnaryOperation extends UnaryOperation<Long, Long> {
+
+    /**
+     * Unlike {@link UnaryOperation#identity()}, also carries a range through unchanged.
+     */
+    // NOTE: hides the generic UnaryOperation#identity(), which javac flags as unchecked although nothing is cast
+    @SuppressWarnings("unchecked")
+    public static LongUnaryOperation identity() {
+        return new LongUnaryOperation() {
+            @Override
+            public long applyAsLong(long operand) {
+                return operand;
+            }
+
+            @Override
+            public LongInterval applyRange(LongInterval operand) {
+                return operand;
+            }
+
+            @Override
+            public String toString() {
+                return "ident op";
+            }
+        };
+    }
+
+    public abstract long applyAsLong(long operand);
+
+    /**
+     * @param operands all possible values of the operand
+     * @return the result for each operand, possibly with duplicates
+     */
+    public long[] applyAll(long[] operands) {
+        long[] results = new long[operands.length];
+        for (int i = 0; i < operands.length; i++) {
+            results[i] = applyAsLong(operands[i]);
+        }
+
+        return results;
+    }
+
+    /**
+     * Applies the operation to a range of operands. Used once a value has too many possible values to enumerate.
+     * Override to keep results bounded, the default gives up on precision.
+     *
+     * @param operand an interval containing all possible values of the operand
+     * @return an interval containing all possible results
+     */
+    public LongInterval applyRange(LongInterval operand) {
+        return LongInterval.FULL;
+    }
+
+    @Override
+    public Unknowable<Long> apply(Object... operands) {
+        return Unknowable.of(applyAsLong(((Number) operands[0]).longValue()));
+    }
+}
@@ -1,5 +1,7 @@
 package org.openjdk.leyden.constprop.operations;
 
+import org.openjdk.leyden.constprop.metrics.Counter;
+import org.openjdk.leyden.constprop.metrics.MetricsRegistry;
 import org.openjdk.leyden.constprop.util.CartesianProduct;
 import org.openjdk.leyden.constprop.util.Unknowable;
 import org.openjdk.leyden.constprop.values.ConstantizationValue;
@@ -8,11 +10,14 @@ import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
+import java.util.Spliterator;
 import java.util.Spliterators;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 public abstract non-sealed class NArayOperation<R> extends Operation<R> {
+    private static final Counter COMBINATIONS = MetricsRegistry.global().counter(
+            "constprop_operand_combinations_total", "Combinations of operand values an operation was applied to");
 
     private final int n;
 
@@ -45,24 +50,24 @@ public abstract non-sealed class NArayOperation<R> extends Operation<R> {
      * @return all possible results
      */
     public Iterator<R> applyAll(ConstantizationValue<?>... operands) {
-        List<?>[] lists = (List<?>[]) Arrays.stream(operands)
-                .map(operand -> {
-                    List<? extends Unknowable<?>> list = StreamSupport.stream(operand.spliterator(), false)
-                            .distinct()
-                            .map(Unknowable::ofNullable)
-                            .toList();
-                    if (list.isEmpty()) {
-                        list = List.of(Unknowable.unknown());
-                    }
-
-                    return list;
-                })
-                .toArray(List[]::new);
-
         @SuppressWarnings("unchecked")
-        List<List<Unknowable<?>>> combinations = CartesianProduct.of((List<Unknowable<?>>[]) lists);
+        List<Unknowable<?>>[] lists = (List<Unknowable<?>>[]) new List<?>[operands.length];
+        for (int i = 0; i < operands.length; i++) {
+            List<Unknowable<?>> list = StreamSupport.stream(operands[i].spliterator(), false)
+                    .distinct()
+                    .<Unknowable<?>>map(Unknowable::ofNullable)
+                    .toList();
+            lists[i] = list.isEmpty() ? List.of(Unknowable.unknown()) : list;
+        }
 
-        return combinations.stream().map(combination -> applyPartial(combination.toArray(Unknowable[]::new)))
+        // NOTE: combinations are only built as the caller asks for results, so one that stops early, e.g., at a
+        // degradation limit, never pays for the rest of the product
+        Iterator<Unknowable<?>[]> combinations = CartesianProduct.iterator(Unknowable<?>[]::new, lists);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(combinations, Spliterator.ORDERED), false)
+                .map(combination -> {
+                    COMBINATIONS.increment();
+                    return applyPartial(combination);
+                })
                 .filter(Unknowable::isKnown)
                 .map(Unknowable::get)
                 .distinct()
@@ -6,6 +6,7 @@ import org.objectweb.asm.tree.LineNumberNode;
 import org.objectweb.asm.tree.LocalVariableNode;
 import org.objectweb.asm.tree.MethodInsnNode;
 import org.objectweb.asm.tree.MethodNode;
+import org.openjdk.leyden.constprop.analysis.StaticInitializers;
 
 import java.util.Arrays;
 import java.util.List;
@@ -75,7 +76,16 @@ public final class ConstantizationTargetFactory {
     }
 
     public static ConstantizationTarget createStaticFieldTarget(String owner, String name) {
-        return new StaticFieldTarget(owner, name);
+        return createStaticFieldTarget(owner, name, null);
+    }
+
+    /**
+     * @param staticInitializers the static field values of classes the value of the target is extracted from
+     */
+    public static ConstantizationTarget createStaticFieldTarget(String owner,
+                                                                String name,
+                                                                StaticInitializers staticInitializers) {
+        return new StaticFieldTarget(owner, name, staticInitializers);
     }
 
     public static ConstantizationTarget createStaticFieldTarget(String name) {
@@ -1,15 +1,19 @@
 package org.openjdk.leyden.constprop.targets;
 
 import org.objectweb.asm.tree.analysis.Frame;
+import org.openjdk.leyden.constprop.analysis.FieldNotFoundException;
+import org.openjdk.leyden.constprop.analysis.StaticInitializers;
 import org.openjdk.leyden.constprop.values.ConstantizationValue;
 
 public class StaticFieldTarget extends ConstantizationTarget {
     public final String owner;
     public final String name;
+    private final StaticInitializers staticInitializers;
 
-    StaticFieldTarget(String owner, String name) {
+    StaticFieldTarget(String owner, String name, StaticInitializers staticInitializers) {
         this.owner = owner;
         this.name = name;
+        this.staticInitializers = staticInitializers;
     }
 
     @Override
@@ -22,8 +26,21 @@ public class StaticFieldTarget extends ConstantizationTarget {
         return String.format("StaticFieldTarget[owner=%s, name=%s]", owner, name);
     }
 
+    /**
+     * The frames are not needed, static fields are not part of them. The value is the one the static initializer of
+     * the class assigned, which is analyzed once per class, see {@link StaticInitializers}.
+     */
     @Override
     public ConstantizationValue<?> extractValueFromFrames(Frame<ConstantizationValue<?>>[] frames) {
-        throw new UnsupportedOperationException("static fields cannot be extracted from frames");
+        if (staticInitializers == null || owner == null) {
+            throw new UnsupportedOperationException("static fields cannot be extracted without their class and "
+                    + "its static initializers");
+        }
+
+        try {
+            return staticInitializers.valueOf(owner, name);
+        } catch (ClassNotFoundException | FieldNotFoundException e) {
+            throw new IllegalStateException(this + " cannot be found", e);
+        }
     }
 }
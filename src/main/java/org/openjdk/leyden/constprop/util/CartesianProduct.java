@@ -2,8 +2,11 @@ package org.openjdk.leyden.constprop.util;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.function.IntFunction;
 
 public class CartesianProduct {
 
@@ -44,4 +47,78 @@ public class CartesianProduct {
 
         return result;
     }
-}
\ No newline at end of file
+
+    /**
+     * Iterates over the cartesian product of the given lists without building it, so a consumer that stops early never
+     * pays for the remaining combinations. Only the index of the current element of each list is kept. The first list
+     * varies fastest, as in {@link #of(List[])}.
+     * <p>
+     * Unlike {@link #of(List[])}, the product is empty as soon as one of the lists is.
+     *
+     * @param generator creates the array each combination is returned in
+     * @param lists     non-nullable lists of nullable elements
+     * @return an iterator returning each combination in a new array
+     */
+    @SafeVarargs
+    public static <T> Iterator<T[]> iterator(IntFunction<T[]> generator, List<? extends T>... lists) {
+        Objects.requireNonNull(generator);
+        // NOTE: the iterator outlives the call, so it keeps a copy instead of the varargs array itself
+        List<List<? extends T>> sources = new ArrayList<>(lists.length);
+        for (List<? extends T> list : lists) {
+            sources.add(Objects.requireNonNull(list));
+        }
+
+        return new Iterator<>() {
+            private final int[] indices = new int[sources.size()];
+            private boolean hasNext = !sources.isEmpty() && sources.stream().noneMatch(List::isEmpty);
+
+            @Override
+            public boolean hasNext() {
+                return hasNext;
+            }
+
+            @Override
+            public T[] next() {
+                if (!hasNext) {
+                    throw new NoSuchElementException();
+                }
+
+                T[] combination = generator.apply(sources.size());
+                for (int i = 0; i < sources.size(); i++) {
+                    combination[i] = sources.get(i).get(indices[i]);
+                }
+
+                // NOTE: advances like an odometer, carrying into the next list whenever one wraps around
+                int i = 0;
+                while (i < sources.size() && ++indices[i] == sources.get(i).size()) {
+                    indices[i++] = 0;
+                }
+                hasNext = i < sources.size();
+
+                return combination;
+            }
+        };
+    }
+
+    /**
+     * @param sizes the sizes of the lists
+     * @return the number of combinations in the cartesian product of lists of the given sizes, as iterated by
+     * {@link #iterator(IntFunction, List[])}, or {@link Long#MAX_VALUE} if there are more
+     */
+    public static long size(int... sizes) {
+        if (sizes.length == 0) {
+            return 0;
+        }
+
+        long size = 1;
+        for (int s : sizes) {
+            if (s == 0) {
+                return 0;
+            }
+
+            size = size > Long.MAX_VALUE / s ? Long.MAX_VALUE : size * s;
+        }
+
+        return size;
+    }
+}
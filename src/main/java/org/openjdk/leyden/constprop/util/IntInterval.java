@@ -0,0 +1,228 @@
+package org.openjdk.leyden.constprop.util;
+
+/**
+ * An immutable, non-empty closed interval of <code>int</code>s. Arithmetic follows Java semantics: whenever a result
+ * could wrap around, the full range is returned instead, so every operation is a sound over-approximation of applying
+ * it to each pair of members.
+ */
+public final class IntInterval {
+    public static final IntInterval FULL = new IntInterval(Integer.MIN_VALUE, Integer.MAX_VALUE);
+
+    private final int min;
+    private final int max;
+
+    private IntInterval(int min, int max) {
+        this.min = min;
+        this.max = max;
+    }
+
+    public static IntInterval of(int min, int max) {
+        if (min > max) {
+            throw new IllegalArgumentException(String.format("Empty interval [%d, %d]", min, max));
+        }
+
+        if (min == Integer.MIN_VALUE && max == Integer.MAX_VALUE) {
+            return FULL;
+        }
+
+        return new IntInterval(min, max);
+    }
+
+    public static IntInterval of(int value) {
+        return new IntInterval(value, value);
+    }
+
+    /**
+     * @param set a non-empty set
+     * @return the smallest interval containing every element of the set
+     */
+    public static IntInterval hull(IntSet set) {
+        return of(set.min(), set.max());
+    }
+
+    // NOTE: the bounds are computed in long so they can be checked for wrap-around before narrowing back to int
+    private static IntInterval ofLong(long min, long max) {
+        if (min < Integer.MIN_VALUE || max > Integer.MAX_VALUE) {
+            return FULL;
+        }
+
+        return of((int) min, (int) max);
+    }
+
+    public int min() {
+        return min;
+    }
+
+    public int max() {
+        return max;
+    }
+
+    public boolean isFull() {
+        return this == FULL;
+    }
+
+    public boolean isSingleton() {
+        return min == max;
+    }
+
+    public boolean contains(int value) {
+        return min <= value && value <= max;
+    }
+
+    public boolean contains(IntInterval other) {
+        return min <= other.min && other.max <= max;
+    }
+
+    /**
+     * @return the smallest interval containing both intervals
+     */
+    public IntInterval join(IntInterval other) {
+        if (this.contains(other)) {
+            return this;
+        }
+
+        if (other.contains(this)) {
+            return other;
+        }
+
+        return of(Math.min(min, other.min), Math.max(max, other.max));
+    }
+
+    /**
+     * The widening of this interval, the one already at a loop header, by an incoming one. Each bound the incoming
+     * interval grows past moves out to the nearest threshold beyond it, or to the type bound if there is none. An
+     * interval can therefore only be widened a bounded number of times, however many times the loop body is analyzed.
+     *
+     * @param thresholds candidate bounds, e.g., the constants a loop condition compares against
+     * @return this very interval if it already contains the other one
+     */
+    public IntInterval widen(IntInterval other, IntSet thresholds) {
+        if (this.contains(other)) {
+            return this;
+        }
+
+        int lo = min;
+        if (other.min < min) {
+            // the largest threshold at or below other.min
+            int index = thresholds.ceilingIndex(other.min + 1) - 1;
+            lo = index >= 0 ? thresholds.get(index) : Integer.MIN_VALUE;
+        }
+
+        int hi = max;
+        if (other.max > max) {
+            int index = thresholds.ceilingIndex(other.max);
+            hi = index < thresholds.size() ? thresholds.get(index) : Integer.MAX_VALUE;
+        }
+
+        return of(lo, hi);
+    }
+
+    /**
+     * @param typeMin the smallest value of the narrower type
+     * @param typeMax the largest value of the narrower type
+     * @return the result of a narrowing primitive conversion (e.g., <code>I2B</code>) of each member
+     */
+    public IntInterval narrow(int typeMin, int typeMax) {
+        IntInterval type = of(typeMin, typeMax);
+        return type.contains(this) ? this : type;
+    }
+
+    public IntInterval neg() {
+        return ofLong(-(long) max, -(long) min);
+    }
+
+    public IntInterval add(IntInterval other) {
+        return ofLong((long) min + other.min, (long) max + other.max);
+    }
+
+    public IntInterval sub(IntInterval other) {
+        return ofLong((long) min - other.max, (long) max - other.min);
+    }
+
+    public IntInterval mul(IntInterval other) {
+        long p1 = (long) min * other.min;
+        long p2 = (long) min * other.max;
+        long p3 = (long) max * other.min;
+        long p4 = (long) max * other.max;
+
+        return ofLong(Math.min(Math.min(p1, p2), Math.min(p3, p4)), Math.max(Math.max(p1, p2), Math.max(p3, p4)));
+    }
+
+    /**
+     * @param distance shift distances, only the five lowest-order bits of which are used as in Java
+     */
+    public IntInterval shl(IntInterval distance) {
+        if (!distance.isSingleton()) {
+            return FULL;
+        }
+
+        int s = distance.min & 0x1f;
+        return ofLong((long) min << s, (long) max << s);
+    }
+
+    /**
+     * @param distance shift distances, only the five lowest-order bits of which are used as in Java
+     */
+    public IntInterval shr(IntInterval distance) {
+        IntInterval s = maskedDistance(distance);
+
+        // x >> s is monotonically increasing in x, and moves towards 0 (or -1) as s grows
+        return of(Math.min(min >> s.min, min >> s.max), Math.max(max >> s.min, max >> s.max));
+    }
+
+    /**
+     * @param distance shift distances, only the five lowest-order bits of which are used as in Java
+     */
+    public IntInterval ushr(IntInterval distance) {
+        if (min >= 0) {
+            return shr(distance);
+        }
+
+        if (!distance.isSingleton()) {
+            return FULL;
+        }
+
+        int s = distance.min & 0x1f;
+        if (s == 0) {
+            return this;
+        }
+
+        // negative members become large positive numbers, non-negative members stay at the bottom
+        return of(max >= 0 ? 0 : min >>> s, max >= 0 ? -1 >>> s : max >>> s);
+    }
+
+    private static IntInterval maskedDistance(IntInterval distance) {
+        if (distance.min >= 0 && distance.max <= 0x1f) {
+            return distance;
+        }
+
+        if (distance.isSingleton()) {
+            return of(distance.min & 0x1f);
+        }
+
+        return of(0, 0x1f);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
+        if (obj instanceof IntInterval other) {
+            return min == other.min && max == other.max;
+        }
+
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * min + max;
+    }
+
+    @Override
+    public String toString() {
+        return "[" + min + ", " + max + "]";
+    }
+}
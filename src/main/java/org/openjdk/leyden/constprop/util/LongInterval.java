@@ -0,0 +1,234 @@
+package org.openjdk.leyden.constprop.util;
+
+/**
+ * An immutable, non-empty closed interval of <code>long</code>s. Arithmetic follows Java semantics: whenever a result
+ * could wrap around, the full range is returned instead, so every operation is a sound over-approximation of applying
+ * it to each pair of members.
+ */
+public final class LongInterval {
+    public static final LongInterval FULL = new LongInterval(Long.MIN_VALUE, Long.MAX_VALUE);
+
+    private final long min;
+    private final long max;
+
+    private LongInterval(long min, long max) {
+        this.min = min;
+        this.max = max;
+    }
+
+    public static LongInterval of(long min, long max) {
+        if (min > max) {
+            throw new IllegalArgumentException(String.format("Empty interval [%d, %d]", min, max));
+        }
+
+        if (min == Long.MIN_VALUE && max == Long.MAX_VALUE) {
+            return FULL;
+        }
+
+        return new LongInterval(min, max);
+    }
+
+    public static LongInterval of(long value) {
+        return new LongInterval(value, value);
+    }
+
+    /**
+     * @param set a non-empty set
+     * @return the smallest interval containing every element of the set
+     */
+    public static LongInterval hull(LongSet set) {
+        return of(set.min(), set.max());
+    }
+
+    public long min() {
+        return min;
+    }
+
+    public long max() {
+        return max;
+    }
+
+    public boolean isFull() {
+        return this == FULL;
+    }
+
+    public boolean isSingleton() {
+        return min == max;
+    }
+
+    public boolean contains(long value) {
+        return min <= value && value <= max;
+    }
+
+    public boolean contains(LongInterval other) {
+        return min <= other.min && other.max <= max;
+    }
+
+    /**
+     * @return the smallest interval containing both intervals
+     */
+    public LongInterval join(LongInterval other) {
+        if (this.contains(other)) {
+            return this;
+        }
+
+        if (other.contains(this)) {
+            return other;
+        }
+
+        return of(Math.min(min, other.min), Math.max(max, other.max));
+    }
+
+    /**
+     * The widening of this interval, the one already at a loop header, by an incoming one. Each bound the incoming
+     * interval grows past moves out to the nearest threshold beyond it, or to the type bound if there is none. An
+     * interval can therefore only be widened a bounded number of times, however many times the loop body is analyzed.
+     *
+     * @param thresholds candidate bounds, e.g., the constants a loop condition compares against
+     * @return this very interval if it already contains the other one
+     */
+    public LongInterval widen(LongInterval other, LongSet thresholds) {
+        if (this.contains(other)) {
+            return this;
+        }
+
+        long lo = min;
+        if (other.min < min) {
+            // the largest threshold at or below other.min
+            int index = thresholds.ceilingIndex(other.min + 1) - 1;
+            lo = index >= 0 ? thresholds.get(index) : Long.MIN_VALUE;
+        }
+
+        long hi = max;
+        if (other.max > max) {
+            int index = thresholds.ceilingIndex(other.max);
+            hi = index < thresholds.size() ? thresholds.get(index) : Long.MAX_VALUE;
+        }
+
+        return of(lo, hi);
+    }
+
+    // NOTE: Math.*Exact throws on wrap-around, which is exactly when the result has to give up on precision
+    public LongInterval neg() {
+        try {
+            return of(Math.negateExact(max), Math.negateExact(min));
+        } catch (ArithmeticException e) {
+            return FULL;
+        }
+    }
+
+    public LongInterval add(LongInterval other) {
+        try {
+            return of(Math.addExact(min, other.min), Math.addExact(max, other.max));
+        } catch (ArithmeticException e) {
+            return FULL;
+        }
+    }
+
+    public LongInterval sub(LongInterval other) {
+        try {
+            return of(Math.subtractExact(min, other.max), Math.subtractExact(max, other.min));
+        } catch (ArithmeticException e) {
+            return FULL;
+        }
+    }
+
+    public LongInterval mul(LongInterval other) {
+        try {
+            long p1 = Math.multiplyExact(min, other.min);
+            long p2 = Math.multiplyExact(min, other.max);
+            long p3 = Math.multiplyExact(max, other.min);
+            long p4 = Math.multiplyExact(max, other.max);
+
+            return of(Math.min(Math.min(p1, p2), Math.min(p3, p4)), Math.max(Math.max(p1, p2), Math.max(p3, p4)));
+        } catch (ArithmeticException e) {
+            return FULL;
+        }
+    }
+
+    /**
+     * @param distance shift distances, only the six lowest-order bits of which are used as in Java
+     */
+    public LongInterval shl(LongInterval distance) {
+        if (!distance.isSingleton()) {
+            return FULL;
+        }
+
+        int s = (int) (distance.min & 0x3f);
+
+        // shifting is exact as long as shifting back restores both bounds
+        long lo = min << s;
+        long hi = max << s;
+        if (lo >> s != min || hi >> s != max) {
+            return FULL;
+        }
+
+        return of(lo, hi);
+    }
+
+    /**
+     * @param distance shift distances, only the six lowest-order bits of which are used as in Java
+     */
+    public LongInterval shr(LongInterval distance) {
+        LongInterval s = maskedDistance(distance);
+
+        // x >> s is monotonically increasing in x, and moves towards 0 (or -1) as s grows
+        return of(Math.min(min >> s.min, min >> s.max), Math.max(max >> s.min, max >> s.max));
+    }
+
+    /**
+     * @param distance shift distances, only the six lowest-order bits of which are used as in Java
+     */
+    public LongInterval ushr(LongInterval distance) {
+        if (min >= 0) {
+            return shr(distance);
+        }
+
+        if (!distance.isSingleton()) {
+            return FULL;
+        }
+
+        int s = (int) (distance.min & 0x3f);
+        if (s == 0) {
+            return this;
+        }
+
+        // negative members become large positive numbers, non-negative members stay at the bottom
+        return of(max >= 0 ? 0 : min >>> s, max >= 0 ? -1L >>> s : max >>> s);
+    }
+
+    private static LongInterval maskedDistance(LongInterval distance) {
+        if (distance.min >= 0 && distance.max <= 0x3f) {
+            return distance;
+        }
+
+        if (distance.isSingleton()) {
+            return of(distance.min & 0x3f);
+        }
+
+        return of(0, 0x3f);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
+        if (obj instanceof LongInterval other) {
+            return min == other.min && max == other.max;
+        }
+
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(31 * min + max);
+    }
+
+    @Override
+    public String toString() {
+        return "[" + min + ", " + max + "]";
+    }
+}
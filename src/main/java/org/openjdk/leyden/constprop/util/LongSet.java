@@ -0,0 +1,244 @@
+package org.openjdk.leyden.constprop.util;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.LongFunction;
+import java.util.stream.LongStream;
+
+/**
+ * An immutable set of distinct <code>long</code>s backed by a sorted array. Constants usually have only a handful of
+ * possible values, for which a sorted array is both smaller and faster than a boxed hash set.
+ */
+public final class LongSet {
+    private static final LongSet EMPTY = new LongSet(new long[0]);
+
+    private final long[] elements;
+
+    private LongSet(long[] elements) {
+        this.elements = elements;
+    }
+
+    public static LongSet empty() {
+        return EMPTY;
+    }
+
+    public static LongSet of(long... elements) {
+        return ofUnsorted(elements.clone(), elements.length);
+    }
+
+    // sorts and deduplicates the first length elements in place, taking ownership of the array
+    private static LongSet ofUnsorted(long[] elements, int length) {
+        if (length == 0) {
+            return EMPTY;
+        }
+
+        Arrays.sort(elements, 0, length);
+
+        int size = 1;
+        for (int i = 1; i < length; i++) {
+            if (elements[i] != elements[size - 1]) {
+                elements[size++] = elements[i];
+            }
+        }
+
+        return new LongSet(size == elements.length ? elements : Arrays.copyOf(elements, size));
+    }
+
+    public int size() {
+        return elements.length;
+    }
+
+    public boolean isEmpty() {
+        return elements.length == 0;
+    }
+
+    /**
+     * @param index index of the element in ascending order
+     * @return the element at the given index
+     */
+    public long get(int index) {
+        return elements[index];
+    }
+
+    public long min() {
+        return elements[0];
+    }
+
+    public long max() {
+        return elements[elements.length - 1];
+    }
+
+    public boolean contains(long value) {
+        return Arrays.binarySearch(elements, value) >= 0;
+    }
+
+    /**
+     * @return the index of the smallest element greater than or equal to <code>value</code>, or {@link #size()} if
+     * there is none
+     */
+    public int ceilingIndex(long value) {
+        int index = Arrays.binarySearch(elements, value);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    /**
+     * @return whether every element of <code>other</code> is also an element of this set
+     */
+    public boolean containsAll(LongSet other) {
+        if (other.elements.length > elements.length) {
+            return false;
+        }
+
+        int i = 0;
+        for (long element : other.elements) {
+            while (i < elements.length && elements[i] < element) {
+                i++;
+            }
+
+            if (i == elements.length || elements[i] != element) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    public LongSet union(LongSet other) {
+        if (other.isEmpty() || this == other) {
+            return this;
+        }
+
+        if (this.isEmpty()) {
+            return other;
+        }
+
+        long[] result = new long[elements.length + other.elements.length];
+        int i = 0, j = 0, k = 0;
+        while (i < elements.length && j < other.elements.length) {
+            long a = elements[i];
+            long b = other.elements[j];
+            if (a < b) {
+                result[k++] = a;
+                i++;
+            } else if (a > b) {
+                result[k++] = b;
+                j++;
+            } else {
+                result[k++] = a;
+                i++;
+                j++;
+            }
+        }
+        while (i < elements.length) {
+            result[k++] = elements[i++];
+        }
+        while (j < other.elements.length) {
+            result[k++] = other.elements[j++];
+        }
+
+        return new LongSet(k == result.length ? result : Arrays.copyOf(result, k));
+    }
+
+    /**
+     * @param n the maximum number of elements to keep
+     * @return a set of at most the <code>n</code> smallest elements
+     */
+    public LongSet limit(int n) {
+        return n >= elements.length ? this : new LongSet(Arrays.copyOf(elements, n));
+    }
+
+    public long[] toArray() {
+        return elements.clone();
+    }
+
+    public LongStream stream() {
+        return Arrays.stream(elements);
+    }
+
+    /**
+     * Returns a read-only list view of this set with every element mapped on access. No boxed copy is created up front.
+     *
+     * @param mapper mapping function applied to each element on access
+     * @return an ascending list view
+     */
+    public <T> List<T> mapToObj(LongFunction<T> mapper) {
+        return new MappedList<>(elements, mapper);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
+        if (obj instanceof LongSet other) {
+            return Arrays.equals(elements, other.elements);
+        }
+
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(elements);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(elements);
+    }
+
+    private static final class MappedList<T> extends AbstractList<T> implements RandomAccess {
+        private final long[] elements;
+        private final LongFunction<T> mapper;
+
+        MappedList(long[] elements, LongFunction<T> mapper) {
+            this.elements = elements;
+            this.mapper = mapper;
+        }
+
+        @Override
+        public T get(int index) {
+            return mapper.apply(elements[index]);
+        }
+
+        @Override
+        public int size() {
+            return elements.length;
+        }
+    }
+
+    /**
+     * Accumulates possibly duplicated elements in any order into a {@link LongSet}.
+     */
+    public static final class Builder {
+        private long[] buffer;
+        private int size;
+
+        public Builder() {
+            this(8);
+        }
+
+        public Builder(int expectedSize) {
+            buffer = new long[Math.max(expectedSize, 1)];
+        }
+
+        public Builder add(long value) {
+            if (size == buffer.length) {
+                buffer = Arrays.copyOf(buffer, size * 2);
+            }
+
+            buffer[size++] = value;
+            return this;
+        }
+
+        public LongSet build() {
+            LongSet set = ofUnsorted(buffer, size);
+            buffer = new long[1];
+            size = 0;
+            return set;
+        }
+    }
+}
@@ -4,18 +4,22 @@ import org.objectweb.asm.tree.analysis.Value;
 import org.openjdk.leyden.constprop.operations.NewOperation;
 import org.openjdk.leyden.constprop.operations.Operation;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
-import java.util.Spliterators;
-import java.util.stream.StreamSupport;
 
 public abstract sealed class ConstantizationValue<T> implements Value, Iterable<T>
         permits ConstantizationValue.UninitializedValue, ReferenceTypeValue, ValueTypeValue {
 
     protected final Operation<T> operation;
     protected final ConstantizationValue<?>[] sources;
+    private final int depth;
+
+    // memoized result of evaluating operation against sources, see possibleValues()
+    private List<T> possibleValues;
 
     protected ConstantizationValue(T value) {
         this(NewOperation.from(value));
@@ -31,32 +35,133 @@ public abstract sealed class ConstantizationValue<T> implements Value, Iterable<
 
         this.operation = operation;
         this.sources = sources;
+
+        int depth = 0;
+        for (ConstantizationValue<?> source : sources) {
+            if (source != null) {
+                depth = Math.max(depth, source.depth);
+            }
+        }
+        this.depth = depth + 1;
     }
 
     public abstract String getDescriptor();
 
+    /**
+     * @return the length of the longest chain of operations from a constant to this value, 1 for a constant
+     */
+    public int getDepth() {
+        return depth;
+    }
+
     @Override
     public Iterator<T> iterator() {
-        return operation.accept(sources);
+        return possibleValues().iterator();
+    }
+
+    /**
+     * Returns all distinct possible values of this node. Values are immutable once constructed, so the operation is
+     * evaluated against its sources at most once and the result is shared by all later calls. Without this, every
+     * evaluation would walk the whole chain of source nodes again.
+     *
+     * @return an unmodifiable list of distinct possible values, possibly containing <code>null</code>
+     */
+    protected final List<T> possibleValues() {
+        List<T> values = possibleValues;
+        if (values == null) {
+            values = Collections.unmodifiableList(evaluate());
+            possibleValues = values;
+        }
+
+        return values;
+    }
+
+    /**
+     * Evaluates the operation against all possible values of the sources. Called at most once per node, see
+     * {@link #possibleValues()}.
+     *
+     * @return a list of distinct possible values
+     */
+    protected List<T> evaluate() {
+        List<T> list = new ArrayList<>();
+        operation.accept(sources).forEachRemaining(list::add);
+        return list;
+    }
+
+    /**
+     * Like {@link #evaluate()}, but stops at the given number of values. Operations produce their results lazily, so
+     * the remaining combinations of operand values are never computed.
+     *
+     * @return a list of at most <code>limit</code> distinct possible values
+     */
+    protected final List<T> evaluate(int limit) {
+        List<T> list = new ArrayList<>();
+        Iterator<T> values = operation.accept(sources);
+        while (list.size() < limit && values.hasNext()) {
+            list.add(values.next());
+        }
+
+        return list;
     }
 
     public Collection<T> values() {
-        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator(), 0), false)
-                .toList();
+        return possibleValues();
     }
 
     public abstract ConstantizationValue<T> ident();
 
     public abstract ConstantizationValue<T> merge(ConstantizationValue<T> other);
 
+    /**
+     * Returns whether merging <code>other</code> into this value would leave it unchanged, i.e., every possible value
+     * of <code>other</code> already is a possible value of this one. An unknown value may be anything, so it covers
+     * everything and is only covered by values standing for any value of the type. Merge points check this first and
+     * keep the existing instance, so a frame that has stabilized is recognized by identity instead of by comparing
+     * possible values.
+     *
+     * @return whether this value is at least as high in the lattice as <code>other</code>
+     */
+    public boolean covers(ConstantizationValue<T> other) {
+        if (this == other || isUnknown()) {
+            return true;
+        }
+
+        return !other.isUnknown() && possibleValues().containsAll(other.possibleValues());
+    }
+
+    /**
+     * @return whether nothing is known about this value, e.g., a parameter or the result of an operation on one. The
+     * top of the lattice: merging anything with an unknown value gives an unknown value.
+     */
+    public boolean isUnknown() {
+        return possibleValues().isEmpty();
+    }
+
+    /**
+     * @return whether this value no longer tracks its possible values one by one, having exceeded the limit of its type
+     */
+    public boolean isDegraded() {
+        return false;
+    }
+
+    /**
+     * Merges an incoming value into this one at a loop header, where the analyzer may revisit the merge any number of
+     * times. Unlike {@link #merge(ConstantizationValue)}, widening must reach a value that no longer changes after a
+     * bounded number of steps. Domains of bounded height can simply merge, which is the default.
+     *
+     * @param other the value flowing back into the loop header
+     * @return this very value if the other one adds nothing to it
+     */
+    public ConstantizationValue<T> widen(ConstantizationValue<T> other) {
+        return merge(other);
+    }
+
     @Override
     public abstract boolean equals(Object obj);
 
     @Override
     public String toString() {
-        List<T> list = StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator(), 0),
-                false).toList();
-        return list.stream().map(Object::toString).reduce((a, b) -> a + ", " + b).orElse("(empty)");
+        return possibleValues().stream().map(String::valueOf).reduce((a, b) -> a + ", " + b).orElse("(empty)");
     }
 
     public static final class UninitializedValue extends ConstantizationValue<Object> {
@@ -91,6 +196,11 @@ public abstract sealed class ConstantizationValue<T> implements Value, Iterable<
             return INSTANCE;
         }
 
+        @Override
+        public boolean covers(ConstantizationValue<Object> other) {
+            return true;
+        }
+
         @Override
         public boolean equals(Object obj) {
             return obj == INSTANCE;
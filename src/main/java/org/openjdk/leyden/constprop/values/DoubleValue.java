@@ -1,12 +1,21 @@
 package org.openjdk.leyden.constprop.values;
 
+import org.openjdk.leyden.constprop.operations.DoubleBinaryOperation;
+import org.openjdk.leyden.constprop.operations.DoubleUnaryOperation;
 import org.openjdk.leyden.constprop.operations.Operation;
 import org.openjdk.leyden.constprop.operations.UnaryOperation;
+import org.openjdk.leyden.constprop.util.LongSet;
 import org.openjdk.leyden.constprop.util.Pair;
 
+import java.util.Iterator;
+import java.util.List;
+
 public final class DoubleValue extends ValueTypeValue<Double> {
     public static final String TYPE_DESCRIPTOR = "D";
 
+    // possible values encoded with toKey()
+    private LongSet keys;
+
     public DoubleValue() {
         this(0d);
     }
@@ -47,4 +56,93 @@ public final class DoubleValue extends ValueTypeValue<Double> {
     public ConstantizationValue<Double> merge(ConstantizationValue<Double> other) {
         return new DoubleValue(mergeOperator(), this, other);
     }
+
+    /**
+     * @return all distinct possible values in ascending order of {@link Double#compare}
+     */
+    public double[] doubleValues() {
+        LongSet keys = keys();
+        double[] values = new double[keys.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = fromKey(keys.get(i));
+        }
+
+        return values;
+    }
+
+    private LongSet keys() {
+        LongSet values = keys;
+        if (values == null) {
+            values = evaluateKeys();
+            keys = values;
+        }
+
+        return values;
+    }
+
+    private LongSet evaluateKeys() {
+        if (operation instanceof DoubleUnaryOperation op) {
+            return keysOf(op.applyAll(doubleValuesOf(sources[0])));
+        }
+
+        if (operation instanceof DoubleBinaryOperation op) {
+            return keysOf(op.applyAll(doubleValuesOf(sources[0]), doubleValuesOf(sources[1])));
+        }
+
+        if (operation instanceof MergeOperation<Double> op) {
+            return keysOf(sources[0]).union(keysOf(sources[1])).limit(op.limit());
+        }
+
+        // NOTE: one value beyond the limit is enough to degrade, the remaining ones are never computed
+        LongSet.Builder builder = new LongSet.Builder();
+        Iterator<Double> values = operation.accept(sources);
+        for (int n = 0; n <= expandLimit() && values.hasNext(); n++) {
+            builder.add(toKey(values.next()));
+        }
+        return builder.build();
+    }
+
+    private static double[] doubleValuesOf(ConstantizationValue<?> value) {
+        if (value instanceof DoubleValue v) {
+            return v.doubleValues();
+        }
+
+        return value.values().stream().mapToDouble(v -> ((Number) v).doubleValue()).toArray();
+    }
+
+    private static LongSet keysOf(ConstantizationValue<?> value) {
+        if (value instanceof DoubleValue v) {
+            return v.keys();
+        }
+
+        return keysOf(doubleValuesOf(value));
+    }
+
+    private static LongSet keysOf(double[] values) {
+        LongSet.Builder builder = new LongSet.Builder(values.length);
+        for (double value : values) {
+            builder.add(toKey(value));
+        }
+
+        return builder.build();
+    }
+
+    /*
+     * Maps a double to a long whose signed order matches Double#compare, i.e. -0.0 sorts before 0.0 and NaN sorts
+     * last. The canonical NaN is used, so two keys are equal exactly when the boxed values are equal. The mapping is
+     * its own inverse.
+     */
+    private static long toKey(double value) {
+        long bits = Double.doubleToLongBits(value);
+        return bits ^ ((bits >> 63) & 0x7fffffffffffffffL);
+    }
+
+    private static double fromKey(long key) {
+        return Double.longBitsToDouble(key ^ ((key >> 63) & 0x7fffffffffffffffL));
+    }
+
+    @Override
+    protected List<Double> evaluate() {
+        return keys().mapToObj(DoubleValue::fromKey);
+    }
 }
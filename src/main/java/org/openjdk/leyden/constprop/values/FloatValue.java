@@ -1,12 +1,21 @@
 package org.openjdk.leyden.constprop.values;
 
+import org.openjdk.leyden.constprop.operations.FloatBinaryOperation;
+import org.openjdk.leyden.constprop.operations.FloatUnaryOperation;
 import org.openjdk.leyden.constprop.operations.Operation;
 import org.openjdk.leyden.constprop.operations.UnaryOperation;
+import org.openjdk.leyden.constprop.util.IntSet;
 import org.openjdk.leyden.constprop.util.Pair;
 
+import java.util.Iterator;
+import java.util.List;
+
 public final class FloatValue extends ValueTypeValue<Float> {
     public static final String TYPE_DESCRIPTOR = "F";
 
+    // possible values encoded with toKey()
+    private IntSet keys;
+
     public FloatValue() {
         this(0f);
     }
@@ -47,4 +56,99 @@ public final class FloatValue extends ValueTypeValue<Float> {
     public ConstantizationValue<Float> merge(ConstantizationValue<Float> other) {
         return new FloatValue(mergeOperator(), this, other);
     }
+
+    /**
+     * @return all distinct possible values in ascending order of {@link Float#compare}
+     */
+    public float[] floatValues() {
+        IntSet keys = keys();
+        float[] values = new float[keys.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = fromKey(keys.get(i));
+        }
+
+        return values;
+    }
+
+    private IntSet keys() {
+        IntSet values = keys;
+        if (values == null) {
+            values = evaluateKeys();
+            keys = values;
+        }
+
+        return values;
+    }
+
+    private IntSet evaluateKeys() {
+        if (operation instanceof FloatUnaryOperation op) {
+            return keysOf(op.applyAll(floatValuesOf(sources[0])));
+        }
+
+        if (operation instanceof FloatBinaryOperation op) {
+            return keysOf(op.applyAll(floatValuesOf(sources[0]), floatValuesOf(sources[1])));
+        }
+
+        if (operation instanceof MergeOperation<Float> op) {
+            return keysOf(sources[0]).union(keysOf(sources[1])).limit(op.limit());
+        }
+
+        // NOTE: one value beyond the limit is enough to degrade, the remaining ones are never computed
+        IntSet.Builder builder = new IntSet.Builder();
+        Iterator<Float> values = operation.accept(sources);
+        for (int n = 0; n <= expandLimit() && values.hasNext(); n++) {
+            builder.add(toKey(values.next()));
+        }
+        return builder.build();
+    }
+
+    private static float[] floatValuesOf(ConstantizationValue<?> value) {
+        if (value instanceof FloatValue v) {
+            return v.floatValues();
+        }
+
+        List<?> list = List.copyOf(value.values());
+        float[] values = new float[list.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = ((Number) list.get(i)).floatValue();
+        }
+
+        return values;
+    }
+
+    private static IntSet keysOf(ConstantizationValue<?> value) {
+        if (value instanceof FloatValue v) {
+            return v.keys();
+        }
+
+        return keysOf(floatValuesOf(value));
+    }
+
+    private static IntSet keysOf(float[] values) {
+        IntSet.Builder builder = new IntSet.Builder(values.length);
+        for (float value : values) {
+            builder.add(toKey(value));
+        }
+
+        return builder.build();
+    }
+
+    /*
+     * Maps a float to an int whose signed order matches Float#compare, i.e. -0.0 sorts before 0.0 and NaN sorts
+     * last. The canonical NaN is used, so two keys are equal exactly when the boxed values are equal. The mapping is
+     * its own inverse.
+     */
+    private static int toKey(float value) {
+        int bits = Float.floatToIntBits(value);
+        return bits ^ ((bits >> 31) & 0x7fffffff);
+    }
+
+    private static float fromKey(int key) {
+        return Float.intBitsToFloat(key ^ ((key >> 31) & 0x7fffffff));
+    }
+
+    @Override
+    protected List<Float> evaluate() {
+        return keys().mapToObj(FloatValue::fromKey);
+    }
 }
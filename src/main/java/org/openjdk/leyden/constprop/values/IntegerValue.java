@@ -1,12 +1,21 @@
 package org.openjdk.leyden.constprop.values;
 
+import org.openjdk.leyden.constprop.operations.IntBinaryOperation;
+import org.openjdk.leyden.constprop.operations.IntUnaryOperation;
+import org.openjdk.leyden.constprop.operations.NewOperation;
 import org.openjdk.leyden.constprop.operations.Operation;
-import org.openjdk.leyden.constprop.operations.UnaryOperation;
+import org.openjdk.leyden.constprop.util.IntInterval;
+import org.openjdk.leyden.constprop.util.IntSet;
 import org.openjdk.leyden.constprop.util.Pair;
 
+import java.util.List;
+import java.util.Objects;
+
 public final class IntegerValue extends ValueTypeValue<Integer> {
     public static final String TYPE_DESCRIPTOR = "I";
 
+    private Evaluation evaluation;
+
     public IntegerValue() {
         this(0);
     }
@@ -23,6 +32,15 @@ public final class IntegerValue extends ValueTypeValue<Integer> {
         super(operation, sources);
     }
 
+    /**
+     * @return a value known only to lie within <code>range</code>, e.g., one read back from a result cache
+     */
+    public static IntegerValue ofRange(IntInterval range) {
+        IntegerValue value = new IntegerValue(NewOperation.unknown());
+        value.evaluation = new Evaluation(null, range, 0);
+        return value;
+    }
+
     @Override
     public Pair<Integer, Integer> typeMinMax() {
         return Pair.of(Integer.MIN_VALUE, Integer.MAX_VALUE);
@@ -40,11 +58,281 @@ public final class IntegerValue extends ValueTypeValue<Integer> {
 
     @Override
     public ConstantizationValue<Integer> ident() {
-        return new IntegerValue(UnaryOperation.identity(), this);
+        return new IntegerValue(IntUnaryOperation.identity(), this);
     }
 
     @Override
     public ConstantizationValue<Integer> merge(ConstantizationValue<Integer> other) {
         return new IntegerValue(mergeOperator(), this, other);
     }
+
+    @Override
+    public ConstantizationValue<Integer> widen(ConstantizationValue<Integer> other) {
+        return widen(other, IntSet.empty());
+    }
+
+    /**
+     * Small exact sets are unioned as in {@link #merge(ConstantizationValue)}. Once this value is an interval, a
+     * growing bound jumps to the nearest threshold, see {@link IntInterval#widen(IntInterval, IntSet)}.
+     *
+     * @param thresholds candidate bounds, typically the constants of the method being analyzed
+     * @return this very value if the other one adds nothing to it
+     */
+    public ConstantizationValue<Integer> widen(ConstantizationValue<Integer> other, IntSet thresholds) {
+        Evaluation existing = evaluation();
+        Evaluation widened = widen(existing, evaluationOf(other), thresholds);
+        if (widened == existing) {
+            return this;
+        }
+
+        // NOTE: the node records where the value came from, its evaluation is already known
+        IntegerValue value = new IntegerValue(mergeOperator(), this, other);
+        value.evaluation = widened;
+        return value;
+    }
+
+    /**
+     * @return all distinct possible values in ascending order, empty if unknown or if only a range is known
+     */
+    public IntSet intValues() {
+        Evaluation evaluation = evaluation();
+        return evaluation.range() == null ? evaluation.values() : IntSet.empty();
+    }
+
+    /**
+     * @return an interval containing all possible values, or <code>null</code> if unknown
+     */
+    public IntInterval intRange() {
+        Evaluation evaluation = evaluation();
+        if (evaluation.range() != null) {
+            return evaluation.range();
+        }
+
+        return evaluation.values().isEmpty() ? null : IntInterval.hull(evaluation.values());
+    }
+
+    /**
+     * The possible values of an int: an exact set of at most {@link #expandLimit()} values, or, beyond that,
+     * an interval containing all of them. <code>expansions</code> counts how many merges have grown the interval so
+     * far.
+     */
+    record Evaluation(IntSet values, IntInterval range, int expansions) {
+        boolean isUnknown() {
+            return range == null && values.isEmpty();
+        }
+
+        IntInterval hull() {
+            return range != null ? range : IntInterval.hull(values);
+        }
+    }
+
+    Evaluation evaluation() {
+        Evaluation e = evaluation;
+        if (e == null) {
+            e = evaluateInts();
+            evaluation = e;
+        }
+
+        return e;
+    }
+
+    private Evaluation evaluateInts() {
+        if (operation instanceof IntUnaryOperation op) {
+            Evaluation operand = evaluationOf(sources[0]);
+            if (operand.range() == null) {
+                return exact(IntSet.of(op.applyAll(operand.values().toArray())), operand.expansions());
+            }
+
+            return new Evaluation(null, op.applyRange(operand.range()), operand.expansions());
+        }
+
+        if (operation instanceof IntBinaryOperation op) {
+            Evaluation operand1 = evaluationOf(sources[0]);
+            Evaluation operand2 = evaluationOf(sources[1]);
+            int expansions = Math.max(operand1.expansions(), operand2.expansions());
+
+            // NOTE: an unknown operand makes the result unknown, as in NArayOperation#applyAll
+            if (operand1.isUnknown() || operand2.isUnknown()) {
+                return exact(IntSet.empty(), expansions);
+            }
+
+            if (operand1.range() == null && operand2.range() == null) {
+                int[] results = op.applyAll(operand1.values().toArray(), operand2.values().toArray());
+                return exact(IntSet.of(results), expansions);
+            }
+
+            return new Evaluation(null, op.applyRange(operand1.hull(), operand2.hull()), expansions);
+        }
+
+        if (operation instanceof MergeOperation<Integer>) {
+            return merge(evaluationOf(sources[0]), evaluationOf(sources[1]));
+        }
+
+        IntSet.Builder builder = new IntSet.Builder();
+        operation.accept(sources).forEachRemaining(builder::add);
+        return exact(builder.build(), 0);
+    }
+
+    private Evaluation exact(IntSet values, int expansions) {
+        if (values.size() > expandLimit()) {
+            return new Evaluation(null, IntInterval.hull(values), expansions);
+        }
+
+        return new Evaluation(values, null, expansions);
+    }
+
+    /*
+     * Merges the existing value at a merge point with an incoming one. Sets are unioned while they stay small; after
+     * that the merge is the O(1) hull of both intervals. An interval that keeps growing is expanded at most
+     * expandLimit() times, after which the growing bounds jump to the type bounds so that loops converge.
+     */
+    private Evaluation merge(Evaluation existing, Evaluation incoming) {
+        // NOTE: an unknown value may be anything, so the union is unknown too, as in the boxed merge operator
+        if (existing.isUnknown()) {
+            return existing;
+        }
+
+        if (incoming.isUnknown()) {
+            return incoming;
+        }
+
+        int expansions = Math.max(existing.expansions(), incoming.expansions());
+        if (existing.range() == null && incoming.range() == null) {
+            return exact(existing.values().union(incoming.values()), expansions);
+        }
+
+        IntInterval before = existing.hull();
+        IntInterval after = before.join(incoming.hull());
+        if (after.equals(before)) {
+            return new Evaluation(null, after, expansions);
+        }
+
+        if (++expansions > expandLimit()) {
+            after = IntInterval.of(after.min() < before.min() ? Integer.MIN_VALUE : after.min(),
+                    after.max() > before.max() ? Integer.MAX_VALUE : after.max());
+        }
+
+        return new Evaluation(null, after, expansions);
+    }
+
+    private Evaluation widen(Evaluation existing, Evaluation incoming, IntSet thresholds) {
+        if (existing.isUnknown()) {
+            return existing;
+        }
+
+        if (incoming.isUnknown()) {
+            return incoming;
+        }
+
+        if (existing.range() == null && incoming.range() == null) {
+            IntSet union = existing.values().union(incoming.values());
+            if (union.size() == existing.values().size()) {
+                return existing;
+            }
+
+            if (union.size() <= expandLimit()) {
+                return new Evaluation(union, null, existing.expansions());
+            }
+        }
+
+        IntInterval range = existing.hull().widen(incoming.hull(), thresholds);
+        if (range.equals(existing.range())) {
+            return existing;
+        }
+
+        return new Evaluation(null, range, existing.expansions());
+    }
+
+    private Evaluation evaluationOf(ConstantizationValue<?> value) {
+        if (value instanceof IntegerValue v) {
+            return v.evaluation();
+        }
+
+        IntSet.Builder builder = new IntSet.Builder();
+        value.forEach(v -> builder.add(((Number) v).intValue()));
+        return exact(builder.build(), 0);
+    }
+
+    @Override
+    public Pair<Integer, Integer> extrema() {
+        IntInterval range = evaluation().range();
+        if (range != null) {
+            return Pair.of(range.min(), range.max());
+        }
+
+        return super.extrema();
+    }
+
+    /**
+     * A value only known by its range cannot be enumerated, so generic operations on it give an unknown value, which
+     * merges keep, see {@link #isUnknown()}.
+     */
+    @Override
+    protected List<Integer> evaluate() {
+        return intValues().mapToObj(Integer::valueOf);
+    }
+
+    @Override
+    public boolean isUnknown() {
+        return evaluation().isUnknown();
+    }
+
+    /**
+     * An int is degraded once only a range of its values is known.
+     */
+    @Override
+    public boolean isDegraded() {
+        return evaluation().range() != null;
+    }
+
+    @Override
+    public boolean covers(ConstantizationValue<Integer> other) {
+        if (this == other) {
+            return true;
+        }
+
+        Evaluation existing = evaluation();
+        Evaluation incoming = evaluationOf(other);
+        if (existing.isUnknown()) {
+            return true;
+        }
+
+        if (incoming.isUnknown()) {
+            // NOTE: the full range also stands for any value
+            return existing.range() != null && existing.range().equals(IntInterval.FULL);
+        }
+
+        if (existing.range() != null) {
+            return existing.range().contains(incoming.hull());
+        }
+
+        return incoming.range() == null && existing.values().containsAll(incoming.values());
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
+        if (obj instanceof IntegerValue other) {
+            Evaluation e1 = evaluation();
+            Evaluation e2 = other.evaluation();
+            return Objects.equals(e1.range(), e2.range()) && Objects.equals(e1.values(), e2.values());
+        }
+
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        Evaluation evaluation = evaluation();
+        return Objects.hash(evaluation.range(), evaluation.values());
+    }
+
+    @Override
+    public String toString() {
+        IntInterval range = evaluation().range();
+        return range != null ? range.toString() : super.toString();
+    }
 }
@@ -1,12 +1,21 @@
 package org.openjdk.leyden.constprop.values;
 
+import org.openjdk.leyden.constprop.operations.LongBinaryOperation;
+import org.openjdk.leyden.constprop.operations.LongUnaryOperation;
+import org.openjdk.leyden.constprop.operations.NewOperation;
 import org.openjdk.leyden.constprop.operations.Operation;
-import org.openjdk.leyden.constprop.operations.UnaryOperation;
+import org.openjdk.leyden.constprop.util.LongInterval;
+import org.openjdk.leyden.constprop.util.LongSet;
 import org.openjdk.leyden.constprop.util.Pair;
 
+import java.util.List;
+import java.util.Objects;
+
 public final class LongValue extends ValueTypeValue<Long> {
     public static final String TYPE_DESCRIPTOR = "J";
 
+    private Evaluation evaluation;
+
     public LongValue() {
         this(0L);
     }
@@ -23,6 +32,15 @@ public final class LongValue extends ValueTypeValue<Long> {
         super(operation, sources);
     }
 
+    /**
+     * @return a value known only to lie within <code>range</code>, e.g., one read back from a result cache
+     */
+    public static LongValue ofRange(LongInterval range) {
+        LongValue value = new LongValue(NewOperation.unknown());
+        value.evaluation = new Evaluation(null, range, 0);
+        return value;
+    }
+
     @Override
     public Pair<Long, Long> typeMinMax() {
         return Pair.of(Long.MIN_VALUE, Long.MAX_VALUE);
@@ -40,11 +58,288 @@ public final class LongValue extends ValueTypeValue<Long> {
 
     @Override
     public ConstantizationValue<Long> ident() {
-        return new LongValue(UnaryOperation.identity(), this);
+        return new LongValue(LongUnaryOperation.identity(), this);
     }
 
     @Override
     public ConstantizationValue<Long> merge(ConstantizationValue<Long> other) {
         return new LongValue(mergeOperator(), this, other);
     }
+
+    @Override
+    public ConstantizationValue<Long> widen(ConstantizationValue<Long> other) {
+        return widen(other, LongSet.empty());
+    }
+
+    /**
+     * Small exact sets are unioned as in {@link #merge(ConstantizationValue)}. Once this value is an interval, a
+     * growing bound jumps to the nearest threshold, see {@link LongInterval#widen(LongInterval, LongSet)}.
+     *
+     * @param thresholds candidate bounds, typically the constants of the method being analyzed
+     * @return this very value if the other one adds nothing to it
+     */
+    public ConstantizationValue<Long> widen(ConstantizationValue<Long> other, LongSet thresholds) {
+        Evaluation existing = evaluation();
+        Evaluation widened = widen(existing, evaluationOf(other), thresholds);
+        if (widened == existing) {
+            return this;
+        }
+
+        // NOTE: the node records where the value came from, its evaluation is already known
+        LongValue value = new LongValue(mergeOperator(), this, other);
+        value.evaluation = widened;
+        return value;
+    }
+
+    /**
+     * @return all distinct possible values in ascending order, empty if unknown or if only a range is known
+     */
+    public LongSet longValues() {
+        Evaluation evaluation = evaluation();
+        return evaluation.range() == null ? evaluation.values() : LongSet.empty();
+    }
+
+    /**
+     * @return an interval containing all possible values, or <code>null</code> if unknown
+     */
+    public LongInterval longRange() {
+        Evaluation evaluation = evaluation();
+        if (evaluation.range() != null) {
+            return evaluation.range();
+        }
+
+        return evaluation.values().isEmpty() ? null : LongInterval.hull(evaluation.values());
+    }
+
+    /**
+     * The possible values of a long: an exact set of at most {@link #expandLimit()} values, or, beyond that,
+     * an interval containing all of them. <code>expansions</code> counts how many merges have grown the interval so
+     * far.
+     */
+    record Evaluation(LongSet values, LongInterval range, int expansions) {
+        boolean isUnknown() {
+            return range == null && values.isEmpty();
+        }
+
+        LongInterval hull() {
+            return range != null ? range : LongInterval.hull(values);
+        }
+    }
+
+    Evaluation evaluation() {
+        Evaluation e = evaluation;
+        if (e == null) {
+            e = evaluateLongs();
+            evaluation = e;
+        }
+
+        return e;
+    }
+
+    private Evaluation evaluateLongs() {
+        if (operation instanceof LongUnaryOperation op) {
+            Evaluation operand = evaluationOf(sources[0]);
+            if (operand.range() == null) {
+                return exact(LongSet.of(op.applyAll(operand.values().toArray())), operand.expansions());
+            }
+
+            return new Evaluation(null, op.applyRange(operand.range()), operand.expansions());
+        }
+
+        if (operation instanceof LongBinaryOperation op) {
+            Evaluation operand1 = evaluationOf(sources[0]);
+            Evaluation operand2 = evaluationOf(sources[1]);
+            int expansions = Math.max(operand1.expansions(), operand2.expansions());
+
+            // NOTE: an unknown operand makes the result unknown, as in NArayOperation#applyAll
+            if (operand1.isUnknown() || operand2.isUnknown()) {
+                return exact(LongSet.empty(), expansions);
+            }
+
+            if (operand1.range() == null && operand2.range() == null) {
+                long[] results = op.applyAll(operand1.values().toArray(), operand2.values().toArray());
+                return exact(LongSet.of(results), expansions);
+            }
+
+            return new Evaluation(null, op.applyRange(operand1.hull(), operand2.hull()), expansions);
+        }
+
+        if (operation instanceof MergeOperation<Long>) {
+            return merge(evaluationOf(sources[0]), evaluationOf(sources[1]));
+        }
+
+        LongSet.Builder builder = new LongSet.Builder();
+        operation.accept(sources).forEachRemaining(builder::add);
+        return exact(builder.build(), 0);
+    }
+
+    private Evaluation exact(LongSet values, int expansions) {
+        if (values.size() > expandLimit()) {
+            return new Evaluation(null, LongInterval.hull(values), expansions);
+        }
+
+        return new Evaluation(values, null, expansions);
+    }
+
+    /*
+     * Merges the existing value at a merge point with an incoming one. Sets are unioned while they stay small; after
+     * that the merge is the O(1) hull of both intervals. An interval that keeps growing is expanded at most
+     * expandLimit() times, after which the growing bounds jump to the type bounds so that loops converge.
+     */
+    private Evaluation merge(Evaluation existing, Evaluation incoming) {
+        // NOTE: an unknown value may be anything, so the union is unknown too, as in the boxed merge operator
+        if (existing.isUnknown()) {
+            return existing;
+        }
+
+        if (incoming.isUnknown()) {
+            return incoming;
+        }
+
+        int expansions = Math.max(existing.expansions(), incoming.expansions());
+        if (existing.range() == null && incoming.range() == null) {
+            return exact(existing.values().union(incoming.values()), expansions);
+        }
+
+        LongInterval before = existing.hull();
+        LongInterval after = before.join(incoming.hull());
+        if (after.equals(before)) {
+            return new Evaluation(null, after, expansions);
+        }
+
+        if (++expansions > expandLimit()) {
+            after = LongInterval.of(after.min() < before.min() ? Long.MIN_VALUE : after.min(),
+                    after.max() > before.max() ? Long.MAX_VALUE : after.max());
+        }
+
+        return new Evaluation(null, after, expansions);
+    }
+
+    private Evaluation widen(Evaluation existing, Evaluation incoming, LongSet thresholds) {
+        if (existing.isUnknown()) {
+            return existing;
+        }
+
+        if (incoming.isUnknown()) {
+            return incoming;
+        }
+
+        if (existing.range() == null && incoming.range() == null) {
+            LongSet union = existing.values().union(incoming.values());
+            if (union.size() == existing.values().size()) {
+                return existing;
+            }
+
+            if (union.size() <= expandLimit()) {
+                return new Evaluation(union, null, existing.expansions());
+            }
+        }
+
+        LongInterval range = existing.hull().widen(incoming.hull(), thresholds);
+        if (range.equals(existing.range())) {
+            return existing;
+        }
+
+        return new Evaluation(null, range, existing.expansions());
+    }
+
+    private Evaluation evaluationOf(ConstantizationValue<?> value) {
+        if (value instanceof LongValue v) {
+            return v.evaluation();
+        }
+
+        if (value instanceof IntegerValue v) {
+            IntegerValue.Evaluation e = v.evaluation();
+            return e.range() == null
+                    ? new Evaluation(LongSet.of(e.values().stream().asLongStream().toArray()), null, e.expansions())
+                    : new Evaluation(null, LongInterval.of(e.range().min(), e.range().max()), e.expansions());
+        }
+
+        LongSet.Builder builder = new LongSet.Builder();
+        value.forEach(v -> builder.add(((Number) v).longValue()));
+        return exact(builder.build(), 0);
+    }
+
+    @Override
+    public Pair<Long, Long> extrema() {
+        LongInterval range = evaluation().range();
+        if (range != null) {
+            return Pair.of(range.min(), range.max());
+        }
+
+        return super.extrema();
+    }
+
+    /**
+     * A value only known by its range cannot be enumerated, so generic operations on it give an unknown value, which
+     * merges keep, see {@link #isUnknown()}.
+     */
+    @Override
+    protected List<Long> evaluate() {
+        return longValues().mapToObj(Long::valueOf);
+    }
+
+    @Override
+    public boolean isUnknown() {
+        return evaluation().isUnknown();
+    }
+
+    /**
+     * A long is degraded once only a range of its values is known.
+     */
+    @Override
+    public boolean isDegraded() {
+        return evaluation().range() != null;
+    }
+
+    @Override
+    public boolean covers(ConstantizationValue<Long> other) {
+        if (this == other) {
+            return true;
+        }
+
+        Evaluation existing = evaluation();
+        Evaluation incoming = evaluationOf(other);
+        if (existing.isUnknown()) {
+            return true;
+        }
+
+        if (incoming.isUnknown()) {
+            // NOTE: the full range also stands for any value
+            return existing.range() != null && existing.range().equals(LongInterval.FULL);
+        }
+
+        if (existing.range() != null) {
+            return existing.range().contains(incoming.hull());
+        }
+
+        return incoming.range() == null && existing.values().containsAll(incoming.values());
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
+        if (obj instanceof LongValue other) {
+            Evaluation e1 = evaluation();
+            Evaluation e2 = other.evaluation();
+            return Objects.equals(e1.range(), e2.range()) && Objects.equals(e1.values(), e2.values());
+        }
+
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        Evaluation evaluation = evaluation();
+        return Objects.hash(evaluation.range(), evaluation.values());
+    }
+
+    @Override
+    public String toString() {
+        LongInterval range = evaluation().range();
+        return range != null ? range.toString() : super.toString();
+    }
 }
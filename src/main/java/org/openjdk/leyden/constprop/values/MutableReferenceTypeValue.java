@@ -5,41 +5,43 @@ import org.openjdk.leyden.constprop.operations.Operation;
 import org.openjdk.leyden.constprop.operations.UnaryOperation;
 
 public non-sealed class MutableReferenceTypeValue<T extends AbstractMutableObjectDescriptor> extends ReferenceTypeValue<T> {
-    private static int ID_COUNTER = 0;
-
-    private final long id;
+    // NOTE: unique within the ReferenceIdArena of the analysis creating this value, not globally
+    private final int id;
 
     public MutableReferenceTypeValue(String descriptor) {
         super(descriptor);
 
-        id = ID_COUNTER++;
+        id = ReferenceIdArena.current().allocate();
     }
 
     public MutableReferenceTypeValue(String descriptor, T value) {
         super(descriptor, value);
 
-        id = ID_COUNTER++;
+        id = ReferenceIdArena.current().allocate();
     }
 
     public MutableReferenceTypeValue(String descriptor, Operation<T> operation) {
         super(descriptor, operation);
 
-        id = ID_COUNTER++;
+        id = ReferenceIdArena.current().allocate();
     }
 
     public MutableReferenceTypeValue(String descriptor, Operation<T> operation, ConstantizationValue<?>... sources) {
         super(descriptor, operation, sources);
 
-        id = ID_COUNTER++;
+        id = ReferenceIdArena.current().allocate();
     }
 
-    private MutableReferenceTypeValue(long id, String descriptor, Operation<T> operation, ConstantizationValue<?>... sources) {
+    private MutableReferenceTypeValue(int id,
+                                      String descriptor,
+                                      Operation<T> operation,
+                                      ConstantizationValue<?>... sources) {
         super(descriptor, operation, sources);
 
         this.id = id;
     }
 
-    public final long getId() {
+    public final int getId() {
         return id;
     }
 
@@ -0,0 +1,55 @@
+package org.openjdk.leyden.constprop.values;
+
+/**
+ * Allocates the identities of {@link MutableReferenceTypeValue}s within one analysis, e.g., of one method. Identities
+ * are dense and start from 0, so they can index arrays directly, and they do not grow across analyses.
+ * <p>
+ * An arena belongs to the thread that opened it. Values pick up the arena of the thread creating them, so analyses
+ * running in parallel on different threads allocate without any synchronization.
+ */
+public final class ReferenceIdArena {
+    private static final ThreadLocal<ReferenceIdArena> CURRENT = new ThreadLocal<>();
+
+    private int size;
+
+    private ReferenceIdArena() {
+    }
+
+    /**
+     * Opens a new arena for the current thread, replacing the previous one. Values created before keep their
+     * identities, which must not be mixed with those of the new arena.
+     *
+     * @return the new arena
+     */
+    public static ReferenceIdArena open() {
+        ReferenceIdArena arena = new ReferenceIdArena();
+        CURRENT.set(arena);
+        return arena;
+    }
+
+    /**
+     * Makes an arena opened earlier current again, e.g., once a nested analysis that opened its own arena is done.
+     */
+    public static void restore(ReferenceIdArena arena) {
+        CURRENT.set(arena);
+    }
+
+    /**
+     * @return the arena of the current thread, opening one if there is none
+     */
+    public static ReferenceIdArena current() {
+        ReferenceIdArena arena = CURRENT.get();
+        return arena != null ? arena : open();
+    }
+
+    int allocate() {
+        return size++;
+    }
+
+    /**
+     * @return the number of identities allocated so far, all of which are less than it
+     */
+    public int size() {
+        return size;
+    }
+}
@@ -6,8 +6,8 @@ import org.openjdk.leyden.constprop.operations.Operation;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Objects;
-import java.util.Spliterators;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
@@ -63,24 +63,9 @@ public abstract sealed class ReferenceTypeValue<T> extends ConstantizationValue<
         return DEFAULT_UNION_SET_LIMIT;
     }
 
-    @Override
-    public Iterator<T> iterator() {
-        return StreamSupport
-                .stream(Spliterators.spliteratorUnknownSize(super.iterator(), 0), false)
-                .distinct()
-                .iterator();
-    }
-
-    private Collection<T> distinctValues() {
-        return StreamSupport
-                .stream(this.spliterator(), false)
-                .distinct()
-                .toList();
-    }
-
     @Override
     public Collection<T> values() {
-        Collection<T> values = distinctValues();
+        Collection<T> values = possibleValues();
 
         if (values.size() > unionSetLimit()) {
             return Collections.emptyList();
@@ -90,7 +75,7 @@ public abstract sealed class ReferenceTypeValue<T> extends ConstantizationValue<
     }
 
     public String toString() {
-        Collection<T> values = distinctValues();
+        Collection<T> values = possibleValues();
 
         if (values.size() > unionSetLimit()) {
             return "(degraded)";
@@ -104,6 +89,11 @@ public abstract sealed class ReferenceTypeValue<T> extends ConstantizationValue<
         return new BinaryOperation<>() {
             @Override
             public Iterator<T> applyAll(ConstantizationValue<T> operand1, ConstantizationValue<T> operand2) {
+                // NOTE: an unknown operand may be any value, so the union is unknown too
+                if (operand1.isUnknown() || operand2.isUnknown()) {
+                    return Collections.emptyIterator();
+                }
+
                 return Stream.concat(
                                 StreamSupport.stream(operand1.spliterator(), false),
                                 StreamSupport.stream(operand2.spliterator(), false))
@@ -119,6 +109,27 @@ public abstract sealed class ReferenceTypeValue<T> extends ConstantizationValue<
         };
     }
 
+    /**
+     * A degraded value stands for any value of its type, so it covers everything.
+     */
+    @Override
+    public boolean covers(ConstantizationValue<T> other) {
+        return possibleValues().size() > unionSetLimit() || super.covers(other);
+    }
+
+    @Override
+    public boolean isDegraded() {
+        return possibleValues().size() > unionSetLimit();
+    }
+
+    /**
+     * Stops as soon as the value is known to be degraded, as any further values would be dropped anyway.
+     */
+    @Override
+    protected List<T> evaluate() {
+        return evaluate(unionSetLimit() + 1);
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (this == obj) {
@@ -126,8 +137,13 @@ public abstract sealed class ReferenceTypeValue<T> extends ConstantizationValue<
         }
 
         if (obj instanceof ReferenceTypeValue<?> other) {
-            Collection<?> thisValues = distinctValues();
-            Collection<?> thatValues = other.distinctValues();
+            // NOTE: a degraded value only holds the values found before its limit, but stands for the whole type
+            if (other.getClass() == getClass() && isDegraded() && other.isDegraded()) {
+                return true;
+            }
+
+            Collection<?> thisValues = possibleValues();
+            Collection<?> thatValues = other.possibleValues();
 
             if (thisValues.size() != thatValues.size()) {
                 return false;
@@ -4,10 +4,10 @@ import org.openjdk.leyden.constprop.operations.BinaryOperation;
 import org.openjdk.leyden.constprop.operations.Operation;
 import org.openjdk.leyden.constprop.util.Pair;
 
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
-import java.util.Spliterators;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
@@ -29,29 +29,27 @@ public abstract sealed class ValueTypeValue<T extends Comparable<T>> extends Con
         super(operation, sources);
     }
 
+    /**
+     * Subclasses keep their possible values in primitive sets and return them as an ascending list view, so no boxed
+     * copy is made up front and the extrema are simply the first and last elements.
+     *
+     * @return a list of distinct possible values in ascending order
+     */
     @Override
-    public Iterator<T> iterator() {
-        return StreamSupport
-                .stream(Spliterators.spliteratorUnknownSize(super.iterator(), 0), false)
-                .distinct()
-                .iterator();
-    }
+    protected abstract List<T> evaluate();
 
     public Pair<T, T> extrema() {
-        List<T> values = StreamSupport
-                .stream(Spliterators.spliteratorUnknownSize(super.iterator(), 0), false)
-                .distinct()
-                .toList();
+        List<T> values = possibleValues();
 
         if (values.size() > expandLimit()) {
             return typeMinMax();
         }
 
-        final Pair<T, T> extrema = Pair.of(null, null);
-        values.stream().max(T::compareTo).ifPresent(extrema::right);
-        values.stream().min(T::compareTo).ifPresent(extrema::left);
+        if (values.isEmpty()) {
+            return Pair.of(null, null);
+        }
 
-        return extrema;
+        return Pair.of(values.get(0), values.get(values.size() - 1));
     }
 
     public abstract Pair<T, T> typeMinMax();
@@ -65,32 +63,77 @@ public abstract sealed class ValueTypeValue<T extends Comparable<T>> extends Con
 
     // TODO: clean up duplicated code
     protected BinaryOperation<T, T, T> mergeOperator() {
-        return new BinaryOperation<>() {
-            @Override
-            public Iterator<T> applyAll(ConstantizationValue<T> operand1, ConstantizationValue<T> operand2) {
-                return Stream.concat(
-                                StreamSupport.stream(operand1.spliterator(), false),
-                                StreamSupport.stream(operand2.spliterator(), false))
-                        .distinct()
-                        .limit(expandLimit() + 1)
-                        .iterator();
-            }
+        return new MergeOperation<>(expandLimit() + 1);
+    }
 
-            @Override
-            public String toString() {
-                return "merge op";
+    /**
+     * The union of two values, truncated to <code>limit</code> elements. Recognized by subclasses so they can merge
+     * their primitive sets directly.
+     */
+    static final class MergeOperation<T> extends BinaryOperation<T, T, T> {
+        private final int limit;
+
+        MergeOperation(int limit) {
+            this.limit = limit;
+        }
+
+        int limit() {
+            return limit;
+        }
+
+        @Override
+        public Iterator<T> applyAll(ConstantizationValue<T> operand1, ConstantizationValue<T> operand2) {
+            // NOTE: an unknown operand may be any value, so the union is unknown too
+            if (operand1.isUnknown() || operand2.isUnknown()) {
+                return Collections.emptyIterator();
             }
-        };
+
+            return Stream.concat(
+                            StreamSupport.stream(operand1.spliterator(), false),
+                            StreamSupport.stream(operand2.spliterator(), false))
+                    .distinct()
+                    .limit(limit)
+                    .iterator();
+        }
+
+        @Override
+        public String toString() {
+            return "merge op";
+        }
+    }
+
+    /**
+     * A degraded value stands for any value of its type, so it covers everything.
+     */
+    @Override
+    public boolean covers(ConstantizationValue<T> other) {
+        return possibleValues().size() > expandLimit() || super.covers(other);
     }
 
+    @Override
+    public boolean isDegraded() {
+        return possibleValues().size() > expandLimit();
+    }
+
+    /**
+     * Two values are equal if they have the same possible values. Degraded values are all equal, as each of them stands
+     * for the whole type.
+     */
     @Override
     public boolean equals(Object obj) {
         if (this == obj) {
             return true;
         }
 
-        if (obj instanceof ValueTypeValue<?> other) {
-            return extrema().equals(other.extrema());
+        if (obj instanceof ValueTypeValue<?> other && other.getClass() == getClass()) {
+            List<T> values = possibleValues();
+            List<?> otherValues = other.possibleValues();
+
+            if (values.size() > expandLimit() && otherValues.size() > other.expandLimit()) {
+                return true;
+            }
+
+            return values.equals(otherValues);
         }
 
         return false;
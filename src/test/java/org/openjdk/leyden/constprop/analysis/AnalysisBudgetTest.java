@@ -0,0 +1,144 @@
+package org.openjdk.leyden.constprop.analysis;
+
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.analysis.AnalyzerException;
+import org.objectweb.asm.tree.analysis.Frame;
+import org.openjdk.leyden.constprop.values.ConstantizationValue;
+import org.openjdk.leyden.constprop.values.IntegerValue;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.openjdk.leyden.constprop.analysis.TestClasses.getMethodNode;
+
+public class AnalysisBudgetTest {
+    public static class BudgetTarget {
+        public static int chain() {
+            int x = 1;
+            x = x + 1;
+            x = x * 3;
+            x = x - 2;
+            x = x << 1;
+            x = x + 7;
+            return x;
+        }
+
+        public static int product(int a) {
+            int x = a > 0 ? 1 : 2;
+            int y = a > 1 ? 3 : 4;
+            return x * y;
+        }
+
+        public static int loop() {
+            int sum = 0;
+            for (int i = 0; i < 10; i++) {
+                sum += 10;
+            }
+            return sum;
+        }
+    }
+
+    private static ConstantizationValue<?> returnedValue(ConstantizationAnalyzer analyzer, String name)
+            throws AnalyzerException {
+        MethodNode method = getMethodNode(BudgetTarget.class, name);
+        Frame<ConstantizationValue<?>>[] frames = analyzer.analyze(Type.getInternalName(BudgetTarget.class), method);
+        for (int i = 0; i < method.instructions.size(); i++) {
+            if (method.instructions.get(i).getOpcode() == Opcodes.IRETURN) {
+                Frame<ConstantizationValue<?>> frame = frames[i];
+                return frame.getStack(frame.getStackSize() - 1);
+            }
+        }
+
+        throw new AssertionError("No IRETURN in " + name);
+    }
+
+    private static Collection<?> returnedValues(ConstantizationAnalyzer analyzer, String name)
+            throws AnalyzerException {
+        return returnedValue(analyzer, name).values();
+    }
+
+    /**
+     * Asserts that a value computed within a budget still includes every value the method may actually return.
+     */
+    private static void assertSound(ConstantizationValue<?> value, int... actual) {
+        for (int v : actual) {
+            assertTrue(((IntegerValue) value).covers(new IntegerValue(v)), v + " not in " + value);
+        }
+    }
+
+    @Test
+    void testUnlimited() throws AnalyzerException {
+        ConstantizationAnalyzer analyzer = new ConstantizationAnalyzer();
+        assertEquals(List.of(15), returnedValues(analyzer, "chain"));
+        assertEquals(Set.of(3, 4, 6, 8), Set.copyOf(returnedValues(analyzer, "product")));
+        assertTrue(analyzer.getExceededLimits().isEmpty());
+    }
+
+    @Test
+    void testInstructionVisits() throws AnalyzerException {
+        ConstantizationAnalyzer analyzer = new ConstantizationAnalyzer();
+        analyzer.setBudget(AnalysisBudget.UNLIMITED.withMaxInstructionVisits(4));
+
+        assertTrue(returnedValues(analyzer, "chain").isEmpty());
+        assertEquals(Set.of(AnalysisBudget.Limit.INSTRUCTION_VISITS), analyzer.getExceededLimits());
+    }
+
+    @Test
+    void testInstructionVisitsInLoop() throws AnalyzerException {
+        ConstantizationAnalyzer analyzer = new ConstantizationAnalyzer();
+        assertSound(returnedValue(analyzer, "loop"), 100);
+
+        // NOTE: the budget runs out while going around the loop, so the values computed on the way are incomplete
+        analyzer.setBudget(AnalysisBudget.UNLIMITED.withMaxInstructionVisits(30));
+        assertSound(returnedValue(analyzer, "loop"), 100);
+        assertEquals(Set.of(AnalysisBudget.Limit.INSTRUCTION_VISITS), analyzer.getExceededLimits());
+    }
+
+    @Test
+    void testValueDepth() throws AnalyzerException {
+        ConstantizationAnalyzer analyzer = new ConstantizationAnalyzer();
+        analyzer.setBudget(AnalysisBudget.UNLIMITED.withMaxValueDepth(5));
+
+        assertTrue(returnedValues(analyzer, "chain").isEmpty());
+        assertEquals(Set.of(AnalysisBudget.Limit.VALUE_DEPTH), analyzer.getExceededLimits());
+
+        // NOTE: the limits are per method, the next method starts with a fresh budget
+        analyzer.setBudget(AnalysisBudget.UNLIMITED.withMaxValueDepth(100));
+        assertEquals(List.of(15), returnedValues(analyzer, "chain"));
+        assertTrue(analyzer.getExceededLimits().isEmpty());
+    }
+
+    @Test
+    void testOperandCombinations() throws AnalyzerException {
+        ConstantizationAnalyzer analyzer = new ConstantizationAnalyzer();
+        analyzer.setBudget(AnalysisBudget.UNLIMITED.withMaxOperandCombinations(3));
+
+        // NOTE: products of single values along the first paths are still computed, the unknown product of all four
+        // combinations must not be lost when merged with them
+        assertSound(returnedValue(analyzer, "product"), 3, 4, 6, 8);
+        assertEquals(Set.of(AnalysisBudget.Limit.OPERAND_COMBINATIONS), analyzer.getExceededLimits());
+    }
+
+    @Test
+    void testSparseAnalyzer() throws AnalyzerException {
+        SparseConstantizationAnalyzer analyzer = new SparseConstantizationAnalyzer();
+        analyzer.setBudget(AnalysisBudget.UNLIMITED.withMaxInstructionVisits(4));
+
+        analyzer.analyze(Type.getInternalName(BudgetTarget.class), getMethodNode(BudgetTarget.class, "chain"));
+        assertEquals(Set.of(AnalysisBudget.Limit.INSTRUCTION_VISITS), analyzer.getExceededLimits());
+    }
+
+    @Test
+    void testInvalidBudgets() {
+        assertThrows(IllegalArgumentException.class, () -> AnalysisBudget.UNLIMITED.withMaxValueDepth(0));
+        assertThrows(IllegalArgumentException.class, () -> AnalysisBudget.UNLIMITED.withMaxTime(Duration.ZERO));
+    }
+}
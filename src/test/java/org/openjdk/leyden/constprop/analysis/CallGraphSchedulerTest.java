@@ -0,0 +1,156 @@
+package org.openjdk.leyden.constprop.analysis;
+
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.Type;
+import org.openjdk.leyden.constprop.values.ConstantizationValue;
+import org.openjdk.leyden.constprop.values.DefaultConstantizationValueFactory;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CallGraphSchedulerTest {
+    private static final String CHAIN = Type.getInternalName(ChainTarget.class);
+    private static final String RECURSIVE = Type.getInternalName(RecursiveTarget.class);
+    private static final String STATIC = Type.getInternalName(StaticTarget.class);
+
+    public static class ChainTarget {
+        public static int leaf() {
+            return 1;
+        }
+
+        public static int middle() {
+            return leaf() + 1;
+        }
+
+        public static int top() {
+            return middle() * 10;
+        }
+
+        public static int other() {
+            return leaf() + 2;
+        }
+    }
+
+    public static class RecursiveTarget {
+        public static int even(int n) {
+            return n == 0 ? 1 : odd(n - 1);
+        }
+
+        public static int odd(int n) {
+            return n == 0 ? 0 : even(n - 1);
+        }
+
+        public static int countDown(int n) {
+            return n <= 0 ? 0 : countDown(n - 1);
+        }
+
+        public static int fact(int n) {
+            return n <= 1 ? 1 : n * fact(n - 1);
+        }
+    }
+
+    public static class StaticTarget {
+        static final int X = compute();
+
+        static int compute() {
+            return 7;
+        }
+
+        public static int getX() {
+            return X;
+        }
+    }
+
+    private static CallGraphScheduler scheduler(MethodSummaries summaries) {
+        ClassLoaderClassPool classPool = new ClassLoaderClassPool();
+        DefaultConstantizationValueFactory valueFactory = new DefaultConstantizationValueFactory();
+        StaticInitializers staticInitializers = new StaticInitializers(classPool, valueFactory);
+        staticInitializers.setMethodSummaries(summaries);
+
+        return new CallGraphScheduler(classPool, valueFactory, ForkJoinPool.commonPool(), summaries,
+                staticInitializers);
+    }
+
+    private static int waveOf(List<List<Set<DependencyGraph.Dependency>>> waves, String owner, String name) {
+        for (int i = 0; i < waves.size(); i++) {
+            for (Set<DependencyGraph.Dependency> component : waves.get(i)) {
+                if (component.stream().anyMatch(m -> m.owner().equals(owner) && m.name().equals(name))) {
+                    return i;
+                }
+            }
+        }
+
+        throw new AssertionError(owner + "." + name + " is not scheduled");
+    }
+
+    private static MethodSummaries.Key unknownIntKey(String owner, String name) {
+        ConstantizationValue<?> unknown = new ConstantizationInterpreter().newUnknownValue(Type.INT_TYPE);
+        return MethodSummaries.key(owner, name, "(I)I", List.of(unknown));
+    }
+
+    @Test
+    void testWaves() throws ClassNotFoundException {
+        List<List<Set<DependencyGraph.Dependency>>> waves =
+                scheduler(new MethodSummaries()).waves(List.of(CHAIN, RECURSIVE));
+
+        assertEquals(0, waveOf(waves, CHAIN, "leaf"));
+        assertEquals(1, waveOf(waves, CHAIN, "middle"));
+        assertEquals(1, waveOf(waves, CHAIN, "other"));
+        assertEquals(2, waveOf(waves, CHAIN, "top"));
+
+        Set<DependencyGraph.Dependency> evenOdd = Set.of(
+                DependencyGraph.Dependency.onMethod(RECURSIVE, "even", "(I)I"),
+                DependencyGraph.Dependency.onMethod(RECURSIVE, "odd", "(I)I"));
+        assertTrue(waves.get(0).contains(evenOdd), waves.toString());
+    }
+
+    @Test
+    void testSummarizeBottomUp() throws ClassNotFoundException {
+        MethodSummaries summaries = new MethodSummaries();
+
+        // NOTE: every callee is summarized before its callers, so each method is analyzed exactly once
+        assertEquals(4, scheduler(summaries).summarize(List.of(CHAIN)));
+        assertEquals(4, summaries.size());
+
+        MethodSummaries.Summary top = summaries.get(MethodSummaries.key(CHAIN, "top", "()I", List.of()));
+        assertEquals(List.of(20), List.copyOf(top.returnValue().values()));
+        assertFalse(top.provisional());
+        assertTrue(top.dependencies().contains(DependencyGraph.Dependency.onMethod(CHAIN, "leaf", "()I")));
+    }
+
+    @Test
+    void testSummarizeRecursiveComponents() throws ClassNotFoundException {
+        MethodSummaries summaries = new MethodSummaries();
+        scheduler(summaries).summarize(List.of(RECURSIVE));
+
+        // NOTE: the scheduler summarizes calls with unknown arguments, which the recursive calls also pass
+        MethodSummaries.Summary even = summaries.get(unknownIntKey(RECURSIVE, "even"));
+        assertTrue(even.returnValue().isUnknown());
+        assertFalse(even.provisional());
+
+        MethodSummaries.Summary countDown = summaries.get(unknownIntKey(RECURSIVE, "countDown"));
+        assertTrue(countDown.returnValue().isUnknown());
+        assertFalse(countDown.provisional());
+
+        // NOTE: the base case alone returns 1, which must not be all the summary keeps
+        MethodSummaries.Summary fact = summaries.get(unknownIntKey(RECURSIVE, "fact"));
+        assertTrue(fact.returnValue().isUnknown(), fact::toString);
+        assertFalse(fact.provisional());
+    }
+
+    @Test
+    void testSummarizeStaticInitializerReads() throws ClassNotFoundException {
+        MethodSummaries summaries = new MethodSummaries();
+        scheduler(summaries).summarize(List.of(STATIC));
+
+        // NOTE: the static initializer calls compute(), so X is only known if it is analyzed with the summaries
+        MethodSummaries.Summary getX = summaries.get(MethodSummaries.key(STATIC, "getX", "()I", List.of()));
+        assertEquals(List.of(7), List.copyOf(getX.returnValue().values()));
+        assertFalse(getX.provisional());
+    }
+}
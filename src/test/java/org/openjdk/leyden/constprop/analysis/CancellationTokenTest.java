@@ -0,0 +1,87 @@
+package org.openjdk.leyden.constprop.analysis;
+
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.analysis.AnalyzerException;
+import org.objectweb.asm.tree.analysis.Frame;
+import org.openjdk.leyden.constprop.analysis.ConstantizationFrameTest.LoopTarget;
+import org.openjdk.leyden.constprop.values.ConstantizationValue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.openjdk.leyden.constprop.analysis.TestClasses.getMethodNode;
+
+public class CancellationTokenTest {
+    private static final String OWNER = Type.getInternalName(LoopTarget.class);
+
+    @Test
+    void testCancelWhileAnalyzing() throws AnalyzerException {
+        CancellationToken cancellation = new CancellationToken();
+        AtomicInteger blocks = new AtomicInteger();
+
+        ConstantizationAnalyzer analyzer = new ConstantizationAnalyzer();
+        analyzer.setListener(new ConstantizationListener() {
+            @Override
+            public void blockEntered(int block, int index, int line) {
+                // NOTE: cancels from within the analysis, as another thread would at any time
+                blocks.incrementAndGet();
+                cancellation.cancel();
+            }
+        });
+
+        assertThrows(CancellationException.class,
+                () -> analyzer.analyze(OWNER, getMethodNode(LoopTarget.class, "countDown"), cancellation));
+        assertEquals(1, blocks.get());
+
+        // the token only applies to the analysis it was passed to
+        blocks.set(0);
+        assertNotNull(analyzer.analyze(OWNER, getMethodNode(LoopTarget.class, "countDown")));
+        assertTrue(blocks.get() > 1);
+    }
+
+    @Test
+    void testCancelSparseAnalysis() {
+        CancellationToken cancellation = new CancellationToken();
+        cancellation.cancel();
+
+        MethodNode method = getMethodNode(LoopTarget.class, "countDown");
+        assertThrows(CancellationException.class,
+                () -> new SparseConstantizationAnalyzer().analyze(OWNER, method, cancellation));
+    }
+
+    @Test
+    void testAnalyzeAsync() {
+        List<Runnable> tasks = new ArrayList<>();
+        ConstantizationAnalyzer analyzer = new ConstantizationAnalyzer();
+
+        CompletableFuture<Frame<ConstantizationValue<?>>[]> completed =
+                analyzer.analyzeAsync(OWNER, getMethodNode(LoopTarget.class, "countDown"), tasks::add);
+        tasks.remove(0).run();
+        assertTrue(completed.join().length > 0);
+
+        AtomicInteger blocks = new AtomicInteger();
+        analyzer.setListener(new ConstantizationListener() {
+            @Override
+            public void blockEntered(int block, int index, int line) {
+                blocks.incrementAndGet();
+            }
+        });
+
+        CompletableFuture<Frame<ConstantizationValue<?>>[]> cancelled =
+                analyzer.analyzeAsync(OWNER, getMethodNode(LoopTarget.class, "countDown"), tasks::add);
+        assertTrue(cancelled.cancel(true));
+        tasks.remove(0).run();
+
+        assertThrows(CancellationException.class, cancelled::join);
+        assertEquals(0, blocks.get());
+    }
+}
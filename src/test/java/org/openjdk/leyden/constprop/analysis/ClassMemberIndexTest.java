@@ -0,0 +1,70 @@
+package org.openjdk.leyden.constprop.analysis;
+
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.FieldNode;
+import org.objectweb.asm.tree.MethodNode;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ClassMemberIndexTest {
+    private static final String INTEGER = Type.getInternalName(Integer.class);
+
+    @Test
+    void testReadHeaders() throws ClassNotFoundException {
+        ClassMemberIndex index = ClassMemberIndex.read(new ClassLoaderClassPool().classForName(INTEGER));
+
+        assertEquals(INTEGER, index.getName());
+        assertEquals(Type.getInternalName(Number.class), index.getSuperName());
+        assertTrue(index.getInterfaces().contains(Type.getInternalName(Comparable.class)));
+
+        FieldNode fn = index.field("MAX_VALUE");
+        assertEquals("I", fn.desc);
+        assertEquals(Integer.MAX_VALUE, fn.value);
+        assertNull(index.field("NO_SUCH_FIELD"));
+
+        ClassMemberIndex.MethodHeader header = index.method("bitCount", "(I)I");
+        assertEquals(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, header.access());
+        assertNull(index.method("bitCount", "(J)I"));
+    }
+
+    @Test
+    void testMaterializeMethodsLazily() throws ClassNotFoundException {
+        ClassLoaderClassPool classPool = new ClassLoaderClassPool();
+        ClassMemberIndex index = ClassMemberIndex.read(classPool.classForName(INTEGER));
+        AtomicInteger reads = new AtomicInteger();
+        ClassNodeCache.Loader<byte[]> classes = name -> {
+            reads.incrementAndGet();
+            return classPool.classForName(name);
+        };
+
+        assertFalse(index.isMaterialized("bitCount", "(I)I"));
+        MethodNode mn = index.methodNode("bitCount", "(I)I", classes);
+        assertEquals("bitCount", mn.name);
+        assertTrue(mn.instructions.size() > 0);
+        assertTrue(index.isMaterialized("bitCount", "(I)I"));
+        assertFalse(index.isMaterialized("toString", "()Ljava/lang/String;"));
+
+        assertSame(mn, index.methodNode("bitCount", "(I)I", classes));
+        assertNull(index.methodNode("bitCount", "(J)I", classes));
+        assertEquals(1, reads.get());
+    }
+
+    @Test
+    void testClassPoolLookups() throws Exception {
+        ClassLoaderClassPool classPool = new ClassLoaderClassPool();
+
+        MethodNode mn = classPool.methodForName(INTEGER, "bitCount", "(I)I");
+        assertSame(mn, classPool.methodForName(INTEGER, "bitCount", "(I)I"));
+        assertThrows(MethodNotFoundException.class, () -> classPool.methodForName(INTEGER, "bitCount", "(J)I"));
+        assertThrows(FieldNotFoundException.class, () -> classPool.fieldForName(INTEGER, "NO_SUCH_FIELD"));
+    }
+}
@@ -0,0 +1,83 @@
+package org.openjdk.leyden.constprop.analysis;
+
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.ClassNode;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ClassNodeCacheTest {
+
+    private static ClassNodeCache.Loader<ClassNode> countingLoader(Map<String, Integer> loads) {
+        return name -> {
+            loads.merge(name, 1, Integer::sum);
+            ClassNode cn = new ClassNode();
+            cn.name = name;
+            return cn;
+        };
+    }
+
+    @Test
+    void testHitsAndMisses() throws ClassNotFoundException {
+        Map<String, Integer> loads = new HashMap<>();
+        ClassNodeCache<ClassNode> cache = new ClassNodeCache<>("test", 2);
+
+        ClassNode a = cache.get("a", countingLoader(loads));
+        assertSame(a, cache.get("a", countingLoader(loads)));
+        cache.get("b", countingLoader(loads));
+
+        assertEquals(Map.of("a", 1, "b", 1), loads);
+        assertEquals(new ClassNodeCache.Statistics(1, 0, 2, 0), cache.statistics());
+        assertEquals(1.0 / 3, cache.statistics().hitRate(), 1e-9);
+    }
+
+    @Test
+    void testEvictedClassesAreKeptSoftly() throws ClassNotFoundException {
+        Map<String, Integer> loads = new HashMap<>();
+        ClassNodeCache<ClassNode> cache = new ClassNodeCache<>("test", 1);
+
+        ClassNode a = cache.get("a", countingLoader(loads));
+        cache.get("b", countingLoader(loads)); // evicts a
+
+        // a is still strongly reachable from this test, so its soft reference cannot have been cleared
+        assertSame(a, cache.get("a", countingLoader(loads)));
+        assertEquals(1, loads.get("a"));
+
+        ClassNodeCache.Statistics statistics = cache.statistics();
+        assertEquals(1, statistics.softHits());
+        assertEquals(2, statistics.evictions());
+    }
+
+    @Test
+    void testFailedLoadsAreNotCached() {
+        ClassNodeCache<ClassNode> cache = new ClassNodeCache<>("test");
+        ClassNodeCache.Loader<ClassNode> failing = name -> {
+            throw new ClassNotFoundException(name);
+        };
+
+        assertThrows(ClassNotFoundException.class, () -> cache.get("missing", failing));
+        assertThrows(ClassNotFoundException.class, () -> cache.get("missing", failing));
+        assertEquals(2, cache.statistics().misses());
+    }
+
+    @Test
+    void testClassPoolParsesOnce() throws Exception {
+        ClassLoaderClassPool classPool = new ClassLoaderClassPool();
+        String owner = Type.getInternalName(Integer.class);
+
+        classPool.staticFinalFieldValueForName(owner, "MIN_VALUE");
+        classPool.staticFinalFieldValueForName(owner, "MAX_VALUE");
+        classPool.methodForName(owner, "bitCount", "(I)I");
+
+        // fields and methods are resolved through the member index, so the class is never parsed in full
+        ClassNodeCache.Statistics statistics = classPool.memberIndexCacheStatistics();
+        assertEquals(1, statistics.misses());
+        assertEquals(2, statistics.hits());
+        assertEquals(0, classPool.classNodeCacheStatistics().lookups());
+    }
+}
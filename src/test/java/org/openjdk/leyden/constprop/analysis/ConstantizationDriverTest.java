@@ -0,0 +1,253 @@
+package org.openjdk.leyden.constprop.analysis;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.MethodNode;
+import org.openjdk.leyden.constprop.targets.ConstantizationTarget;
+import org.openjdk.leyden.constprop.targets.ConstantizationTargetFactory;
+import org.openjdk.leyden.constprop.targets.DefaultConstantizationTargetRegistry;
+import org.openjdk.leyden.constprop.values.ConstantizationValue;
+import org.openjdk.leyden.constprop.values.DefaultConstantizationValueFactory;
+import org.openjdk.leyden.constprop.values.IntegerValue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.openjdk.leyden.constprop.analysis.TestClasses.getMethodNode;
+import static org.openjdk.leyden.constprop.analysis.TestClasses.readClassBytes;
+
+public class ConstantizationDriverTest {
+
+    public static class DriverTarget {
+        public static int constant() {
+            int i = 6;
+            int j = i * 7;
+            return j;
+        }
+
+        public static int loop() {
+            int i = 0;
+            while (i < 10) {
+                i++;
+            }
+
+            return i;
+        }
+    }
+
+    public static class ExternalTarget {
+        public static int readsOtherClass() {
+            return StaticInitializersTest.StaticTarget.COMPUTED;
+        }
+    }
+
+    public static class CallTarget {
+        static int seven() {
+            return 7;
+        }
+
+        public static int callsSeven() {
+            return seven();
+        }
+    }
+
+    private static ConstantizationTarget returnValueTarget(MethodNode mn) {
+        // the value on top of the stack right before it is returned
+        int instruction = -1;
+        for (int i = 0; i < mn.instructions.size(); i++) {
+            if (mn.instructions.get(i).getOpcode() == Opcodes.IRETURN) {
+                instruction = i;
+            }
+        }
+
+        return ConstantizationTargetFactory.createStackValueTarget(instruction, 0);
+    }
+
+    @Test
+    void testAnalyzeClasses() {
+        String owner = Type.getInternalName(DriverTarget.class);
+        MethodNode constant = getMethodNode(DriverTarget.class, "constant");
+        ConstantizationTarget target = returnValueTarget(constant);
+
+        DefaultConstantizationTargetRegistry registry = new DefaultConstantizationTargetRegistry();
+        registry.addMethodScopeTarget(owner, "constant", "()I", target);
+
+        ConstantizationResults results = new ConstantizationDriver(registry)
+                .analyze(List.of(readClassBytes(DriverTarget.class)));
+
+        // the constructor, constant() and loop()
+        assertEquals(3, results.getAnalyzedMethodCount());
+        assertTrue(results.getFailures().isEmpty());
+
+        Map<ConstantizationTarget, ConstantizationValue<?>> values =
+                results.getMethodScopeValues(owner, "constant", "()I");
+        assertEquals(List.of(42), List.copyOf(((IntegerValue) values.get(target)).values()));
+        assertTrue(results.getMethodScopeValues(owner, "loop", "()I").isEmpty());
+    }
+
+    @Test
+    void testAnalyzeJarInParallel(@TempDir Path dir) throws IOException {
+        // the same class under many names, so there are enough batches to spread across workers
+        List<Class<?>> classes = new ArrayList<>(Collections.nCopies(32, DriverTarget.class));
+        classes.add(ConstantizationFrameTest.LoopTarget.class);
+
+        Path jar = dir.resolve("classes.jar");
+        try (OutputStream os = Files.newOutputStream(jar); JarOutputStream jos = new JarOutputStream(os)) {
+            for (int i = 0; i < classes.size(); i++) {
+                jos.putNextEntry(new JarEntry("p" + i + "/" + Type.getInternalName(classes.get(i)) + ".class"));
+                jos.write(readClassBytes(classes.get(i)));
+                jos.closeEntry();
+            }
+
+            jos.putNextEntry(new JarEntry("META-INF/versions/17/Ignored.class"));
+            jos.write(readClassBytes(DriverTarget.class));
+            jos.closeEntry();
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            ConstantizationResults results =
+                    new ConstantizationDriver(new DefaultConstantizationTargetRegistry(),
+                            new ClassLoaderClassPool(),
+                            new DefaultConstantizationValueFactory(),
+                            pool)
+                            .analyzeJar(jar);
+
+            // every copy is analyzed, but the entry under META-INF/ is not
+            assertEquals(32 * 3 + 4, results.getAnalyzedMethodCount());
+            assertTrue(results.getFailures().isEmpty(), results.getFailures().toString());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testWarmRunReadsResultStore(@TempDir Path dir) throws IOException {
+        String owner = Type.getInternalName(DriverTarget.class);
+        ConstantizationTarget target = returnValueTarget(getMethodNode(DriverTarget.class, "constant"));
+
+        DefaultConstantizationTargetRegistry registry = new DefaultConstantizationTargetRegistry();
+        registry.addMethodScopeTarget(owner, "constant", "()I", target);
+
+        ConstantizationResultStore store = new ConstantizationResultStore(dir, "test");
+        List<byte[]> classes = List.of(readClassBytes(DriverTarget.class));
+
+        ConstantizationResults cold = new ConstantizationDriver(registry, new ClassLoaderClassPool(),
+                new DefaultConstantizationValueFactory(), ForkJoinPool.commonPool(), store).analyze(classes);
+        ConstantizationResults warm = new ConstantizationDriver(registry, new ClassLoaderClassPool(),
+                new DefaultConstantizationValueFactory(), ForkJoinPool.commonPool(), store).analyze(classes);
+
+        assertEquals(0, cold.getCachedClassCount());
+        assertEquals(1, warm.getCachedClassCount());
+        assertEquals(cold.getAnalyzedMethodCount(), warm.getAnalyzedMethodCount());
+        assertEquals(List.of(42), List.copyOf(
+                ((IntegerValue) warm.getMethodScopeValues(owner, "constant", "()I").get(target)).values()));
+
+        // registering another target changes the key, so the class is analyzed again
+        registry.addMethodScopeTarget(owner, "loop", "()I",
+                returnValueTarget(getMethodNode(DriverTarget.class, "loop")));
+        ConstantizationResults changed = new ConstantizationDriver(registry, new ClassLoaderClassPool(),
+                new DefaultConstantizationValueFactory(), ForkJoinPool.commonPool(), store).analyze(classes);
+        assertEquals(0, changed.getCachedClassCount());
+    }
+
+    @Test
+    void testResultsDependingOnOtherClassesAreNotStored(@TempDir Path dir) throws IOException {
+        String owner = Type.getInternalName(ExternalTarget.class);
+        ConstantizationTarget target = returnValueTarget(getMethodNode(ExternalTarget.class, "readsOtherClass"));
+
+        DefaultConstantizationTargetRegistry registry = new DefaultConstantizationTargetRegistry();
+        registry.addMethodScopeTarget(owner, "readsOtherClass", "()I", target);
+
+        // NOTE: the key only hashes the bytes of this class, so a stored result would outlive changes to the other one
+        ConstantizationResultStore store = new ConstantizationResultStore(dir, "test");
+        List<byte[]> classes = List.of(readClassBytes(ExternalTarget.class));
+        for (int run = 0; run < 2; run++) {
+            ConstantizationResults results = new ConstantizationDriver(registry, new ClassLoaderClassPool(),
+                    new DefaultConstantizationValueFactory(), ForkJoinPool.commonPool(), store).analyze(classes);
+            assertEquals(0, results.getCachedClassCount());
+        }
+    }
+
+    @Test
+    void testResultStoreKeyCoversMethodSummaries(@TempDir Path dir) throws IOException {
+        String owner = Type.getInternalName(CallTarget.class);
+        ConstantizationTarget target = returnValueTarget(getMethodNode(CallTarget.class, "callsSeven"));
+
+        DefaultConstantizationTargetRegistry registry = new DefaultConstantizationTargetRegistry();
+        registry.addMethodScopeTarget(owner, "callsSeven", "()I", target);
+
+        ConstantizationResultStore store = new ConstantizationResultStore(dir, "test");
+        List<byte[]> classes = List.of(readClassBytes(CallTarget.class));
+        new ConstantizationDriver(registry, new ClassLoaderClassPool(), new DefaultConstantizationValueFactory(),
+                ForkJoinPool.commonPool(), store).analyze(classes);
+
+        // NOTE: the call stays within the class, so only the key tells this result from the one without summaries
+        ConstantizationDriver summarized = new ConstantizationDriver(registry, new ClassLoaderClassPool(),
+                new DefaultConstantizationValueFactory(), ForkJoinPool.commonPool(), store);
+        summarized.setMethodSummaries(new MethodSummaries());
+        ConstantizationResults results = summarized.analyze(classes);
+
+        assertEquals(0, results.getCachedClassCount());
+        assertEquals(List.of(7), List.copyOf(
+                ((IntegerValue) results.getMethodScopeValues(owner, "callsSeven", "()I").get(target)).values()));
+        assertEquals(1, summarized.analyze(classes).getCachedClassCount());
+    }
+
+    @Test
+    void testAnalyzeAsync() throws ExecutionException, InterruptedException {
+        String owner = Type.getInternalName(DriverTarget.class);
+        ConstantizationTarget target = returnValueTarget(getMethodNode(DriverTarget.class, "constant"));
+
+        DefaultConstantizationTargetRegistry registry = new DefaultConstantizationTargetRegistry();
+        registry.addMethodScopeTarget(owner, "constant", "()I", target);
+
+        ConstantizationResults results = new ConstantizationDriver(registry)
+                .analyzeAsync(List.of(readClassBytes(DriverTarget.class)))
+                .get();
+
+        assertEquals(3, results.getAnalyzedMethodCount());
+        assertEquals(List.of(42), List.copyOf(
+                ((IntegerValue) results.getMethodScopeValues(owner, "constant", "()I").get(target)).values()));
+    }
+
+    @Test
+    void testCancelAnalyzeAsync() {
+        ForkJoinPool pool = new ForkJoinPool(1);
+        try {
+            // NOTE: keeps the only worker busy, so the analysis cannot start before it is cancelled
+            CompletableFuture<Void> blocker = new CompletableFuture<>();
+            pool.execute(blocker::join);
+
+            CompletableFuture<ConstantizationResults> future =
+                    new ConstantizationDriver(new DefaultConstantizationTargetRegistry(),
+                            new ClassLoaderClassPool(),
+                            new DefaultConstantizationValueFactory(),
+                            pool)
+                            .analyzeAsync(Collections.nCopies(64, readClassBytes(DriverTarget.class)));
+            assertTrue(future.cancel(true));
+            blocker.complete(null);
+
+            assertThrows(CancellationException.class, future::join);
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
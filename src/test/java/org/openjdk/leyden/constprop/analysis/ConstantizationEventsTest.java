@@ -0,0 +1,55 @@
+package org.openjdk.leyden.constprop.analysis;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.analysis.AnalyzerException;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ConstantizationEventsTest {
+    @Test
+    void testEventsAreRecorded(@TempDir Path dir)
+            throws IOException, ClassNotFoundException, MethodNotFoundException, AnalyzerException {
+        String owner = Type.getInternalName(ConstantizationFrameTest.LoopTarget.class);
+        Path file = dir.resolve("recording.jfr");
+        try (Recording recording = new Recording()) {
+            for (String event : List.of("ClassParse", "BasicBlocks", "Fixpoint")) {
+                recording.enable("org.openjdk.leyden.constprop." + event).withThreshold(Duration.ZERO);
+            }
+            recording.start();
+
+            ClassLoaderClassPool classPool = new ClassLoaderClassPool();
+            new ConstantizationAnalyzer().analyze(owner, classPool.methodForName(owner, "countDown", "()I"));
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        assertTrue(events.stream().anyMatch(e -> e.getEventType().getName().endsWith("ClassParse")
+                && owner.equals(e.getString("className"))));
+        assertTrue(events.stream().anyMatch(e -> e.getEventType().getName().endsWith("BasicBlocks")
+                && (owner + ".countDown()I").equals(e.getString("method"))));
+
+        RecordedEvent fixpoint = events.stream()
+                .filter(e -> e.getEventType().getName().endsWith("Fixpoint"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(owner + ".countDown()I", fixpoint.getString("method"));
+        assertTrue(fixpoint.getInt("instructionCount") > 0);
+        assertTrue(fixpoint.getInt("mergeCount") > 0);
+        assertTrue(fixpoint.getInt("maxDepth") > 1);
+        // i counts down from 1000 in steps of 3, far too many values to track one by one
+        assertTrue(fixpoint.getInt("degradedCount") > 0);
+    }
+}
@@ -0,0 +1,118 @@
+package org.openjdk.leyden.constprop.analysis;
+
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.analysis.AnalyzerException;
+import org.objectweb.asm.tree.analysis.Frame;
+import org.openjdk.leyden.constprop.util.IntInterval;
+import org.openjdk.leyden.constprop.values.ConstantizationValue;
+import org.openjdk.leyden.constprop.values.IntegerValue;
+import org.openjdk.leyden.constprop.values.LongValue;
+
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.openjdk.leyden.constprop.analysis.TestClasses.getMethodNode;
+
+public class ConstantizationFrameTest {
+
+    public static class LoopTarget {
+        public static int countUp() {
+            int i = 0;
+            while (i < 10) {
+                i++;
+            }
+
+            return i;
+        }
+
+        public static int countDown() {
+            int i = 1000;
+            int j = 0;
+            while (i > 0) {
+                i -= 3;
+                j += 2;
+            }
+
+            return j;
+        }
+
+        public static long convertAfterLoop(int b) {
+            int i = 0;
+            while (i < 100) {
+                i++;
+            }
+
+            return b > 0 ? 5L : (long) i;
+        }
+    }
+
+    private static int countWidenings(MethodNode mn) throws AnalyzerException {
+        int[] widenings = new int[1];
+        ConstantizationAnalyzer analyzer = new ConstantizationAnalyzer(new ConstantizationInterpreter() {
+            @Override
+            public ConstantizationValue<?> widen(ConstantizationValue<?> value1, ConstantizationValue<?> value2) {
+                widenings[0]++;
+                return super.widen(value1, value2);
+            }
+        });
+        analyzer.analyze(Type.getInternalName(LoopTarget.class), mn);
+
+        return widenings[0];
+    }
+
+    @Test
+    void testLoopConvergesWithinFewPasses() throws AnalyzerException {
+        // each pass around a loop widens every local once, and an int header changes at most 7 times
+        int countUp = countWidenings(getMethodNode(LoopTarget.class, "countUp"));
+        assertTrue(countUp > 0);
+        assertTrue(countUp <= 8, "widened " + countUp + " times");
+
+        int countDown = countWidenings(getMethodNode(LoopTarget.class, "countDown"));
+        assertTrue(countDown <= 2 * 8, "widened " + countDown + " times");
+    }
+
+    @Test
+    void testWidenedValueStaysSound() throws AnalyzerException {
+        MethodNode mn = getMethodNode(LoopTarget.class, "countUp");
+        Frame<ConstantizationValue<?>>[] frames =
+                new ConstantizationAnalyzer().analyze(Type.getInternalName(LoopTarget.class), mn);
+
+        // the value of i right before it is returned
+        int index = -1;
+        for (AbstractInsnNode insn : mn.instructions) {
+            if (insn.getOpcode() == Opcodes.IRETURN) {
+                index = mn.instructions.indexOf(insn);
+            }
+        }
+
+        IntInterval range = ((IntegerValue) frames[index].getStack(0)).intRange();
+        assertTrue(range.contains(10), "i in " + range);
+    }
+
+    private static ConstantizationValue<?> returnedValue(MethodNode mn, Frame<ConstantizationValue<?>>[] frames) {
+        for (AbstractInsnNode insn : mn.instructions) {
+            if (insn.getOpcode() == Opcodes.LRETURN) {
+                Frame<ConstantizationValue<?>> frame = frames[mn.instructions.indexOf(insn)];
+                return frame.getStack(frame.getStackSize() - 1);
+            }
+        }
+
+        throw new AssertionError("No return in " + mn.name);
+    }
+
+    @Test
+    void testConvertedRangeStaysSound() throws AnalyzerException {
+        MethodNode mn = getMethodNode(LoopTarget.class, "convertAfterLoop");
+        String owner = Type.getInternalName(LoopTarget.class);
+
+        // NOTE: after the loop, i is only known by its range, which the conversion to long keeps
+        ConstantizationValue<?> dense = returnedValue(mn, new ConstantizationAnalyzer().analyze(owner, mn));
+        assertTrue(((LongValue) dense).covers(new LongValue(100L)), "y in " + dense);
+
+        ConstantizationValue<?> sparse = returnedValue(mn, new SparseConstantizationAnalyzer().analyze(owner, mn));
+        assertTrue(((LongValue) sparse).covers(new LongValue(100L)), "y in " + sparse);
+    }
+}
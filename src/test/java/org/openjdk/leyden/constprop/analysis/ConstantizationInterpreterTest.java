@@ -0,0 +1,54 @@
+package org.openjdk.leyden.constprop.analysis;
+
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.JumpInsnNode;
+import org.objectweb.asm.tree.LineNumberNode;
+import org.objectweb.asm.tree.MethodNode;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.openjdk.leyden.constprop.analysis.TestClasses.getMethodNode;
+
+public class ConstantizationInterpreterTest {
+    private static final String OWNER = Type.getInternalName(SparseConstantizationAnalyzerTest.SparseTarget.class);
+
+    @Test
+    void testLineNumbers() {
+        MethodNode mn = getMethodNode(SparseConstantizationAnalyzerTest.SparseTarget.class, "branch");
+        ConstantizationInterpreter interpreter = new ConstantizationInterpreter();
+        interpreter.setMethodNode(OWNER, mn);
+
+        int line = -1;
+        for (AbstractInsnNode insn : mn.instructions) {
+            if (insn instanceof LineNumberNode lineNumber) {
+                line = lineNumber.line;
+            }
+            assertEquals(line, interpreter.getLineNumber(mn.instructions.indexOf(insn)));
+        }
+    }
+
+    @Test
+    void testBlockSuccessors() {
+        MethodNode mn = getMethodNode(SparseConstantizationAnalyzerTest.SparseTarget.class, "branch");
+        ConstantizationInterpreter interpreter = new ConstantizationInterpreter();
+        interpreter.setMethodNode(OWNER, mn);
+
+        for (AbstractInsnNode insn : mn.instructions) {
+            int block = interpreter.getBasicBlock(mn.instructions.indexOf(insn));
+            int[] successors = interpreter.getBlockSuccessors(block);
+            if (insn instanceof JumpInsnNode jump) {
+                int target = interpreter.getBasicBlock(mn.instructions.indexOf(jump.label));
+                assertTrue(Arrays.stream(successors).anyMatch(s -> s == target), Arrays.toString(successors));
+            }
+
+            if (insn.getOpcode() == Opcodes.IRETURN) {
+                assertEquals(0, successors.length);
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package org.openjdk.leyden.constprop.analysis;
+
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.analysis.AnalyzerException;
+import org.openjdk.leyden.constprop.analysis.ConstantizationFrameTest.LoopTarget;
+import org.openjdk.leyden.constprop.values.ConstantizationValue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.openjdk.leyden.constprop.analysis.TestClasses.getMethodNode;
+
+public class ConstantizationListenerTest {
+
+    @Test
+    void testEvents() throws AnalyzerException {
+        List<String> events = new ArrayList<>();
+        ConstantizationAnalyzer analyzer = new ConstantizationAnalyzer();
+        analyzer.setListener(new ConstantizationListener() {
+            @Override
+            public void methodStarted(String owner, MethodNode method) {
+                events.add("start " + method.name);
+            }
+
+            @Override
+            public void methodFinished(String owner, MethodNode method) {
+                events.add("end " + method.name);
+            }
+
+            @Override
+            public void blockEntered(int block, int index, int line) {
+                events.add("block");
+            }
+
+            @Override
+            public void merged(ConstantizationValue<?> value1,
+                               ConstantizationValue<?> value2,
+                               ConstantizationValue<?> result,
+                               boolean widened) {
+                events.add(widened ? "widen" : "merge");
+            }
+
+            @Override
+            public void valueDegraded(ConstantizationValue<?> value) {
+                events.add("degraded");
+            }
+        });
+
+        analyzer.analyze(Type.getInternalName(LoopTarget.class), getMethodNode(LoopTarget.class, "countDown"));
+
+        assertEquals("start countDown", events.get(0));
+        assertEquals("end countDown", events.get(events.size() - 1));
+        assertTrue(events.contains("block"));
+        assertTrue(events.contains("widen"));
+        // i counts down from 1000 in steps of 3, far too many values to track one by one
+        assertTrue(events.contains("degraded"));
+    }
+
+    @Test
+    void testTrace() throws AnalyzerException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ConstantizationAnalyzer analyzer = new ConstantizationAnalyzer();
+        analyzer.setListener(ConstantizationListener.trace(new PrintStream(bytes, true, StandardCharsets.UTF_8)));
+        analyzer.analyze(Type.getInternalName(LoopTarget.class), getMethodNode(LoopTarget.class, "countUp"));
+        assertTrue(bytes.toString(StandardCharsets.UTF_8).contains("countUp()I"));
+
+        bytes.reset();
+        analyzer.setListener(null);
+        analyzer.analyze(Type.getInternalName(LoopTarget.class), getMethodNode(LoopTarget.class, "countUp"));
+        assertEquals(0, bytes.size());
+    }
+}
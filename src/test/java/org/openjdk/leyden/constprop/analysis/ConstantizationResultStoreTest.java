@@ -0,0 +1,78 @@
+package org.openjdk.leyden.constprop.analysis;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openjdk.leyden.constprop.operations.NewOperation;
+import org.openjdk.leyden.constprop.util.IntInterval;
+import org.openjdk.leyden.constprop.values.ConstantizationValue;
+import org.openjdk.leyden.constprop.values.DefaultConstantizationValueFactory;
+import org.openjdk.leyden.constprop.values.IntegerValue;
+import org.openjdk.leyden.constprop.values.MutableReferenceTypeValue;
+import org.openjdk.leyden.constprop.values.StringValue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ConstantizationResultStoreTest {
+    private static final DefaultConstantizationValueFactory FACTORY = new DefaultConstantizationValueFactory();
+
+    @Test
+    void testRoundTrip(@TempDir Path dir) throws IOException {
+        ConstantizationResultStore store = new ConstantizationResultStore(dir, "test");
+        String key = store.key(new byte[]{1, 2, 3}, "targets");
+
+        List<ConstantizationValue<?>> values = List.of(
+                new IntegerValue(1).merge(new IntegerValue(2)),
+                IntegerValue.ofRange(IntInterval.of(-5, 100)),
+                new StringValue("a").merge(new StringValue("b")),
+                new IntegerValue(NewOperation.unknown()),
+                ConstantizationValue.UninitializedValue.INSTANCE);
+        assertTrue(store.save(key, new ConstantizationResultStore.ClassResults(3, Map.of("m()V", values))));
+
+        ConstantizationResultStore.ClassResults loaded = store.load(key, FACTORY).orElseThrow();
+        assertEquals(3, loaded.analyzedMethodCount());
+        assertEquals(values, loaded.values().get("m()V"));
+        assertEquals(IntInterval.of(-5, 100), ((IntegerValue) loaded.values().get("m()V").get(1)).intRange());
+
+        // no temporary files are left behind
+        try (Stream<Path> files = Files.walk(dir)) {
+            assertEquals(1, files.filter(Files::isRegularFile).count());
+        }
+    }
+
+    @Test
+    void testKeyDependsOnEveryInput(@TempDir Path dir) throws IOException {
+        ConstantizationResultStore store = new ConstantizationResultStore(dir, "test");
+        String key = store.key(new byte[]{1, 2, 3}, "targets");
+
+        assertEquals(key, store.key(new byte[]{1, 2, 3}, "targets"));
+        assertNotEquals(key, store.key(new byte[]{1, 2, 4}, "targets"));
+        assertNotEquals(key, store.key(new byte[]{1, 2, 3}, "other targets"));
+        assertNotEquals(key, new ConstantizationResultStore(dir, "other").key(new byte[]{1, 2, 3}, "targets"));
+    }
+
+    @Test
+    void testUnstorableAndCorruptEntries(@TempDir Path dir) throws IOException {
+        ConstantizationResultStore store = new ConstantizationResultStore(dir, "test");
+        String key = store.key(new byte[0], "");
+
+        List<ConstantizationValue<?>> references = List.of(new MutableReferenceTypeValue<>("Ljava/lang/Object;"));
+        assertFalse(store.save(key, new ConstantizationResultStore.ClassResults(1, Map.of("m()V", references))));
+        assertTrue(store.load(key, FACTORY).isEmpty());
+
+        Path entry = dir.resolve(key.substring(0, 2)).resolve(key.substring(2));
+        Files.createDirectories(entry.getParent());
+        Files.writeString(entry, "garbage", StandardCharsets.UTF_8);
+        assertTrue(store.load(key, FACTORY).isEmpty());
+    }
+}
@@ -0,0 +1,39 @@
+package org.openjdk.leyden.constprop.analysis;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class DependencyGraphTest {
+
+    @Test
+    void testTransitiveDependents() {
+        DependencyGraph graph = new DependencyGraph();
+        graph.record("a/A.f()I", List.of(DependencyGraph.Dependency.onField("c/C", "X")));
+        graph.record("b/B.g()I", List.of(DependencyGraph.Dependency.onMethod("a/A", "f", "()I")));
+        graph.record("d/D.h()I", List.of(DependencyGraph.Dependency.onMethod("b/B", "g", "()I")));
+        graph.record("e/E.i()I", List.of(DependencyGraph.Dependency.onClass("e/F")));
+
+        assertEquals(Set.of("a/A.f()I", "b/B.g()I", "d/D.h()I"), graph.dependents(List.of("c/C")));
+        assertEquals(Set.of("b/B.g()I", "d/D.h()I"), graph.dependents(List.of("a/A")));
+        assertEquals(Set.of("e/E.i()I"), graph.dependents(List.of("e/F")));
+        assertEquals(Set.of(), graph.dependents(List.of("d/D")));
+    }
+
+    @Test
+    void testRecordReplacesEdges() {
+        DependencyGraph graph = new DependencyGraph();
+        graph.record("a/A.f()I", List.of(DependencyGraph.Dependency.onField("c/C", "X")));
+        graph.record("a/A.f()I", List.of(DependencyGraph.Dependency.onField("d/D", "Y")));
+
+        assertEquals(Set.of(), graph.dependents(List.of("c/C")));
+        assertEquals(Set.of("a/A.f()I"), graph.dependents(List.of("d/D")));
+
+        graph.remove("a/A.f()I");
+        assertEquals(Set.of(), graph.dependents(List.of("d/D")));
+        assertEquals(Set.of(), graph.dependenciesOf("a/A.f()I"));
+    }
+}
@@ -0,0 +1,96 @@
+package org.openjdk.leyden.constprop.analysis;
+
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.openjdk.leyden.constprop.targets.ConstantizationTarget;
+import org.openjdk.leyden.constprop.targets.ConstantizationTargetFactory;
+import org.openjdk.leyden.constprop.targets.DefaultConstantizationTargetRegistry;
+import org.openjdk.leyden.constprop.values.IntegerValue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class IncrementalAnalysisTest {
+    private static final String READER = "p/Reader";
+    private static final String CONSTANTS = "p/Constants";
+    private static final String OTHER = "p/Other";
+
+    // public class Constants { public static final int VALUE = <value>; }
+    private static byte[] constants(int value) {
+        ClassWriter cw = new ClassWriter(0);
+        cw.visit(Opcodes.V17, Opcodes.ACC_PUBLIC, CONSTANTS, null, "java/lang/Object", null);
+        cw.visitField(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC | Opcodes.ACC_FINAL, "VALUE", "I", null, value)
+                .visitEnd();
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+    // public class <name> { public static int get() { <body>; return; } }
+    private static byte[] classWithGetter(String name, boolean readConstant, int constant) {
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        cw.visit(Opcodes.V17, Opcodes.ACC_PUBLIC, name, null, "java/lang/Object", null);
+        MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, "get", "()I", null, null);
+        mv.visitCode();
+        if (readConstant) {
+            mv.visitFieldInsn(Opcodes.GETSTATIC, CONSTANTS, "VALUE", "I");
+        } else {
+            mv.visitIntInsn(Opcodes.BIPUSH, constant);
+        }
+        mv.visitInsn(Opcodes.IRETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+    private static List<Integer> returnValues(ConstantizationResults results, String owner,
+                                              ConstantizationTarget target) {
+        return List.copyOf(((IntegerValue) results.getMethodScopeValues(owner, "get", "()I").get(target)).values());
+    }
+
+    @Test
+    void testReanalyzeOnlyAffectedMethods() {
+        // the value on top of the stack at IRETURN, the second instruction
+        ConstantizationTarget readerTarget = ConstantizationTargetFactory.createStackValueTarget(1, 0);
+        ConstantizationTarget otherTarget = ConstantizationTargetFactory.createStackValueTarget(1, 0);
+        DefaultConstantizationTargetRegistry registry = new DefaultConstantizationTargetRegistry();
+        registry.addMethodScopeTarget(READER, "get", "()I", readerTarget);
+        registry.addMethodScopeTarget(OTHER, "get", "()I", otherTarget);
+
+        IncrementalAnalysis analysis = new IncrementalAnalysis(registry);
+        ConstantizationResults results = analysis.update(Map.of(
+                CONSTANTS, constants(1),
+                READER, classWithGetter(READER, true, 0),
+                OTHER, classWithGetter(OTHER, false, 7)), Set.of());
+
+        assertEquals(Set.of(READER + ".get()I", OTHER + ".get()I"), analysis.getLastAnalyzedMethods());
+        assertEquals(List.of(1), returnValues(results, READER, readerTarget));
+        assertEquals(List.of(7), returnValues(results, OTHER, otherTarget));
+        assertEquals(Set.of(DependencyGraph.Dependency.onField(CONSTANTS, "VALUE")),
+                analysis.getDependencies(READER, "get", "()I"));
+
+        // a changed constant only affects the method reading it
+        results = analysis.update(Map.of(CONSTANTS, constants(2)), Set.of());
+        assertEquals(Set.of(READER + ".get()I"), analysis.getLastAnalyzedMethods());
+        assertEquals(List.of(2), returnValues(results, READER, readerTarget));
+        assertEquals(List.of(7), returnValues(results, OTHER, otherTarget));
+
+        // a changed class nothing depends on only affects its own methods
+        results = analysis.update(Map.of(OTHER, classWithGetter(OTHER, false, 8)), Set.of());
+        assertEquals(Set.of(OTHER + ".get()I"), analysis.getLastAnalyzedMethods());
+        assertEquals(List.of(8), returnValues(results, OTHER, otherTarget));
+        assertEquals(2, results.getAnalyzedMethodCount());
+
+        // once the constant is gone, the reader cannot be analyzed any longer
+        results = analysis.update(Map.of(), Set.of(CONSTANTS));
+        assertEquals(Set.of(READER + ".get()I"), analysis.getLastAnalyzedMethods());
+        assertTrue(results.getFailures().containsKey(READER + ".get()I"));
+        assertEquals(1, results.getAnalyzedMethodCount());
+    }
+}
@@ -0,0 +1,125 @@
+package org.openjdk.leyden.constprop.analysis;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.objectweb.asm.Type;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class JarClassPoolTest {
+
+    private static byte[] readClassBytes(Class<?> clazz) throws IOException {
+        try (InputStream is = ClassLoader.getSystemResourceAsStream(Type.getInternalName(clazz) + ".class")) {
+            return Objects.requireNonNull(is).readAllBytes();
+        }
+    }
+
+    private static void writeEntry(ZipOutputStream zos, String name, byte[] bytes, boolean stored) throws IOException {
+        ZipEntry entry = new ZipEntry(name);
+        if (stored) {
+            CRC32 crc = new CRC32();
+            crc.update(bytes);
+            entry.setMethod(ZipEntry.STORED);
+            entry.setSize(bytes.length);
+            entry.setCrc(crc.getValue());
+        }
+
+        zos.putNextEntry(entry);
+        zos.write(bytes);
+        zos.closeEntry();
+    }
+
+    private static Path writeJar(Path jar, String comment, Object... entries) throws IOException {
+        try (OutputStream os = Files.newOutputStream(jar); ZipOutputStream zos = new ZipOutputStream(os)) {
+            for (int i = 0; i < entries.length; i += 3) {
+                writeEntry(zos, (String) entries[i], (byte[]) entries[i + 1], (Boolean) entries[i + 2]);
+            }
+            zos.setComment(comment);
+        }
+
+        return jar;
+    }
+
+    @Test
+    void testReadStoredAndDeflatedEntries(@TempDir Path dir) throws Exception {
+        byte[] integer = readClassBytes(Integer.class);
+        byte[] test = readClassBytes(JarClassPoolTest.class);
+
+        Path jar = writeJar(dir.resolve("a.jar"), "a comment before the end of the file",
+                "java/lang/Integer.class", integer, false,
+                "p/Test.class", test, true,
+                "META-INF/versions/17/p/Ignored.class", test, false,
+                "p/resource.txt", new byte[]{1, 2, 3}, false);
+
+        try (JarClassPool classPool = new JarClassPool(jar)) {
+            assertEquals(Set.of("java/lang/Integer", "p/Test"), classPool.classNames());
+            assertArrayEquals(integer, classPool.classForName("java/lang/Integer"));
+            assertArrayEquals(test, classPool.classForName("p/Test"));
+
+            // the class is parsed from the jar, not loaded
+            assertEquals(Optional.of(Integer.MAX_VALUE),
+                    classPool.staticFinalFieldValueForName("java/lang/Integer", "MAX_VALUE"));
+            assertThrows(ClassNotFoundException.class, () -> classPool.classForName("p/Ignored"));
+            assertThrows(ClassNotFoundException.class, () -> classPool.classForName("p/resource"));
+        }
+    }
+
+    @Test
+    void testFirstJarWins(@TempDir Path dir) throws Exception {
+        byte[] integer = readClassBytes(Integer.class);
+        byte[] test = readClassBytes(JarClassPoolTest.class);
+
+        Path first = writeJar(dir.resolve("first.jar"), null, "p/A.class", integer, false);
+        Path second = writeJar(dir.resolve("second.jar"), null,
+                "p/A.class", test, false,
+                "p/B.class", test, true);
+
+        try (JarClassPool classPool = new JarClassPool(first, second)) {
+            assertArrayEquals(integer, classPool.classForName("p/A"));
+            assertArrayEquals(test, classPool.classForName("p/B"));
+        }
+    }
+
+    @Test
+    void testRejectWrongSize(@TempDir Path dir) throws Exception {
+        byte[] test = readClassBytes(JarClassPoolTest.class);
+        byte[] jar = Files.readAllBytes(writeJar(dir.resolve("a.jar"), null, "p/Test.class", test, false));
+
+        // the uncompressed size in the central directory header, one byte short and one byte too many
+        int header = 0;
+        while (ByteBuffer.wrap(jar, header, 4).order(ByteOrder.LITTLE_ENDIAN).getInt() != 0x02014b50) {
+            header++;
+        }
+        for (int delta : new int[]{-1, 1}) {
+            byte[] corrupt = jar.clone();
+            ByteBuffer.wrap(corrupt).order(ByteOrder.LITTLE_ENDIAN).putInt(header + 24, test.length + delta);
+
+            Path file = Files.write(dir.resolve("corrupt" + delta + ".jar"), corrupt);
+            try (JarClassPool classPool = new JarClassPool(file)) {
+                assertThrows(ClassNotFoundException.class, () -> classPool.classForName("p/Test"));
+            }
+        }
+    }
+
+    @Test
+    void testRejectNonJar(@TempDir Path dir) throws IOException {
+        Path file = Files.write(dir.resolve("not.jar"), new byte[]{1, 2, 3});
+        assertThrows(IOException.class, () -> new JarClassPool(file));
+    }
+}
@@ -0,0 +1,47 @@
+package org.openjdk.leyden.constprop.analysis;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class JrtClassPoolTest {
+
+    private static byte[] readSystemClassBytes(String name) throws IOException {
+        try (InputStream is = ClassLoader.getSystemResourceAsStream(name + ".class")) {
+            return Objects.requireNonNull(is).readAllBytes();
+        }
+    }
+
+    @Test
+    void testReadRunningImage() throws Exception {
+        try (JrtClassPool classPool = new JrtClassPool()) {
+            assertEquals("java.base", classPool.moduleForName("java/lang/Integer"));
+            assertEquals("java.sql", classPool.moduleForName("java/sql/Connection"));
+            assertNull(classPool.moduleForName("org/openjdk/leyden/constprop/analysis/JrtClassPool"));
+
+            assertArrayEquals(readSystemClassBytes("java/lang/Integer"), classPool.classForName("java/lang/Integer"));
+
+            assertEquals(Optional.of(Integer.MAX_VALUE),
+                    classPool.staticFinalFieldValueForName("java/lang/Integer", "MAX_VALUE"));
+            assertThrows(ClassNotFoundException.class, () -> classPool.classForName("java/lang/NoSuchClass"));
+            assertThrows(ClassNotFoundException.class,
+                    () -> classPool.classForName("org/openjdk/leyden/constprop/analysis/JrtClassPool"));
+        }
+    }
+
+    @Test
+    void testReadImageOfJavaHome() throws Exception {
+        try (JrtClassPool classPool = new JrtClassPool(Path.of(System.getProperty("java.home")))) {
+            assertArrayEquals(readSystemClassBytes("java/lang/Long"), classPool.classForName("java/lang/Long"));
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package org.openjdk.leyden.constprop.analysis;
+
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.analysis.AnalyzerException;
+import org.objectweb.asm.tree.analysis.Frame;
+import org.openjdk.leyden.constprop.values.ConstantizationValue;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.openjdk.leyden.constprop.analysis.TestClasses.getMethodNode;
+
+public class MethodSummariesTest {
+    private static final String OWNER = Type.getInternalName(CallTarget.class);
+
+    public static class CallTarget {
+        private static int helper() {
+            return 42;
+        }
+
+        public static int callsHelper() {
+            return helper();
+        }
+
+        private static int twice(int x) {
+            return x * 2;
+        }
+
+        public static int callsTwice() {
+            return twice(3) + twice(3) + twice(4);
+        }
+
+        private long seven() {
+            return 7L;
+        }
+
+        public long callsPrivate() {
+            return seven();
+        }
+
+        public static int recursive(int n) {
+            return n <= 0 ? 0 : recursive(n - 1);
+        }
+
+        public static int callsVirtual(Object o) {
+            return o.hashCode();
+        }
+
+        private static int half(int p) {
+            return p > 0 ? 1 : p;
+        }
+
+        public static int callsHalf() {
+            return half(new Random().nextInt());
+        }
+
+        public static int callsHalfKnown(int b) {
+            return half(b > 0 ? 2 : -3);
+        }
+    }
+
+    private static Collection<?> returnedValues(ConstantizationAnalyzer analyzer, String name)
+            throws AnalyzerException {
+        MethodNode method = getMethodNode(CallTarget.class, name);
+        Frame<ConstantizationValue<?>>[] frames = analyzer.analyze(OWNER, method);
+        for (int i = 0; i < method.instructions.size(); i++) {
+            int opcode = method.instructions.get(i).getOpcode();
+            if (opcode == Opcodes.IRETURN || opcode == Opcodes.LRETURN) {
+                Frame<ConstantizationValue<?>> frame = frames[i];
+                return frame.getStack(frame.getStackSize() - 1).values();
+            }
+        }
+
+        throw new AssertionError("No return in " + name);
+    }
+
+    private static ConstantizationAnalyzer summarizing() {
+        ConstantizationAnalyzer analyzer = new ConstantizationAnalyzer();
+        analyzer.setMethodSummaries(new MethodSummaries());
+        return analyzer;
+    }
+
+    @Test
+    void testStaticCall() throws AnalyzerException {
+        ConstantizationAnalyzer analyzer = summarizing();
+        assertEquals(List.of(42), List.copyOf(returnedValues(analyzer, "callsHelper")));
+        assertTrue(analyzer.getDependencies().contains(DependencyGraph.Dependency.onMethod(OWNER, "helper", "()I")));
+    }
+
+    @Test
+    void testSummaryPerArguments() throws AnalyzerException {
+        MethodSummaries summaries = new MethodSummaries();
+        ConstantizationAnalyzer analyzer = new ConstantizationAnalyzer();
+        analyzer.setMethodSummaries(summaries);
+
+        assertEquals(List.of(20), List.copyOf(returnedValues(analyzer, "callsTwice")));
+        // twice(3) and twice(4), the second call with 3 reuses the first summary
+        assertEquals(2, summaries.size());
+
+        ConstantizationAnalyzer other = new ConstantizationAnalyzer();
+        other.setMethodSummaries(summaries);
+        assertEquals(List.of(20), List.copyOf(returnedValues(other, "callsTwice")));
+        assertEquals(2, summaries.size());
+
+        summaries.invalidate(OWNER);
+        assertEquals(0, summaries.size());
+    }
+
+    @Test
+    void testPrivateCall() throws AnalyzerException {
+        assertEquals(List.of(7L), List.copyOf(returnedValues(summarizing(), "callsPrivate")));
+    }
+
+    @Test
+    void testRecursiveCall() throws AnalyzerException {
+        MethodSummaries summaries = new MethodSummaries();
+        ConstantizationAnalyzer analyzer = new ConstantizationAnalyzer();
+        analyzer.setMethodSummaries(summaries);
+
+        // NOTE: each level calls with another argument, until the call chain is cut off with an unknown value, which
+        // the result of every level keeps
+        assertTrue(returnedValues(analyzer, "recursive").isEmpty());
+        assertEquals(0, summaries.size());
+    }
+
+    @Test
+    void testPartlyUnknownReturn() throws AnalyzerException {
+        // NOTE: the callee returns its unknown argument on one path, so its return value is unknown, not 1
+        assertTrue(returnedValues(summarizing(), "callsHalf").isEmpty());
+        // branches do not narrow the argument, so 2 is kept along the path returning it
+        assertEquals(Set.of(1, 2, -3), Set.copyOf(returnedValues(summarizing(), "callsHalfKnown")));
+    }
+
+    @Test
+    void testVirtualCall() throws AnalyzerException {
+        assertTrue(returnedValues(summarizing(), "callsVirtual").isEmpty());
+    }
+
+    @Test
+    void testDisabled() throws AnalyzerException {
+        // summaries are opt-in
+        assertTrue(returnedValues(new ConstantizationAnalyzer(), "callsHelper").isEmpty());
+
+        ConstantizationAnalyzer analyzer = summarizing();
+        analyzer.setMethodSummaries(null);
+        assertTrue(returnedValues(analyzer, "callsHelper").isEmpty());
+    }
+}
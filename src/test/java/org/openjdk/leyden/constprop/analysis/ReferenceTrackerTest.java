@@ -0,0 +1,72 @@
+package org.openjdk.leyden.constprop.analysis;
+
+import org.junit.jupiter.api.Test;
+import org.openjdk.leyden.constprop.descriptors.BasicMutableObjectDescriptor;
+import org.openjdk.leyden.constprop.values.MutableReferenceTypeValue;
+import org.openjdk.leyden.constprop.values.ReferenceIdArena;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class ReferenceTrackerTest {
+    private static final String DESCRIPTOR = "Ljava/lang/StringBuilder;";
+
+    private static MutableReferenceTypeValue<BasicMutableObjectDescriptor> newReference() {
+        return new MutableReferenceTypeValue<>(DESCRIPTOR);
+    }
+
+    @Test
+    void testIdsAreDensePerArena() {
+        ReferenceIdArena arena = ReferenceIdArena.open();
+        assertEquals(0, newReference().getId());
+        assertEquals(1, newReference().getId());
+        assertEquals(2, arena.size());
+
+        ReferenceIdArena.open();
+        MutableReferenceTypeValue<BasicMutableObjectDescriptor> value = newReference();
+        assertEquals(0, value.getId());
+        assertEquals(0, ((MutableReferenceTypeValue<?>) value.ident()).getId());
+    }
+
+    @Test
+    void testArenasArePerThread() {
+        ReferenceIdArena.open();
+        newReference();
+
+        int id = CompletableFuture.supplyAsync(() -> {
+            ReferenceIdArena.open();
+            return newReference().getId();
+        }).join();
+
+        assertEquals(0, id);
+        assertEquals(1, newReference().getId());
+    }
+
+    @Test
+    void testGetLatestVersionAtOrBefore() {
+        ReferenceIdArena.open();
+        MutableReferenceTypeValue<BasicMutableObjectDescriptor> a = newReference();
+        MutableReferenceTypeValue<BasicMutableObjectDescriptor> b = newReference();
+        MutableReferenceTypeValue<?> a2 = (MutableReferenceTypeValue<?>) a.ident();
+
+        ReferenceTracker parent = new ReferenceTracker();
+        parent.put(1, a);
+        ReferenceTracker tracker = new ReferenceTracker(parent);
+        tracker.put(5, a2);
+        tracker.put(7, b);
+
+        assertSame(a, tracker.get(3, a.getId()));
+        assertSame(a2, tracker.get(6, a.getId()));
+        assertSame(b, tracker.get(7, b.getId()));
+        assertNull(tracker.get(6, b.getId()));
+        assertNull(tracker.get(9, 42));
+
+        // a later value at the same instruction replaces the earlier one
+        tracker.put(7, a2);
+        assertNull(tracker.get(7, b.getId()));
+        assertSame(a2, tracker.get(7, a.getId()));
+    }
+}
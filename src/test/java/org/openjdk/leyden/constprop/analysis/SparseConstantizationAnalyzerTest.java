@@ -0,0 +1,145 @@
+package org.openjdk.leyden.constprop.analysis;
+
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.IntInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.analysis.AnalyzerException;
+import org.objectweb.asm.tree.analysis.Frame;
+import org.openjdk.leyden.constprop.util.IntSet;
+import org.openjdk.leyden.constprop.values.ConstantizationValue;
+import org.openjdk.leyden.constprop.values.IntegerValue;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.openjdk.leyden.constprop.analysis.TestClasses.getMethodNode;
+
+public class SparseConstantizationAnalyzerTest {
+    public static class SparseTarget {
+        public static int branch() {
+            int x = 1;
+            int y;
+            if (x == 1) {
+                y = 10;
+            } else {
+                y = 20;
+            }
+
+            return y;
+        }
+
+        public static int select() {
+            int key = 2;
+            return switch (key) {
+                case 1 -> 100;
+                case 2 -> 200;
+                default -> 300;
+            };
+        }
+
+        public static int parameter(int x) {
+            return x == 0 ? 1 : 2;
+        }
+
+        public static int flag(boolean b) {
+            return b ? 1 : 2;
+        }
+
+        public static int partlyUnknown(int b) {
+            int x = b > 0 ? 1 : new Random().nextInt();
+            if (x == 1) {
+                return 10;
+            }
+
+            return 20;
+        }
+    }
+
+    private static IntSet returnValues(MethodNode mn, Frame<ConstantizationValue<?>>[] frames) {
+        IntSet values = IntSet.empty();
+        for (AbstractInsnNode insn : mn.instructions) {
+            Frame<ConstantizationValue<?>> frame = frames[mn.instructions.indexOf(insn)];
+            if (insn.getOpcode() == Opcodes.IRETURN && frame != null) {
+                values = values.union(((IntegerValue) frame.getStack(frame.getStackSize() - 1)).intValues());
+            }
+        }
+
+        return values;
+    }
+
+    @Test
+    void testSameResultsWithoutPrunableBranches() throws AnalyzerException {
+        assertSameResults(ConstantizationDriverTest.DriverTarget.class, "constant");
+        assertSameResults(ConstantizationDriverTest.DriverTarget.class, "loop");
+        assertSameResults(ConstantizationFrameTest.LoopTarget.class, "countUp");
+        assertSameResults(ConstantizationFrameTest.LoopTarget.class, "countDown");
+    }
+
+    private static void assertSameResults(Class<?> clazz, String name) throws AnalyzerException {
+        String owner = Type.getInternalName(clazz);
+        MethodNode mn = getMethodNode(clazz, name);
+
+        Frame<ConstantizationValue<?>>[] dense = new ConstantizationAnalyzer().analyze(owner, mn);
+        Frame<ConstantizationValue<?>>[] sparse = new SparseConstantizationAnalyzer().analyze(owner, mn);
+        assertEquals(returnValues(mn, dense), returnValues(mn, sparse), name);
+    }
+
+    @Test
+    void testSkipsBranchesNotTaken() throws AnalyzerException {
+        String owner = Type.getInternalName(SparseTarget.class);
+        MethodNode mn = getMethodNode(SparseTarget.class, "branch");
+
+        assertEquals(IntSet.of(10, 20), returnValues(mn, new ConstantizationAnalyzer().analyze(owner, mn)));
+
+        SparseConstantizationAnalyzer analyzer = new SparseConstantizationAnalyzer();
+        Frame<ConstantizationValue<?>>[] frames = analyzer.analyze(owner, mn);
+        assertEquals(IntSet.of(10), returnValues(mn, frames));
+
+        // the else branch pushes 20, and is never reached
+        for (AbstractInsnNode insn : mn.instructions) {
+            if (insn.getOpcode() == Opcodes.BIPUSH && ((IntInsnNode) insn).operand == 20) {
+                assertNull(frames[mn.instructions.indexOf(insn)]);
+            }
+        }
+        assertTrue(analyzer.getVisitedInstructionCount() < mn.instructions.size());
+    }
+
+    @Test
+    void testSkipsSwitchCasesNotSelected() throws AnalyzerException {
+        MethodNode mn = getMethodNode(SparseTarget.class, "select");
+        Frame<ConstantizationValue<?>>[] frames =
+                new SparseConstantizationAnalyzer().analyze(Type.getInternalName(SparseTarget.class), mn);
+
+        assertEquals(IntSet.of(200), returnValues(mn, frames));
+    }
+
+    @Test
+    void testParametersAreUnknown() throws AnalyzerException {
+        MethodNode mn = getMethodNode(SparseTarget.class, "parameter");
+        Frame<ConstantizationValue<?>>[] frames =
+                new SparseConstantizationAnalyzer().analyze(Type.getInternalName(SparseTarget.class), mn);
+
+        // NOTE: the parameter is not assumed to be 0, so both branches stay reachable
+        assertEquals(IntSet.of(1, 2), returnValues(mn, frames));
+
+        // booleans, bytes, chars and shorts are ints, as on the operand stack
+        MethodNode flag = getMethodNode(SparseTarget.class, "flag");
+        assertEquals(IntSet.of(1, 2), returnValues(flag,
+                new SparseConstantizationAnalyzer().analyze(Type.getInternalName(SparseTarget.class), flag)));
+    }
+
+    @Test
+    void testKeepsBranchesOnUnknownValues() throws AnalyzerException {
+        MethodNode mn = getMethodNode(SparseTarget.class, "partlyUnknown");
+        Frame<ConstantizationValue<?>>[] frames =
+                new SparseConstantizationAnalyzer().analyze(Type.getInternalName(SparseTarget.class), mn);
+
+        // NOTE: x is 1 along one path only, the other one may well return 20
+        assertEquals(IntSet.of(10, 20), returnValues(mn, frames));
+    }
+}
@@ -0,0 +1,136 @@
+package org.openjdk.leyden.constprop.analysis;
+
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.analysis.AnalyzerException;
+import org.objectweb.asm.tree.analysis.Frame;
+import org.openjdk.leyden.constprop.targets.ConstantizationTarget;
+import org.openjdk.leyden.constprop.targets.ConstantizationTargetFactory;
+import org.openjdk.leyden.constprop.values.ConstantizationValue;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.openjdk.leyden.constprop.analysis.TestClasses.getMethodNode;
+
+public class StaticInitializersTest {
+    private static final String OWNER = Type.getInternalName(StaticTarget.class);
+
+    public static class StaticTarget {
+        static final int CONSTANT = 3;
+        static final int COMPUTED = compute();
+        static final long BRANCHED;
+        static final int SELF = COMPUTED + 1;
+        static final StringBuilder BUILDER = new StringBuilder();
+        static final String[] NAMES = {"a", "b"};
+        static int counter = 5;
+
+        static {
+            BRANCHED = counter > 0 ? 1L : 2L;
+        }
+
+        private static int compute() {
+            return 6 * 7;
+        }
+
+        public static int readComputed() {
+            return COMPUTED;
+        }
+
+        public static long readBranched() {
+            return BRANCHED;
+        }
+
+        public static int namesLength() {
+            return NAMES.length;
+        }
+
+        public static String firstName() {
+            return NAMES[0];
+        }
+    }
+
+    private static ConstantizationValue<?> returnedValue(ConstantizationAnalyzer analyzer, String name)
+            throws AnalyzerException {
+        MethodNode method = getMethodNode(StaticTarget.class, name);
+        Frame<ConstantizationValue<?>>[] frames = analyzer.analyze(OWNER, method);
+        for (int i = 0; i < method.instructions.size(); i++) {
+            int opcode = method.instructions.get(i).getOpcode();
+            if (opcode >= Opcodes.IRETURN && opcode <= Opcodes.ARETURN) {
+                Frame<ConstantizationValue<?>> frame = frames[i];
+                return frame.getStack(frame.getStackSize() - 1);
+            }
+        }
+
+        throw new AssertionError("No return in " + name);
+    }
+
+    private static Collection<?> returnedValues(ConstantizationAnalyzer analyzer, String name)
+            throws AnalyzerException {
+        return returnedValue(analyzer, name).values();
+    }
+
+    @Test
+    void testGetStatic() throws AnalyzerException {
+        StaticInitializers initializers = new StaticInitializers();
+        initializers.setMethodSummaries(new MethodSummaries());
+        ConstantizationAnalyzer analyzer = new ConstantizationAnalyzer();
+        analyzer.setStaticInitializers(initializers);
+
+        assertEquals(List.of(42), List.copyOf(returnedValues(analyzer, "readComputed")));
+        assertTrue(analyzer.getDependencies().contains(DependencyGraph.Dependency.onField(OWNER, "COMPUTED")));
+        assertTrue(analyzer.getDependencies().contains(DependencyGraph.Dependency.onMethod(OWNER, "compute", "()I")));
+
+        // the static initializer was analyzed once, the second read reuses its values
+        assertEquals(Set.of(1L, 2L), Set.copyOf(returnedValues(analyzer, "readBranched")));
+        assertEquals(1, initializers.size());
+
+        initializers.invalidate(OWNER);
+        assertEquals(0, initializers.size());
+    }
+
+    @Test
+    void testGetStaticArray() throws AnalyzerException {
+        ConstantizationAnalyzer analyzer = new ConstantizationAnalyzer();
+        analyzer.setStaticInitializers(new StaticInitializers());
+
+        // NOTE: arrays are not tracked, so even the length of a static final array is unknown
+        assertTrue(returnedValue(analyzer, "namesLength").isUnknown());
+        assertTrue(returnedValue(analyzer, "firstName").isUnknown());
+    }
+
+    @Test
+    void testValueOf() throws ClassNotFoundException, FieldNotFoundException {
+        StaticInitializers initializers = new StaticInitializers();
+        initializers.setMethodSummaries(new MethodSummaries());
+
+        assertEquals(List.of(3), List.copyOf(initializers.valueOf(OWNER, "CONSTANT").values()));
+        assertEquals(List.of(42), List.copyOf(initializers.valueOf(OWNER, "COMPUTED").values()));
+
+        // NOTE: the static initializer reading a field of its own class may well read its default value
+        assertTrue(initializers.valueOf(OWNER, "SELF").values().isEmpty());
+        // the identity of a new object only means something within the static initializer
+        assertTrue(initializers.valueOf(OWNER, "BUILDER").values().isEmpty());
+        // any method may assign a non-final field
+        assertTrue(initializers.valueOf(OWNER, "counter").values().isEmpty());
+    }
+
+    @Test
+    void testStaticFieldTarget() {
+        StaticInitializers initializers = new StaticInitializers();
+        initializers.setMethodSummaries(new MethodSummaries());
+
+        ConstantizationTarget target = ConstantizationTargetFactory.createStaticFieldTarget(OWNER, "COMPUTED",
+                initializers);
+        assertEquals(List.of(42), List.copyOf(target.extractValueFromFrames(null).values()));
+
+        ConstantizationTarget detached = ConstantizationTargetFactory.createStaticFieldTarget(OWNER, "COMPUTED");
+        assertThrows(UnsupportedOperationException.class, () -> detached.extractValueFromFrames(null));
+    }
+}
@@ -0,0 +1,36 @@
+package org.openjdk.leyden.constprop.analysis;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Objects;
+
+/**
+ * Reads the compiled test target classes from the class path, as the analyzers see them.
+ */
+final class TestClasses {
+    private TestClasses() {
+    }
+
+    static byte[] readClassBytes(Class<?> clazz) {
+        try (InputStream is = clazz.getClassLoader().getResourceAsStream(Type.getInternalName(clazz) + ".class")) {
+            return Objects.requireNonNull(is).readAllBytes();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * @return the first method of the class with the name, with expanded frames
+     */
+    static MethodNode getMethodNode(Class<?> clazz, String name) {
+        ClassNode cn = new ClassNode();
+        new ClassReader(readClassBytes(clazz)).accept(cn, ClassReader.EXPAND_FRAMES);
+
+        return cn.methods.stream().filter(mn -> mn.name.equals(name)).findFirst().orElseThrow();
+    }
+}
@@ -0,0 +1,101 @@
+package org.openjdk.leyden.constprop.metrics;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.analysis.AnalyzerException;
+import org.openjdk.leyden.constprop.analysis.ClassLoaderClassPool;
+import org.openjdk.leyden.constprop.analysis.ConstantizationAnalyzer;
+import org.openjdk.leyden.constprop.analysis.MethodNotFoundException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MetricsRegistryTest {
+    public static class MetricsTarget {
+        public static int sum() {
+            int sum = 0;
+            for (int i = 0; i < 100; i++) {
+                sum += i;
+            }
+
+            return sum;
+        }
+    }
+
+    @Test
+    void testPrometheusText() throws IOException {
+        MetricsRegistry registry = new MetricsRegistry();
+        Counter hits = registry.counter("test_lookups_total", "Lookups", "result", "hit");
+        assertSame(hits, registry.counter("test_lookups_total", "Lookups", "result", "hit"));
+        hits.add(3);
+        registry.counter("test_lookups_total", "Lookups", "result", "miss").increment();
+
+        Histogram histogram = registry.histogram("test_seconds", "Durations", new double[]{0.1, 1});
+        histogram.observe(0.1);
+        histogram.observe(0.5);
+        histogram.observe(5);
+
+        registry.gauge("test_size", "Size with a \"quote\"", () -> 2.5, "name", "a\"b");
+
+        StringBuilder sb = new StringBuilder();
+        registry.writePrometheus(sb);
+        assertEquals("""
+                # HELP test_lookups_total Lookups
+                # TYPE test_lookups_total counter
+                test_lookups_total{result="hit"} 3
+                test_lookups_total{result="miss"} 1
+                # HELP test_seconds Durations
+                # TYPE test_seconds histogram
+                test_seconds_bucket{le="0.1"} 1
+                test_seconds_bucket{le="1"} 2
+                test_seconds_bucket{le="+Inf"} 3
+                test_seconds_sum 5.6
+                test_seconds_count 3
+                # HELP test_size Size with a "quote"
+                # TYPE test_size gauge
+                test_size{name="a\\"b"} 2.5
+                """, sb.toString());
+    }
+
+    @Test
+    void testInvalidRegistrations() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("test_total", "A counter");
+
+        assertThrows(IllegalArgumentException.class, () -> registry.histogram("test_total", "", new double[]{1}));
+        assertThrows(IllegalArgumentException.class, () -> registry.counter("test-total", ""));
+        assertThrows(IllegalArgumentException.class, () -> registry.counter("test_total", "", "label"));
+        assertThrows(IllegalArgumentException.class, () -> registry.counter("test_total", "").add(-1));
+    }
+
+    @Test
+    void testAnalysisReportsIntoGlobalRegistry(@TempDir Path dir)
+            throws IOException, ClassNotFoundException, MethodNotFoundException, AnalyzerException {
+        MetricsRegistry registry = MetricsRegistry.global();
+        Counter methods = registry.counter("constprop_methods_analyzed_total", "");
+        Counter frames = registry.counter("constprop_frames_allocated_total", "");
+        long methodsBefore = methods.sum();
+        long framesBefore = frames.sum();
+
+        String owner = Type.getInternalName(MetricsTarget.class);
+        new ConstantizationAnalyzer().analyze(owner, new ClassLoaderClassPool().methodForName(owner, "sum", "()I"));
+
+        assertTrue(methods.sum() > methodsBefore);
+        assertTrue(frames.sum() > framesBefore);
+
+        Path file = dir.resolve("constprop.prom");
+        registry.writePrometheus(file);
+        String text = Files.readString(file);
+        assertTrue(text.contains("# TYPE constprop_methods_analyzed_total counter"), text);
+        // NOTE: methods are looked up through the member index cache
+        assertTrue(text.contains("constprop_class_cache_lookups_total{cache=\"member_indexes\",result=\"miss\"}"),
+                text);
+    }
+}
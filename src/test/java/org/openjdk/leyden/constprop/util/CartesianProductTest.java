@@ -1,11 +1,16 @@
 package org.openjdk.leyden.constprop.util;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.IntStream;
 
 import org.junit.jupiter.api.Test;
 import org.openjdk.leyden.constprop.util.CartesianProduct;
@@ -60,4 +65,34 @@ public class CartesianProductTest {
         assertTrue(actual.contains(Arrays.asList(2, "B", 'x')));
         assertTrue(actual.contains(Arrays.asList(2, "B", 'y')));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testIteratorMatchesProduct() {
+        List<Object> list1 = Arrays.asList(1, 2);
+        List<Object> list2 = Arrays.asList("A", null);
+        List<Object> list3 = Arrays.asList('x', 'y', 'z');
+
+        List<List<Object>> actual = new ArrayList<>();
+        CartesianProduct.iterator(Object[]::new, list1, list2, list3)
+                .forEachRemaining(combination -> actual.add(Arrays.asList(combination)));
+
+        assertEquals(CartesianProduct.of(list1, list2, list3), actual);
+    }
+
+    @Test
+    void testIteratorOfEmptyList() {
+        assertFalse(CartesianProduct.iterator(Object[]::new).hasNext());
+        assertFalse(CartesianProduct.iterator(Object[]::new, List.of(1), List.of()).hasNext());
+    }
+
+    @Test
+    void testIteratorIsLazy() {
+        List<Integer> large = IntStream.range(0, 100_000).boxed().toList();
+
+        // NOTE: the whole product has 10^15 combinations, only the first ones are ever built
+        Iterator<Integer[]> iterator = CartesianProduct.iterator(Integer[]::new, large, large, large);
+        assertArrayEquals(new Integer[]{0, 0, 0}, iterator.next());
+        assertArrayEquals(new Integer[]{1, 0, 0}, iterator.next());
+        assertTrue(iterator.hasNext());
+    }
+}
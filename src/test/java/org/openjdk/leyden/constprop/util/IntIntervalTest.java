@@ -0,0 +1,73 @@
+package org.openjdk.leyden.constprop.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class IntIntervalTest {
+
+    @Test
+    void testOf() {
+        assertSame(IntInterval.FULL, IntInterval.of(Integer.MIN_VALUE, Integer.MAX_VALUE));
+        assertEquals(IntInterval.of(3, 3), IntInterval.of(3));
+        assertThrows(IllegalArgumentException.class, () -> IntInterval.of(1, 0));
+    }
+
+    @Test
+    void testJoin() {
+        IntInterval interval = IntInterval.of(0, 10);
+
+        assertSame(interval, interval.join(IntInterval.of(2, 3)));
+        assertEquals(IntInterval.of(-5, 10), interval.join(IntInterval.of(-5, 5)));
+    }
+
+    @Test
+    void testWiden() {
+        IntInterval interval = IntInterval.of(0, 4);
+        IntSet thresholds = IntSet.of(-1, 10, 100);
+
+        assertSame(interval, interval.widen(IntInterval.of(1, 3), thresholds));
+        assertEquals(IntInterval.of(0, 10), interval.widen(IntInterval.of(1, 5), thresholds));
+        assertEquals(IntInterval.of(0, 10), interval.widen(IntInterval.of(0, 10), thresholds));
+        assertEquals(IntInterval.of(-1, Integer.MAX_VALUE), interval.widen(IntInterval.of(-1, 101), thresholds));
+        assertEquals(IntInterval.of(Integer.MIN_VALUE, 4), interval.widen(IntInterval.of(-2, 0), thresholds));
+        assertSame(IntInterval.FULL, interval.widen(IntInterval.of(-2, 5), IntSet.empty()));
+    }
+
+    @Test
+    void testArithmetic() {
+        IntInterval a = IntInterval.of(-2, 3);
+        IntInterval b = IntInterval.of(1, 4);
+
+        assertEquals(IntInterval.of(-1, 7), a.add(b));
+        assertEquals(IntInterval.of(-6, 2), a.sub(b));
+        assertEquals(IntInterval.of(-8, 12), a.mul(b));
+        assertEquals(IntInterval.of(-3, 2), a.neg());
+    }
+
+    @Test
+    void testWrapAroundGivesUp() {
+        assertSame(IntInterval.FULL, IntInterval.of(0, Integer.MAX_VALUE).add(IntInterval.of(1)));
+        assertSame(IntInterval.FULL, IntInterval.of(Integer.MIN_VALUE, 0).neg());
+        assertSame(IntInterval.FULL, IntInterval.of(1, 1 << 20).mul(IntInterval.of(1 << 12)));
+        assertSame(IntInterval.FULL, IntInterval.of(1, 2).shl(IntInterval.of(31)));
+    }
+
+    @Test
+    void testShifts() {
+        assertEquals(IntInterval.of(4, 12), IntInterval.of(1, 3).shl(IntInterval.of(2)));
+        assertEquals(IntInterval.of(4, 12), IntInterval.of(1, 3).shl(IntInterval.of(34)));
+        assertEquals(IntInterval.of(-4, 2), IntInterval.of(-16, 8).shr(IntInterval.of(2, 3)));
+        assertEquals(IntInterval.of(0, 2), IntInterval.of(0, 8).ushr(IntInterval.of(2)));
+        assertEquals(IntInterval.of(0, -1 >>> 28), IntInterval.of(-1, 1).ushr(IntInterval.of(28)));
+    }
+
+    @Test
+    void testNarrow() {
+        assertEquals(IntInterval.of(-3, 100), IntInterval.of(-3, 100).narrow(Byte.MIN_VALUE, Byte.MAX_VALUE));
+        assertEquals(IntInterval.of(Byte.MIN_VALUE, Byte.MAX_VALUE),
+                IntInterval.of(0, 200).narrow(Byte.MIN_VALUE, Byte.MAX_VALUE));
+    }
+}
@@ -0,0 +1,79 @@
+package org.openjdk.leyden.constprop.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class IntSetTest {
+
+    @Test
+    void testOfSortsAndDeduplicates() {
+        IntSet set = IntSet.of(3, -1, 3, 42, -1);
+
+        assertArrayEquals(new int[]{-1, 3, 42}, set.toArray());
+        assertEquals(-1, set.min());
+        assertEquals(42, set.max());
+        assertTrue(set.contains(3));
+        assertFalse(set.contains(4));
+    }
+
+    @Test
+    void testEmpty() {
+        assertSame(IntSet.empty(), IntSet.of());
+        assertSame(IntSet.empty(), new IntSet.Builder().build());
+        assertTrue(IntSet.empty().isEmpty());
+    }
+
+    @Test
+    void testUnion() {
+        IntSet set1 = IntSet.of(1, 3, 5);
+        IntSet set2 = IntSet.of(2, 3, 6);
+
+        assertArrayEquals(new int[]{1, 2, 3, 5, 6}, set1.union(set2).toArray());
+        assertSame(set1, set1.union(IntSet.empty()));
+        assertSame(set2, IntSet.empty().union(set2));
+    }
+
+    @Test
+    void testContainsAll() {
+        IntSet set = IntSet.of(1, 3, 5, 7);
+
+        assertTrue(set.containsAll(IntSet.of(3, 7)));
+        assertTrue(set.containsAll(IntSet.empty()));
+        assertTrue(set.containsAll(set));
+        assertFalse(set.containsAll(IntSet.of(3, 4)));
+        assertFalse(set.containsAll(IntSet.of(8)));
+        assertFalse(IntSet.of(3).containsAll(set));
+    }
+
+    @Test
+    void testLimit() {
+        IntSet set = IntSet.of(4, 3, 2, 1);
+
+        assertArrayEquals(new int[]{1, 2}, set.limit(2).toArray());
+        assertSame(set, set.limit(4));
+    }
+
+    @Test
+    void testBuilder() {
+        IntSet.Builder builder = new IntSet.Builder(1);
+        for (int i = 20; i > 0; i--) {
+            builder.add(i % 7);
+        }
+
+        assertEquals(IntSet.of(0, 1, 2, 3, 4, 5, 6), builder.build());
+    }
+
+    @Test
+    void testMapToObj() {
+        List<Integer> list = IntSet.of(2, 1).mapToObj(Integer::valueOf);
+
+        assertEquals(List.of(1, 2), list);
+    }
+}
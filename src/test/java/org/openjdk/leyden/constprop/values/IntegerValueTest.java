@@ -2,8 +2,11 @@ package org.openjdk.leyden.constprop.values;
 
 import org.junit.jupiter.api.Test;
 import org.openjdk.leyden.constprop.operations.BinaryOperation;
+import org.openjdk.leyden.constprop.operations.IntBinaryOperation;
 import org.openjdk.leyden.constprop.operations.NewOperation;
 import org.openjdk.leyden.constprop.operations.UnaryOperation;
+import org.openjdk.leyden.constprop.util.IntInterval;
+import org.openjdk.leyden.constprop.util.IntSet;
 import org.openjdk.leyden.constprop.util.Unknowable;
 import org.openjdk.leyden.constprop.values.ConstantizationValue;
 import org.openjdk.leyden.constprop.values.IntegerValue;
@@ -14,6 +17,8 @@ import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class IntegerValueTest {
@@ -117,4 +122,165 @@ public class IntegerValueTest {
 
         assertAllPossibleValues(product, -99, 99);
     }
+
+    @Test
+    void testPossibleValuesAreEvaluatedOnce() {
+        int[] evaluations = {0};
+        IntegerValue src = new IntegerValue(new NewOperation<>() {
+            @Override
+            public Iterator<Integer> applyAll() {
+                evaluations[0]++;
+                return Stream.of(1, 2).iterator();
+            }
+        });
+
+        IntegerValue ident = new IntegerValue(UnaryOperation.identity(), src);
+        IntegerValue sum = new IntegerValue(new BinaryOperation<Integer, Integer, Integer>() {
+            @Override
+            public Unknowable<Integer> apply(Integer operand1, Integer operand2) {
+                return Unknowable.of(operand1 + operand2);
+            }
+        }, src, ident);
+
+        assertAllPossibleValues(sum, 2, 3, 4);
+        assertAllPossibleValues(sum, 2, 3, 4);
+        assertAllPossibleValues(ident, 1, 2);
+        assertEquals(1, evaluations[0]);
+    }
+
+    @Test
+    void testCreatingPrimitiveProductValue() {
+        IntegerValue v1 = new IntegerValue(new NewOperation<>() {
+            @Override
+            public Iterator<Integer> applyAll() {
+                return Stream.of(-1, 1).iterator();
+            }
+        });
+        IntegerValue v2 = new IntegerValue(new NewOperation<>() {
+            @Override
+            public Iterator<Integer> applyAll() {
+                return Stream.of(99, -99).iterator();
+            }
+        });
+
+        IntegerValue product = new IntegerValue(new IntBinaryOperation() {
+            @Override
+            public int applyAsInt(int operand1, int operand2) {
+                return operand1 * operand2;
+            }
+        }, v1, v2);
+
+        assertEquals(IntSet.of(-99, 99), product.intValues());
+        assertAllPossibleValues(product, -99, 99);
+        assertEquals(-99, product.extrema().left());
+        assertEquals(99, product.extrema().right());
+    }
+
+    @Test
+    void testMergingIntoRange() {
+        ConstantizationValue<Integer> merged = new IntegerValue(0);
+        for (int i = 1; i <= 8; i++) {
+            merged = merged.merge(new IntegerValue(i));
+        }
+
+        IntegerValue value = (IntegerValue) merged;
+        assertEquals(IntInterval.of(0, 8), value.intRange());
+        assertTrue(value.intValues().isEmpty());
+        assertEquals(0, value.extrema().left());
+        assertEquals(8, value.extrema().right());
+
+        IntegerValue sum = new IntegerValue(new IntBinaryOperation() {
+            @Override
+            public int applyAsInt(int operand1, int operand2) {
+                return operand1 + operand2;
+            }
+
+            @Override
+            public IntInterval applyRange(IntInterval operand1, IntInterval operand2) {
+                return operand1.add(operand2);
+            }
+        }, value, new IntegerValue(10));
+        assertEquals(IntInterval.of(10, 18), sum.intRange());
+    }
+
+    @Test
+    void testGrowingRangeIsWidened() {
+        ConstantizationValue<Integer> merged = new IntegerValue(0);
+        for (int i = 1; i <= 100; i++) {
+            merged = merged.merge(new IntegerValue(i));
+        }
+
+        assertEquals(IntInterval.of(0, Integer.MAX_VALUE), ((IntegerValue) merged).intRange());
+    }
+
+    @Test
+    void testWideningStabilizes() {
+        IntSet thresholds = IntSet.of(0, 1, 10);
+
+        // i = 0; while (...) i++;
+        IntegerValue header = new IntegerValue(0);
+        int passes = 0;
+        while (true) {
+            IntegerValue next = new IntegerValue(new IntBinaryOperation() {
+                @Override
+                public int applyAsInt(int operand1, int operand2) {
+                    return operand1 + operand2;
+                }
+
+                @Override
+                public IntInterval applyRange(IntInterval operand1, IntInterval operand2) {
+                    return operand1.add(operand2);
+                }
+            }, header, new IntegerValue(1));
+
+            ConstantizationValue<Integer> widened = header.widen(next, thresholds);
+            if (widened == header) {
+                break;
+            }
+
+            header = (IntegerValue) widened;
+            passes++;
+        }
+
+        // {0, 1}, ..., {0, ..., 4}, [0, 10], [0, MAX], then i + 1 wraps around
+        assertEquals(7, passes);
+        assertSame(IntInterval.FULL, header.intRange());
+    }
+
+    @Test
+    void testCovers() {
+        ConstantizationValue<Integer> small = new IntegerValue(0).merge(new IntegerValue(1)).merge(new IntegerValue(2));
+        ConstantizationValue<Integer> range = new IntegerValue(0);
+        for (int i = 1; i <= 10; i++) {
+            range = range.merge(new IntegerValue(i));
+        }
+        IntegerValue unknown = new IntegerValue(new NewOperation<>() {
+            @Override
+            public Iterator<Integer> applyAll() {
+                return Stream.<Integer>empty().iterator();
+            }
+        });
+
+        assertTrue(small.covers(new IntegerValue(1)));
+        assertFalse(small.covers(new IntegerValue(3)));
+        assertTrue(range.covers(small));
+        assertFalse(small.covers(range));
+        // NOTE: an unknown value may be anything, so only it covers itself
+        assertFalse(small.covers(unknown));
+        assertTrue(unknown.covers(small));
+        assertTrue(unknown.covers(unknown));
+        assertTrue(small.merge(unknown).isUnknown());
+
+        assertEquals(small, new IntegerValue(2).merge(new IntegerValue(1)).merge(new IntegerValue(0)));
+        assertFalse(small.equals(new IntegerValue(0).merge(new IntegerValue(2))));
+    }
+
+    @Test
+    void testHashCodeMatchesEquals() {
+        ConstantizationValue<Integer> small = new IntegerValue(0).merge(new IntegerValue(1));
+        assertEquals(small.hashCode(), new IntegerValue(1).merge(new IntegerValue(0)).hashCode());
+        assertEquals(IntegerValue.ofRange(IntInterval.of(-5, 100)).hashCode(),
+                IntegerValue.ofRange(IntInterval.of(-5, 100)).hashCode());
+        assertEquals(new LongValue(7L).hashCode(), new LongValue(7L).hashCode());
+    }
 }